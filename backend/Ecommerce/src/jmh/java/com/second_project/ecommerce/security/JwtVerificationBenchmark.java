@@ -0,0 +1,72 @@
+package com.second_project.ecommerce.security;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.second_project.ecommerce.config.properties.JwtProperties;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Token verification cost per request. perRequestParsers is what JwtAuthenticationFilter did
+ * before the key and parser were cached: validateToken then getEmailFromToken, each deriving
+ * the key and building a parser. cachedParser is the current single parseClaims call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "your-256-bit-secret-key-change-this-in-production-must-be-at-least-256-bits-long";
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpirationMs(86_400_000L);
+        tokenProvider = new JwtTokenProvider(properties);
+        token = tokenProvider.generateTokenFromEmail("customer@example.com", 42L, "CUSTOMER");
+    }
+
+    @Benchmark
+    public String perRequestParsers() {
+        Claims validated = Jwts.parser().verifyWith(legacySigningKey()).build().parseSignedClaims(token).getPayload();
+        if (validated.getExpiration() == null) {
+            return null;
+        }
+        return Jwts.parser().verifyWith(legacySigningKey()).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String cachedParser() {
+        return tokenProvider.parseClaims(token).getSubject();
+    }
+
+    // The key derivation JwtTokenProvider used to run on every call
+    private static SecretKey legacySigningKey() {
+        byte[] keyBytes = Decoders.BASE64.decode(Base64.getEncoder().encodeToString(SECRET.getBytes()));
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+}
@@ -0,0 +1,17 @@
+package com.second_project.book_store.config;
+
+import org.springframework.context.annotation.Configuration;
+
+import com.second_project.book_store.config.properties.IdProperties;
+import com.second_project.book_store.util.SnowflakeIdGenerator;
+
+/**
+ * Applies app.id.worker-id to the shared SnowflakeIdGenerator before any order is placed.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    public IdGeneratorConfig(IdProperties idProperties) {
+        SnowflakeIdGenerator.configure(idProperties.getWorkerId());
+    }
+}
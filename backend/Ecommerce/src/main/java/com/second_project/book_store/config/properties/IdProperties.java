@@ -0,0 +1,34 @@
+package com.second_project.book_store.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Type-safe configuration properties for the id generator.
+ * 
+ * This class binds to properties under 'app.id' prefix in application.yml.
+ * 
+ * Usage in application.yml:
+ * app:
+ *   id:
+ *     worker-id: ${APP_WORKER_ID:0}
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.id")
+public class IdProperties {
+
+    /**
+     * Worker id of this application node, 0-1023 (see SnowflakeIdGenerator).
+     * Every node must have its own, or two nodes can generate the same transaction code.
+     */
+    private int workerId = 0;
+
+    // Getters and Setters
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(int workerId) {
+        this.workerId = workerId;
+    }
+}
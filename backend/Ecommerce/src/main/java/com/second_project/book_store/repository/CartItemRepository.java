@@ -3,6 +3,8 @@ package com.second_project.book_store.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.second_project.book_store.entity.CartItem;
@@ -23,5 +25,15 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      * @return Optional containing cart item if found
      */
     Optional<CartItem> findByCart_CartIdAndBook_BookId(Long cartId, Long bookId);
+
+    /**
+     * Total quantity in a user's cart (navbar badge), 0 if there is no cart.
+     * Reads cart_items and carts only.
+     * 
+     * @param userId User ID
+     * @return Sum of item quantities
+     */
+    @Query("SELECT COALESCE(SUM(ci.quantity), 0) FROM CartItem ci WHERE ci.cart.user.userId = :userId")
+    long sumQuantityByUserId(@Param("userId") Long userId);
 }
 
@@ -2,12 +2,17 @@ package com.second_project.book_store.service.impl;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.second_project.book_store.entity.Book;
 import com.second_project.book_store.entity.BookDetail;
@@ -30,18 +35,25 @@ import com.second_project.book_store.service.CartService;
  * - Validate stock availability before adding/updating
  * - Use DTOs to avoid lazy loading issues
  * - Log important operations
+ * - Navbar badge counts are kept in memory per user, updated by every cart change once it
+ *   commits and re-counted after COUNT_TTL_MILLIS in case cart rows changed elsewhere
  */
 @Service
 @Transactional(readOnly = true)
 public class CartServiceImpl implements CartService {
 
     private static final Logger logger = LoggerFactory.getLogger(CartServiceImpl.class);
+    private static final long COUNT_TTL_MILLIS = 5 * 60 * 1000L;
+    private static final int MAX_CACHED_COUNTS = 10000;
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
 
+    // User ID -> item count for the navbar badge (rendered on every page)
+    private final Map<Long, CachedCount> itemCounts = new ConcurrentHashMap<>();
+
     public CartServiceImpl(CartRepository cartRepository,
                            CartItemRepository cartItemRepository,
                            BookRepository bookRepository,
@@ -147,7 +159,7 @@ public class CartServiceImpl implements CartService {
             logger.info("Added new item to cart: book {}, quantity {}", bookId, quantity);
         }
 
-        return convertToDto(cart);
+        return rememberCount(userId, convertToDto(cart));
     }
 
     @Override
@@ -184,7 +196,7 @@ public class CartServiceImpl implements CartService {
         cartItemRepository.save(cartItem);
 
         Cart cart = cartItem.getCart();
-        return convertToDto(cart);
+        return rememberCount(userId, convertToDto(cart));
     }
 
     @Override
@@ -204,7 +216,7 @@ public class CartServiceImpl implements CartService {
         cart.removeCartItem(cartItem);
         cartItemRepository.delete(cartItem);
 
-        return convertToDto(cart);
+        return rememberCount(userId, convertToDto(cart));
     }
 
     @Override
@@ -217,18 +229,57 @@ public class CartServiceImpl implements CartService {
 
         cart.clearCart();
         cartRepository.save(cart);
+        afterCommit(() -> putCount(userId, 0));
     }
 
+    /**
+     * Served from memory; on a miss or after COUNT_TTL_MILLIS one SUM query over cart_items
+     * (no cart, book or book detail loading). SUPPORTS: a cache hit needs no connection.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Integer getCartItemCount(Long userId) {
-        Cart cart = cartRepository.findByUser_UserId(userId).orElse(null);
-        if (cart == null || cart.getCartItems() == null) {
-            return 0;
+        CachedCount cached = itemCounts.get(userId);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.count();
         }
 
-        return cart.getCartItems().stream()
-            .mapToInt(CartItem::getQuantity)
-            .sum();
+        int count = (int) cartItemRepository.sumQuantityByUserId(userId);
+        putCount(userId, count);
+        return count;
+    }
+
+    /**
+     * Remember the cart's item count once the change that produced it commits.
+     */
+    private CartDto rememberCount(Long userId, CartDto cart) {
+        int count = cart.getTotalItems() != null ? cart.getTotalItems() : 0;
+        afterCommit(() -> putCount(userId, count));
+        return cart;
+    }
+
+    private void putCount(Long userId, int count) {
+        if (itemCounts.size() >= MAX_CACHED_COUNTS) {
+            long now = System.currentTimeMillis();
+            itemCounts.values().removeIf(cached -> cached.expiresAt() <= now);
+            if (itemCounts.size() >= MAX_CACHED_COUNTS) {
+                itemCounts.clear();
+            }
+        }
+        itemCounts.put(userId, new CachedCount(count, System.currentTimeMillis() + COUNT_TTL_MILLIS));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     /**
@@ -279,5 +330,7 @@ public class CartServiceImpl implements CartService {
             availableStock
         );
     }
+
+    private record CachedCount(int count, long expiresAt) {}
 }
 
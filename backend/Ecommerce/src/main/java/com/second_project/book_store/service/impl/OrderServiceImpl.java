@@ -4,7 +4,6 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -35,6 +34,7 @@ import com.second_project.book_store.repository.OrderRepository;
 import com.second_project.book_store.repository.PaymentRepository;
 import com.second_project.book_store.repository.UserRepository;
 import com.second_project.book_store.service.OrderService;
+import com.second_project.book_store.util.SnowflakeIdGenerator;
 
 /**
  * Implementation of OrderService.
@@ -335,7 +335,7 @@ public class OrderServiceImpl implements OrderService {
      * Generate a fake transaction code for payment simulation.
      */
     private String generateTransactionCode() {
-        return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return "TXN-" + SnowflakeIdGenerator.shared().nextCode();
     }
 
     /**
@@ -0,0 +1,111 @@
+package com.second_project.book_store.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit ids for payment transaction codes.
+ *
+ * Layout (sign bit always 0):
+ *   41 bits  milliseconds since 2024-01-01 UTC (good until 2093)
+ *   10 bits  worker id, one per application node (app.id.worker-id, 0-1023)
+ *   12 bits  sequence within the millisecond
+ *
+ * Ids are unique across nodes as long as every node has its own worker id, and increase
+ * within a node. Generation is a single CAS on an AtomicLong, with no lock and no database
+ * round trip. When a millisecond's 4096 sequence numbers run out, or the wall clock steps
+ * back, the generator keeps counting on from the last timestamp it issued and waits for
+ * nothing; the clock catches up again.
+ *
+ * {@link #encode(long)} renders an id as 13 Crockford base-32 characters (0-9, A-Z without
+ * I, L, O, U): fixed width, so codes sort like the ids, and easy to read out over the phone.
+ */
+public final class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int MAX_WORKER_ID = 1023;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int WORKER_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static volatile SnowflakeIdGenerator shared = new SnowflakeIdGenerator(0);
+
+    private final long workerBits;
+    // Wall clock in epoch milliseconds; replaceable so tests can step it back
+    private final LongSupplier clock;
+    // (timestamp << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        this.workerBits = (long) workerId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * The generator used by services; set up from app.id.worker-id at startup.
+     */
+    public static SnowflakeIdGenerator shared() {
+        return shared;
+    }
+
+    /**
+     * Replace the shared generator if the worker id changed. Must run before ids are handed out.
+     */
+    public static synchronized void configure(int workerId) {
+        if (shared.workerId() != workerId) {
+            shared = new SnowflakeIdGenerator(workerId);
+        }
+    }
+
+    public long nextId() {
+        long now = clock.getAsLong() - EPOCH_MILLIS;
+        while (true) {
+            long previous = last.get();
+            long next = Math.max(now << SEQUENCE_BITS, previous + 1);
+            if (last.compareAndSet(previous, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (WORKER_BITS + SEQUENCE_BITS)) | workerBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Next id, base-32 encoded.
+     */
+    public String nextCode() {
+        return encode(nextId());
+    }
+
+    public int workerId() {
+        return (int) (workerBits >>> SEQUENCE_BITS);
+    }
+
+    public static String encode(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must not be negative: " + id);
+        }
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Milliseconds since the Unix epoch at which the id was generated.
+     */
+    public static long timestampMillis(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
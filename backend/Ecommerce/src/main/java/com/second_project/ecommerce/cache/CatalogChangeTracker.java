@@ -0,0 +1,105 @@
+package com.second_project.ecommerce.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Change counters for catalog data, used to build strong ETags without assembling DTOs.
+ *
+ * Counters are bumped after commit (see CatalogChangeTrackerListener): one for all products,
+ * one per product, one per product's reviews, one each for categories and users (seller
+ * and reviewer names appear in the DTOs), and one for category product counts, which only
+ * category responses show. Every tag also carries the boot time, because the
+ * counters restart at zero and a tag issued by a previous run must never match again.
+ */
+@Component
+public class CatalogChangeTracker {
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong products = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+    private final AtomicLong categoryCounts = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong reviews = new AtomicLong();
+    private final Map<Long, AtomicLong> productChanges = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> productReviewChanges = new ConcurrentHashMap<>();
+
+    public void productChanged(Long productId) {
+        products.incrementAndGet();
+        if (productId != null) {
+            counter(productChanges, productId).incrementAndGet();
+        }
+    }
+
+    public void reviewsChanged(Long productId) {
+        reviews.incrementAndGet();
+        if (productId != null) {
+            counter(productReviewChanges, productId).incrementAndGet();
+        }
+    }
+
+    public void categoryChanged() {
+        categories.incrementAndGet();
+    }
+
+    public void categoryCountsChanged() {
+        categoryCounts.incrementAndGet();
+    }
+
+    public void userChanged() {
+        users.incrementAndGet();
+    }
+
+    /**
+     * Tag for one product's details: entity version plus changes the version does not see
+     * (stock, rating aggregates, category names, seller profile).
+     */
+    public String productTag(Long productId, long version) {
+        return "p" + productId + "." + version + "." + count(productChanges, productId)
+                + "." + categories.get() + "." + users.get() + "." + boot;
+    }
+
+    /**
+     * Tag for product listings.
+     */
+    public String productListTag() {
+        return "pl." + products.get() + "." + categories.get() + "." + users.get() + "." + boot;
+    }
+
+    /**
+     * Tag for category responses (they include product counts).
+     */
+    public String categoryTag() {
+        return "c." + categories.get() + "." + categoryCounts.get() + "." + products.get() + "." + boot;
+    }
+
+    /**
+     * Tag for the reviews and rating statistics of one product. The viewer is part of the
+     * tag because canEdit depends on who is asking.
+     */
+    public String productReviewsTag(Long productId, Long viewerId) {
+        return "rp" + productId + "." + count(productReviewChanges, productId) + "." + users.get()
+                + "." + (viewerId != null ? viewerId : "anon") + "." + boot;
+    }
+
+    /**
+     * Tag for review lookups not scoped to a product (single review, reviews by user).
+     */
+    public String reviewsTag(Long viewerId) {
+        return "r." + reviews.get() + "." + users.get()
+                + "." + (viewerId != null ? viewerId : "anon") + "." + boot;
+    }
+
+    private static AtomicLong counter(Map<Long, AtomicLong> counters, Long id) {
+        return counters.computeIfAbsent(id, key -> new AtomicLong());
+    }
+
+    private static long count(Map<Long, AtomicLong> counters, Long id) {
+        AtomicLong counter = counters.get(id);
+        return counter != null ? counter.get() : 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.second_project.ecommerce.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.model.CategoryDto;
+
+/**
+ * In-memory copy of every category DTO, so category reads cost no queries.
+ *
+ * The categories table is small and changes rarely (admin edits, product counts moving when
+ * a product is approved or re-linked). Any such change drops the snapshot after commit
+ * (CategorySnapshotListener); the next read reloads all categories with one query. Concurrent
+ * readers wait for that single reload. Returned DTOs are shared and must be treated as read-only.
+ */
+@Component
+public class CategorySnapshot {
+
+    private final Object reloadLock = new Object();
+    // Bumped on every invalidation so a reload that started before it is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot current;
+
+    /**
+     * Current snapshot, loading it from the given categories (ordered by id) if needed.
+     */
+    public Snapshot get(Supplier<List<CategoryDto>> loader) {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (reloadLock) {
+            if (current != null) {
+                return current;
+            }
+            long loadGeneration = generation.get();
+            Snapshot loaded = new Snapshot(loader.get());
+            if (generation.get() == loadGeneration) {
+                current = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        current = null;
+    }
+
+    public static final class Snapshot {
+        private final List<CategoryDto> all;
+        private final List<CategoryDto> active;
+        private final Map<Long, CategoryDto> byId;
+        private final Map<String, CategoryDto> bySlug;
+
+        private Snapshot(List<CategoryDto> categories) {
+            List<CategoryDto> activeCategories = new ArrayList<>();
+            Map<Long, CategoryDto> ids = new HashMap<>();
+            Map<String, CategoryDto> slugs = new HashMap<>();
+            for (CategoryDto category : categories) {
+                if (Boolean.TRUE.equals(category.getIsActive())) {
+                    activeCategories.add(category);
+                }
+                ids.put(category.getId(), category);
+                if (category.getSlug() != null) {
+                    slugs.put(category.getSlug(), category);
+                }
+            }
+            this.all = Collections.unmodifiableList(new ArrayList<>(categories));
+            this.active = Collections.unmodifiableList(activeCategories);
+            this.byId = ids;
+            this.bySlug = slugs;
+        }
+
+        public List<CategoryDto> all() {
+            return all;
+        }
+
+        public List<CategoryDto> active() {
+            return active;
+        }
+
+        public CategoryDto byId(Long id) {
+            return id != null ? byId.get(id) : null;
+        }
+
+        public CategoryDto bySlug(String slug) {
+            return slug != null ? bySlug.get(slug) : null;
+        }
+    }
+}
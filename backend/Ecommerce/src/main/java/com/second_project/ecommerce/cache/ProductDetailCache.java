@@ -0,0 +1,335 @@
+package com.second_project.ecommerce.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.model.CategoryDto;
+import com.second_project.ecommerce.model.ProductDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded in-process cache of assembled product details, keyed by (product id, @Version).
+ *
+ * A lookup first reads the product's current version (one primary-key query); a cached DTO is
+ * only returned when it was built from that version, so any entity update is a guaranteed miss.
+ * Changes that do not bump the version (review aggregates, seller profile) are removed by
+ * ProductDetailCacheListener after commit; category changes clear the whole cache. A load only
+ * caches its result if no such removal happened since before its version probe.
+ *
+ * Misses are loaded single-flight: concurrent requests for the same (id, version) wait for one
+ * loader. The cache is limited by an estimate of the DTOs' size in bytes and evicts least
+ * recently used entries. Cached DTOs are shared and must be treated as read-only.
+ *
+ * Metrics: product.detail.cache.requests{result=hit|miss}, product.detail.cache.evictions,
+ * product.detail.cache.size and product.detail.cache.weight.bytes (see /actuator/metrics).
+ */
+@Component
+public class ProductDetailCache {
+
+    // Upper bound on the estimated size of all cached DTOs
+    private static final long MAX_WEIGHT_BYTES = 32L * 1024 * 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalWeight = 0;
+
+    private final Map<String, Long> idsBySlug = new ConcurrentHashMap<>();
+    private final Map<Key, CompletableFuture<Optional<ProductDto>>> inFlight = new ConcurrentHashMap<>();
+    // Per product, a token replaced on every invalidation: a load that started before it sees a
+    // different token and is not cached. Only held while the product is cached or being loaded.
+    private final Map<Long, Object> loadTokens = new ConcurrentHashMap<>();
+    // Same for invalidateAll
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ProductDetailCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("product.detail.cache.requests")
+                .description("Product detail cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("product.detail.cache.requests")
+                .description("Product detail cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("product.detail.cache.evictions")
+                .description("Entries evicted to stay within the size budget")
+                .register(meterRegistry);
+        Gauge.builder("product.detail.cache.size", this, ProductDetailCache::size)
+                .description("Number of cached product details")
+                .register(meterRegistry);
+        Gauge.builder("product.detail.cache.weight.bytes", this, ProductDetailCache::weight)
+                .description("Estimated size of cached product details")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached DTO for the product's current version, or load it (once, even under
+     * concurrent requests) and cache it. Empty when the version probe finds no product.
+     */
+    public Optional<ProductDto> get(Long productId, Supplier<Optional<Long>> versionProbe,
+                                    Supplier<Optional<ProductDto>> loader) {
+        // Taken before the probe, so a change that commits between the probe and the load
+        // (and does not bump the version) keeps the result out of the cache
+        Object token = loadTokens.computeIfAbsent(productId, id -> new Object());
+        long loadEpoch = epoch.get();
+        try {
+            Optional<Long> version = versionProbe.get();
+            if (version.isEmpty()) {
+                return Optional.empty();
+            }
+            return get(productId, version.get(), token, loadEpoch, loader);
+        } finally {
+            lock.lock();
+            try {
+                if (!entries.containsKey(productId)) {
+                    loadTokens.remove(productId, token);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Optional<ProductDto> get(Long productId, long version, Object token, long loadEpoch,
+                                     Supplier<Optional<ProductDto>> loader) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.version == version) {
+                hits.increment();
+                return Optional.of(entry.dto);
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+
+        Key key = new Key(productId, version);
+        CompletableFuture<Optional<ProductDto>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<ProductDto>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Optional<ProductDto> loaded = loader.get();
+            loaded.ifPresent(dto -> put(productId, version, token, loadEpoch, dto));
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Product id for a slug seen in a cached DTO, or null if unknown.
+     */
+    public Long findIdBySlug(String slug) {
+        return slug != null ? idsBySlug.get(slug) : null;
+    }
+
+    /**
+     * Drop the cached details of one product.
+     */
+    public void invalidate(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            loadTokens.remove(productId);
+            Entry entry = entries.remove(productId);
+            if (entry != null) {
+                forget(productId, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop the cached details of every product sold by this seller (seller name/email changed).
+     */
+    public void invalidateSeller(Long sellerId) {
+        if (sellerId == null) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+                if (sellerId.equals(entry.getValue().dto.getSellerId())) {
+                    productIds.add(entry.getKey());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        productIds.forEach(this::invalidate);
+    }
+
+    /**
+     * Drop every cached product (data embedded in all DTOs changed, e.g. a category).
+     */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        lock.lock();
+        try {
+            entries.clear();
+            idsBySlug.clear();
+            loadTokens.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long weight() {
+        lock.lock();
+        try {
+            return totalWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Long productId, long version, Object token, long loadEpoch, ProductDto dto) {
+        long weight = estimateWeight(dto);
+        lock.lock();
+        try {
+            // Invalidated while loading: the DTO may predate the change
+            if (loadTokens.get(productId) != token || epoch.get() != loadEpoch) {
+                return;
+            }
+            Entry previous = entries.put(productId, new Entry(version, dto, weight));
+            if (previous != null) {
+                forget(productId, previous);
+            }
+            totalWeight += weight;
+            if (dto.getSlug() != null) {
+                idsBySlug.put(dto.getSlug(), productId);
+            }
+
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (totalWeight > MAX_WEIGHT_BYTES && eldest.hasNext()) {
+                Map.Entry<Long, Entry> evicted = eldest.next();
+                if (evicted.getKey().equals(productId)) {
+                    continue;
+                }
+                eldest.remove();
+                loadTokens.remove(evicted.getKey());
+                forget(evicted.getKey(), evicted.getValue());
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called under the lock after an entry left the map
+    private void forget(Long productId, Entry entry) {
+        totalWeight -= entry.weight;
+        if (entry.dto.getSlug() != null) {
+            idsBySlug.remove(entry.dto.getSlug(), productId);
+        }
+    }
+
+    /**
+     * Rough heap size of a DTO: object overhead plus two bytes per character of its strings.
+     */
+    private static long estimateWeight(ProductDto dto) {
+        long weight = 256;
+        weight += chars(dto.getName()) + chars(dto.getBrand()) + chars(dto.getSku()) + chars(dto.getSlug())
+                + chars(dto.getDescription()) + chars(dto.getSellerName()) + chars(dto.getSellerEmail());
+        if (dto.getImages() != null) {
+            for (String image : dto.getImages()) {
+                weight += 48 + chars(image);
+            }
+        }
+        if (dto.getCategories() != null) {
+            for (CategoryDto category : dto.getCategories()) {
+                weight += 128 + chars(category.getName()) + chars(category.getSlug())
+                        + chars(category.getDescription()) + chars(category.getImageUrl());
+            }
+        }
+        return weight;
+    }
+
+    private static long chars(String value) {
+        return value != null ? 40 + 2L * value.length() : 0;
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final ProductDto dto;
+        private final long weight;
+
+        private Entry(long version, ProductDto dto, long weight) {
+            this.version = version;
+            this.dto = dto;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Key {
+        private final Long productId;
+        private final long version;
+
+        private Key(Long productId, long version) {
+            this.productId = productId;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key key)) {
+                return false;
+            }
+            return version == key.version && productId.equals(key.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, version);
+        }
+    }
+}
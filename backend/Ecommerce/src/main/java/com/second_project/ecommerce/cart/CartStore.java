@@ -0,0 +1,875 @@
+package com.second_project.ecommerce.cart;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.second_project.ecommerce.config.properties.CartProperties;
+import com.second_project.ecommerce.entity.Cart;
+import com.second_project.ecommerce.entity.CartItem;
+import com.second_project.ecommerce.entity.Product;
+import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.model.CartDto;
+import com.second_project.ecommerce.model.CartItemDto;
+import com.second_project.ecommerce.model.CartOperationDto;
+import com.second_project.ecommerce.repository.CartItemRepository;
+import com.second_project.ecommerce.repository.CartRepository;
+import com.second_project.ecommerce.repository.ProductRepository;
+import com.second_project.ecommerce.util.Money;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-back store for shopping carts.
+ *
+ * Carts in use are kept in memory, bounded by app.cart.max-active-carts with least recently
+ * used eviction. Quantity changes, removals and totals are applied in memory and written by
+ * flush() (every couple of seconds) as batched UPDATE / DELETE statements, so a burst of edits
+ * to one item costs one write. Adding a product the cart does not hold yet inserts its
+ * cart_items row right away, because the client addresses items by id. Products are rendered
+ * from snapshots that are dropped when the product changes.
+ *
+ * Anything that reads carts from the database (checkout) must call flush(userId) first.
+ * Changes not flushed yet are lost if the application is killed; a normal shutdown flushes.
+ * Like the other in-memory stores this assumes a single application instance.
+ *
+ * Item counts for the navbar badge are kept per user as well (itemCount), for carts that are
+ * not in memory too, and expire after app.cart.count-ttl-seconds in case rows changed elsewhere.
+ *
+ * Metrics: cart.store.active (carts in memory) and cart.store.dirty (carts with unwritten changes).
+ */
+@Component
+@Slf4j
+public class CartStore {
+
+    private static final int LOAD_STRIPES = 64;
+    private static final int MAX_OPERATIONS = 100;
+
+    private static final String UPDATE_ITEM_SQL =
+            "UPDATE cart_items SET quantity = ?, unit_price = ?, total_price = ?, updated_at = ? WHERE id = ?";
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cart_items WHERE id = ?";
+    private static final String UPDATE_CART_SQL = "UPDATE carts SET total_amount = ?, updated_at = ? WHERE id = ?";
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CartProperties properties;
+    // Own transactions: a flush must not be rolled back with the caller's work
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Access-ordered working set keyed by user id, guarded by its own monitor
+    private final LinkedHashMap<Long, CartState> carts = new LinkedHashMap<>(256, 0.75f, true);
+    private final Set<CartState> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ProductSnapshot> products = new ConcurrentHashMap<>();
+    private final Object[] loadLocks = new Object[LOAD_STRIPES];
+    // Item counts for the navbar badge, so it does not load carts that are not in memory
+    private final Map<Long, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public CartStore(CartRepository cartRepository,
+                     CartItemRepository cartItemRepository,
+                     ProductRepository productRepository,
+                     JdbcTemplate jdbcTemplate,
+                     CartProperties properties,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        for (int i = 0; i < LOAD_STRIPES; i++) {
+            loadLocks[i] = new Object();
+        }
+        Gauge.builder("cart.store.active", this, CartStore::activeCarts)
+                .description("Carts held in memory")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.dirty", dirty, Set::size)
+                .description("Carts with changes not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    public CartDto view(User user) {
+        return withCart(user, this::toDto);
+    }
+
+    /**
+     * Add a product, or change the quantity of the line that already holds it: by quantity
+     * when increment is true, to quantity otherwise.
+     */
+    public CartDto addItem(User user, Long productId, int quantity, boolean increment) {
+        return withCart(user, state -> {
+            ProductSnapshot product = snapshot(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found");
+            }
+            if (product.status() != Product.ProductStatus.APPROVED) {
+                throw new IllegalArgumentException("Product is not available");
+            }
+            Line line = state.lineForProduct(productId);
+            int newQuantity = line != null && increment ? line.quantity + quantity : quantity;
+            if (product.stock() < newQuantity) {
+                throw new IllegalArgumentException("Insufficient stock");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            if (line == null) {
+                line = state.restoreRemoved(productId);
+            }
+            if (line == null) {
+                // The client needs the item id, so a new line gets its row now
+                line = new Line(insertItem(state.cartId, productId, newQuantity, product.price(), now), productId, now);
+                state.lines.put(line.itemId, line);
+            }
+            line.quantity = newQuantity;
+            line.unitPrice = product.price();
+            line.updatedAt = now;
+            state.changed(line.itemId, now);
+            markDirty(state);
+            return toDto(state);
+        });
+    }
+
+    /**
+     * Apply a list of edits in order, all or nothing. The products involved are read in one
+     * query and stock is checked against the final quantities before anything changes; new
+     * lines are inserted in one transaction and the rest is written by the next flush.
+     */
+    public CartDto apply(User user, List<CartOperationDto> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No cart operations given");
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_OPERATIONS + " cart operations per request");
+        }
+        return withCart(user, state -> {
+            // Quantities per product as the operations leave them, in the order first touched
+            Map<Long, Integer> planned = new LinkedHashMap<>();
+            Set<Long> added = new HashSet<>();
+            Map<Long, Long> productByItem = new HashMap<>();
+            for (Line line : state.lines.values()) {
+                productByItem.put(line.itemId, line.productId);
+            }
+            Set<Long> productIds = new HashSet<>();
+            for (CartOperationDto operation : operations) {
+                if (operation == null || operation.getType() == null) {
+                    throw new IllegalArgumentException("Operation type is required");
+                }
+                if (operation.getType() == CartOperationDto.Type.ADD) {
+                    if (operation.getProductId() == null) {
+                        throw new IllegalArgumentException("ADD requires productId");
+                    }
+                    productIds.add(operation.getProductId());
+                } else if (operation.getCartItemId() == null) {
+                    throw new IllegalArgumentException(operation.getType() + " requires cartItemId");
+                } else if (productByItem.containsKey(operation.getCartItemId())) {
+                    productIds.add(productByItem.get(operation.getCartItemId()));
+                }
+                if (operation.getType() != CartOperationDto.Type.REMOVE
+                        && (operation.getQuantity() == null || operation.getQuantity() < 1)) {
+                    throw new IllegalArgumentException("Quantity must be at least 1");
+                }
+            }
+            // Fresh stock for every product involved, one query
+            // Read from this map only: other threads may evict the shared cache meanwhile
+            Map<Long, ProductSnapshot> snapshots = productIds.isEmpty() ? Map.of() : loadSnapshots(productIds);
+
+            for (CartOperationDto operation : operations) {
+                switch (operation.getType()) {
+                    case ADD -> {
+                        Long productId = operation.getProductId();
+                        ProductSnapshot product = snapshots.get(productId);
+                        if (product == null) {
+                            throw new IllegalArgumentException("Product not found");
+                        }
+                        if (product.status() != Product.ProductStatus.APPROVED) {
+                            throw new IllegalArgumentException("Product is not available");
+                        }
+                        planned.put(productId, plannedQuantity(state, planned, productId) + operation.getQuantity());
+                        added.add(productId);
+                    }
+                    case SET_QUANTITY, REMOVE -> {
+                        Long productId = productByItem.get(operation.getCartItemId());
+                        if (productId == null || plannedQuantity(state, planned, productId) == 0) {
+                            throw new IllegalArgumentException("Cart item not found");
+                        }
+                        planned.put(productId, operation.getType() == CartOperationDto.Type.REMOVE
+                                ? 0 : operation.getQuantity());
+                    }
+                }
+            }
+            planned.forEach((productId, quantity) -> {
+                ProductSnapshot product = snapshots.get(productId);
+                if (quantity > 0 && product != null && product.stock() < quantity) {
+                    throw new IllegalArgumentException("Insufficient stock for product: " + product.name());
+                }
+            });
+
+            LocalDateTime now = LocalDateTime.now();
+            // Rows for new lines first, so a failed insert leaves the cart as it was
+            Map<Long, Integer> newLines = new LinkedHashMap<>();
+            planned.forEach((productId, quantity) -> {
+                if (quantity > 0 && !state.holds(productId)) {
+                    newLines.put(productId, quantity);
+                }
+            });
+            Map<Long, Long> itemIds = newLines.isEmpty() ? Map.of() : insertItems(state.cartId, newLines, snapshots, now);
+
+            planned.forEach((productId, quantity) -> {
+                Line line = state.lineForProduct(productId);
+                if (quantity == 0) {
+                    if (line != null) {
+                        state.remove(line.itemId, now);
+                    }
+                    return;
+                }
+                if (line == null) {
+                    line = state.restoreRemoved(productId);
+                }
+                if (line == null) {
+                    line = new Line(itemIds.get(productId), productId, now);
+                    line.unitPrice = snapshots.get(productId).price();
+                    state.lines.put(line.itemId, line);
+                } else if (added.contains(productId)) {
+                    line.unitPrice = snapshots.get(productId).price();
+                }
+                line.quantity = quantity;
+                line.updatedAt = now;
+                state.changed(line.itemId, now);
+            });
+            markDirty(state);
+            return toDto(state);
+        });
+    }
+
+    public CartDto setQuantity(User user, Long cartItemId, int quantity) {
+        return withCart(user, state -> {
+            Line line = state.lines.get(cartItemId);
+            if (line == null) {
+                throw new IllegalArgumentException("Cart item not found");
+            }
+            ProductSnapshot product = snapshot(line.productId);
+            if (product != null && product.stock() < quantity) {
+                throw new IllegalArgumentException("Insufficient stock");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            line.quantity = quantity;
+            line.updatedAt = now;
+            state.changed(line.itemId, now);
+            markDirty(state);
+            return toDto(state);
+        });
+    }
+
+    public CartDto removeItem(User user, Long cartItemId) {
+        return withCart(user, state -> {
+            if (!state.remove(cartItemId, LocalDateTime.now())) {
+                throw new IllegalArgumentException("Cart item not found");
+            }
+            markDirty(state);
+            return toDto(state);
+        });
+    }
+
+    /**
+     * Empty the cart. Inside a transaction (checkout) this happens once it commits, so a failed
+     * order leaves the cart as it was.
+     */
+    public void clear(User user) {
+        afterCommit(() -> withCart(user, state -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (Long itemId : new ArrayList<>(state.lines.keySet())) {
+                state.remove(itemId, now);
+            }
+            state.totalChanged(now);
+            markDirty(state);
+            return null;
+        }));
+    }
+
+    /**
+     * Products in the user's cart, from memory when the cart is loaded.
+     */
+    public List<Long> productIds(Long userId) {
+        CartState state;
+        synchronized (carts) {
+            state = carts.get(userId);
+        }
+        if (state != null) {
+            synchronized (state) {
+                if (!state.evicted) {
+                    return state.lines.values().stream().map(line -> line.productId).distinct().toList();
+                }
+            }
+        }
+        return readOnlyTransaction.execute(status -> cartItemRepository.findProductIdsByUserId(userId));
+    }
+
+    /**
+     * Number of different products in the user's cart. Answered from memory: the loaded cart,
+     * else a count remembered for app.cart.count-ttl-seconds, else one COUNT query. Carts
+     * that are not loaded have nothing pending, so the query is accurate.
+     */
+    public int itemCount(Long userId) {
+        CartState state;
+        synchronized (carts) {
+            state = carts.get(userId);
+        }
+        if (state != null) {
+            synchronized (state) {
+                if (!state.evicted) {
+                    return state.lines.size();
+                }
+            }
+        }
+        CachedCount cached = counts.get(userId);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.count();
+        }
+        Long count = readOnlyTransaction.execute(status -> cartItemRepository.countByUserId(userId));
+        int itemCount = count != null ? count.intValue() : 0;
+        rememberCount(userId, itemCount);
+        return itemCount;
+    }
+
+    /**
+     * Write one user's pending changes now. Call before reading their cart from the database.
+     */
+    public void flush(Long userId) {
+        CartState state;
+        synchronized (carts) {
+            state = carts.get(userId);
+        }
+        if (state != null) {
+            flush(state);
+        }
+    }
+
+    /**
+     * Write all pending changes. Returns the number of carts written.
+     */
+    public int flush() {
+        int flushed = 0;
+        for (CartState state : new ArrayList<>(dirty)) {
+            try {
+                if (flush(state)) {
+                    flushed++;
+                }
+            } catch (RuntimeException e) {
+                // Kept dirty for the next run; the other carts still get written
+                log.warn("Could not write cart of user {}: {}", state.userId, e.getMessage());
+            }
+        }
+        trim();
+        return flushed;
+    }
+
+    /**
+     * The product changed: render it from fresh data next time.
+     */
+    public void forgetProduct(Long productId) {
+        products.remove(productId);
+    }
+
+    public void forgetSeller(Long sellerId) {
+        products.values().removeIf(product -> sellerId.equals(product.sellerId()));
+    }
+
+    /**
+     * Write and drop the carts holding a product, so they are read back from the database
+     * (used when the product's cart rows may have been deleted behind the store's back).
+     */
+    public void evictCartsWithProduct(Long productId) {
+        products.remove(productId);
+        List<CartState> holding;
+        synchronized (carts) {
+            holding = carts.values().stream().filter(state -> state.holds(productId)).toList();
+        }
+        for (CartState state : holding) {
+            flush(state);
+            synchronized (carts) {
+                synchronized (state) {
+                    if (state.isEvictable()) {
+                        state.evicted = true;
+                        carts.remove(state.userId, state);
+                        counts.remove(state.userId);
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not write pending cart changes on shutdown: {}", e.getMessage(), e);
+        }
+    }
+
+    // Run an action on the user's cart under its lock, loading it first if needed
+    private <T> T withCart(User user, Function<CartState, T> action) {
+        while (true) {
+            CartState state = load(user);
+            synchronized (state) {
+                if (!state.evicted) {
+                    return action.apply(state);
+                }
+            }
+        }
+    }
+
+    private CartState load(User user) {
+        Long userId = user.getUserId();
+        CartState state;
+        synchronized (carts) {
+            state = carts.get(userId);
+        }
+        if (state != null) {
+            return state;
+        }
+        synchronized (loadLocks[(int) Math.floorMod(userId, (long) LOAD_STRIPES)]) {
+            synchronized (carts) {
+                state = carts.get(userId);
+            }
+            if (state != null) {
+                return state;
+            }
+            CartState loaded = transaction.execute(status -> read(user));
+            synchronized (carts) {
+                carts.put(userId, loaded);
+            }
+            rememberCount(userId, loaded.lines.size());
+            trim();
+            return loaded;
+        }
+    }
+
+    private CartState read(User user) {
+        Cart cart = cartRepository.findWithItemsByUserId(user.getUserId()).orElseGet(() -> {
+            Cart newCart = new Cart();
+            newCart.setUser(user);
+            newCart.setItems(new ArrayList<>());
+            newCart.setTotalAmount(BigDecimal.ZERO);
+            newCart.setCreatedAt(LocalDateTime.now());
+            newCart.setUpdatedAt(LocalDateTime.now());
+            return cartRepository.save(newCart);
+        });
+        CartState state = new CartState(user.getUserId(), cart.getId(), cart.getCreatedAt(), cart.getUpdatedAt());
+        for (CartItem item : cart.getItems()) {
+            Line line = new Line(item.getId(), item.getProduct().getId(), item.getCreatedAt());
+            line.quantity = item.getQuantity();
+            line.unitPrice = item.getUnitPrice();
+            line.productVariant = item.getProductVariant();
+            line.updatedAt = item.getUpdatedAt();
+            state.lines.put(line.itemId, line);
+        }
+        return state;
+    }
+
+    // Rows for new lines, one transaction; returns product id -> item id
+    private Map<Long, Long> insertItems(Long cartId, Map<Long, Integer> quantities,
+            Map<Long, ProductSnapshot> snapshots, LocalDateTime now) {
+        return transaction.execute(status -> {
+            Cart cart = cartRepository.getReferenceById(cartId);
+            List<CartItem> items = new ArrayList<>(quantities.size());
+            quantities.forEach((productId, quantity) -> {
+                BigDecimal unitPrice = snapshots.get(productId).price();
+                CartItem item = new CartItem();
+                item.setCart(cart);
+                item.setProduct(productRepository.getReferenceById(productId));
+                item.setQuantity(quantity);
+                item.setUnitPrice(unitPrice);
+                item.setTotalPrice(lineTotal(unitPrice, quantity));
+                item.setCreatedAt(now);
+                item.setUpdatedAt(now);
+                items.add(item);
+            });
+            Map<Long, Long> itemIds = new HashMap<>();
+            for (CartItem item : cartItemRepository.saveAll(items)) {
+                itemIds.put(item.getProduct().getId(), item.getId());
+            }
+            return itemIds;
+        });
+    }
+
+    // Quantity of a product after the operations planned so far
+    private static int plannedQuantity(CartState state, Map<Long, Integer> planned, Long productId) {
+        Integer quantity = planned.get(productId);
+        if (quantity != null) {
+            return quantity;
+        }
+        Line line = state.lineForProduct(productId);
+        return line != null ? line.quantity : 0;
+    }
+
+    private Long insertItem(Long cartId, Long productId, int quantity, BigDecimal unitPrice, LocalDateTime now) {
+        return transaction.execute(status -> {
+            CartItem item = new CartItem();
+            item.setCart(cartRepository.getReferenceById(cartId));
+            item.setProduct(productRepository.getReferenceById(productId));
+            item.setQuantity(quantity);
+            item.setUnitPrice(unitPrice);
+            item.setTotalPrice(lineTotal(unitPrice, quantity));
+            item.setCreatedAt(now);
+            item.setUpdatedAt(now);
+            return cartItemRepository.save(item).getId();
+        });
+    }
+
+    // Returns whether anything was written
+    private boolean flush(CartState state) {
+        // One flush per cart at a time, so an older batch can never overwrite a newer one
+        synchronized (state.flushLock) {
+            Changes changes;
+            synchronized (state) {
+                changes = state.takeChanges();
+                dirty.remove(state);
+                if (changes == null) {
+                    return false;
+                }
+                // Not evictable until the write has committed: a reload would read the old rows
+                state.flushing = true;
+            }
+            try {
+                transaction.executeWithoutResult(status -> {
+                    if (!changes.updates.isEmpty()) {
+                        jdbcTemplate.batchUpdate(UPDATE_ITEM_SQL, changes.updates);
+                    }
+                    if (!changes.deletes.isEmpty()) {
+                        jdbcTemplate.batchUpdate(DELETE_ITEM_SQL, changes.deletes);
+                    }
+                    jdbcTemplate.update(UPDATE_CART_SQL, changes.total, changes.updatedAt, state.cartId);
+                });
+            } catch (RuntimeException e) {
+                synchronized (state) {
+                    state.putBack(changes);
+                    markDirty(state);
+                }
+                throw e;
+            } finally {
+                synchronized (state) {
+                    state.flushing = false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Called under the state lock after every change
+    private void markDirty(CartState state) {
+        dirty.add(state);
+        rememberCount(state.userId, state.lines.size());
+    }
+
+    // Drop least recently used carts beyond the limit; carts with unwritten changes stay until written
+    private void trim() {
+        synchronized (carts) {
+            int excess = carts.size() - properties.getMaxActiveCarts();
+            Iterator<CartState> iterator = carts.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                CartState state = iterator.next();
+                synchronized (state) {
+                    if (!state.isEvictable()) {
+                        continue;
+                    }
+                    state.evicted = true;
+                }
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    private void rememberCount(Long userId, int count) {
+        if (counts.size() >= properties.getMaxCachedCounts()) {
+            long now = System.currentTimeMillis();
+            counts.values().removeIf(cached -> cached.expiresAt() <= now);
+            if (counts.size() >= properties.getMaxCachedCounts()) {
+                counts.clear();
+            }
+        }
+        counts.put(userId, new CachedCount(count,
+                System.currentTimeMillis() + properties.getCountTtlSeconds() * 1000L));
+    }
+
+    private ProductSnapshot snapshot(Long productId) {
+        ProductSnapshot product = products.get(productId);
+        if (product == null) {
+            product = loadSnapshots(Set.of(productId)).get(productId);
+        }
+        return product;
+    }
+
+    // Caches what it reads and returns it too; callers must use the returned map, not the cache
+    private Map<Long, ProductSnapshot> loadSnapshots(Set<Long> productIds) {
+        if (products.size() + productIds.size() > properties.getMaxProductSnapshots()) {
+            products.clear();
+        }
+        Map<Long, ProductSnapshot> loaded = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (Product product : productRepository.findAllWithSellerByIdIn(productIds)) {
+                ProductSnapshot snapshot = ProductSnapshot.of(product);
+                loaded.put(product.getId(), snapshot);
+                products.put(product.getId(), snapshot);
+            }
+        });
+        return loaded;
+    }
+
+    private CartDto toDto(CartState state) {
+        Map<Long, ProductSnapshot> snapshots = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Line line : state.lines.values()) {
+            ProductSnapshot product = products.get(line.productId);
+            if (product != null) {
+                snapshots.put(line.productId, product);
+            } else {
+                missing.add(line.productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            snapshots.putAll(loadSnapshots(missing));
+        }
+
+        CartDto dto = new CartDto();
+        dto.setId(state.cartId);
+        dto.setUserId(state.userId);
+        dto.setCreatedAt(state.createdAt);
+        dto.setUpdatedAt(state.updatedAt);
+        List<CartItemDto> items = new ArrayList<>(state.lines.size());
+        for (Line line : state.lines.values()) {
+            ProductSnapshot product = snapshots.get(line.productId);
+            items.add(toItemDto(state, line, product));
+        }
+        dto.setItems(items);
+        dto.calculateTotals();
+        return dto;
+    }
+
+    private static CartItemDto toItemDto(CartState state, Line line, ProductSnapshot product) {
+        CartItemDto dto = new CartItemDto();
+        dto.setId(line.itemId);
+        dto.setCartId(state.cartId);
+        dto.setQuantity(line.quantity);
+        dto.setUnitPrice(line.unitPrice);
+        dto.setTotalPrice(lineTotal(line.unitPrice, line.quantity));
+        dto.setProductVariant(line.productVariant);
+        dto.setCreatedAt(line.createdAt);
+        dto.setUpdatedAt(line.updatedAt);
+        dto.setProductId(line.productId);
+        if (product != null) {
+            dto.setProductName(product.name());
+            dto.setProductSlug(product.slug());
+            dto.setProductPrice(product.price());
+            dto.setProductOriginalPrice(product.originalPrice());
+            dto.setProductStock(product.stock());
+            if (!product.images().isEmpty()) {
+                dto.setProductImages(product.images());
+                dto.setProductImageUrl(product.images().get(0));
+            }
+            dto.setSellerId(product.sellerId());
+            dto.setSellerName(product.sellerName());
+            dto.setStoreName(product.storeName());
+        }
+        return dto;
+    }
+
+    private double activeCarts() {
+        synchronized (carts) {
+            return carts.size();
+        }
+    }
+
+    // Prices are whole VND: multiply as long, convert back for the entity
+    private static BigDecimal lineTotal(BigDecimal unitPrice, int quantity) {
+        return Money.of(unitPrice).times(quantity).toBigDecimal();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * One user's cart. Guarded by its own monitor; flushLock serializes writes of its changes.
+     */
+    private static final class CartState {
+        private final Long userId;
+        private final Long cartId;
+        private final LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        // Item id -> line, in the order the items were added
+        private final LinkedHashMap<Long, Line> lines = new LinkedHashMap<>();
+        private final Set<Long> changedItemIds = new HashSet<>();
+        // Removed lines whose rows are not deleted yet, by product, so re-adding reuses the row
+        private final Map<Long, Line> removedByProduct = new HashMap<>();
+        private boolean totalChanged;
+        private boolean evicted;
+        // A flush has taken the changes but not committed them yet
+        private boolean flushing;
+        private final Object flushLock = new Object();
+
+        private CartState(Long userId, Long cartId, LocalDateTime createdAt, LocalDateTime updatedAt) {
+            this.userId = userId;
+            this.cartId = cartId;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+
+        private Line lineForProduct(Long productId) {
+            for (Line line : lines.values()) {
+                if (line.productId.equals(productId)) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        private boolean holds(Long productId) {
+            return lineForProduct(productId) != null || removedByProduct.containsKey(productId);
+        }
+
+        private Line restoreRemoved(Long productId) {
+            Line line = removedByProduct.remove(productId);
+            if (line != null) {
+                lines.put(line.itemId, line);
+            }
+            return line;
+        }
+
+        private boolean remove(Long itemId, LocalDateTime now) {
+            Line line = lines.remove(itemId);
+            if (line == null) {
+                return false;
+            }
+            changedItemIds.remove(itemId);
+            removedByProduct.put(line.productId, line);
+            totalChanged(now);
+            return true;
+        }
+
+        private void changed(Long itemId, LocalDateTime now) {
+            changedItemIds.add(itemId);
+            totalChanged(now);
+        }
+
+        private void totalChanged(LocalDateTime now) {
+            totalChanged = true;
+            updatedAt = now;
+        }
+
+        private boolean isDirty() {
+            return totalChanged || !changedItemIds.isEmpty() || !removedByProduct.isEmpty();
+        }
+
+        private boolean isEvictable() {
+            return !isDirty() && !flushing;
+        }
+
+        private BigDecimal total() {
+            Money total = Money.ZERO;
+            for (Line line : lines.values()) {
+                total = total.plus(Money.of(line.unitPrice).times(line.quantity));
+            }
+            return total.toBigDecimal();
+        }
+
+        private Changes takeChanges() {
+            if (!isDirty()) {
+                return null;
+            }
+            List<Object[]> updates = new ArrayList<>(changedItemIds.size());
+            for (Long itemId : changedItemIds) {
+                Line line = lines.get(itemId);
+                updates.add(new Object[] {line.quantity, line.unitPrice, lineTotal(line.unitPrice, line.quantity),
+                        line.updatedAt, itemId});
+            }
+            List<Object[]> deletes = new ArrayList<>(removedByProduct.size());
+            for (Line line : removedByProduct.values()) {
+                deletes.add(new Object[] {line.itemId});
+            }
+            Changes changes = new Changes(new HashSet<>(changedItemIds), new HashMap<>(removedByProduct),
+                    updates, deletes, total(), updatedAt);
+            changedItemIds.clear();
+            removedByProduct.clear();
+            totalChanged = false;
+            return changes;
+        }
+
+        // The write failed: mark the same rows again (their current values are written next time)
+        private void putBack(Changes changes) {
+            for (Long itemId : changes.changedItemIds) {
+                if (lines.containsKey(itemId)) {
+                    changedItemIds.add(itemId);
+                }
+            }
+            changes.removed.forEach((productId, line) -> {
+                if (!lines.containsKey(line.itemId)) {
+                    removedByProduct.putIfAbsent(productId, line);
+                }
+            });
+            totalChanged = true;
+        }
+    }
+
+    private static final class Line {
+        private final Long itemId;
+        private final Long productId;
+        private final LocalDateTime createdAt;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private String productVariant;
+        private LocalDateTime updatedAt;
+
+        private Line(Long itemId, Long productId, LocalDateTime createdAt) {
+            this.itemId = itemId;
+            this.productId = productId;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private record CachedCount(int count, long expiresAt) {}
+
+    private record Changes(Set<Long> changedItemIds,
+                           Map<Long, Line> removed,
+                           List<Object[]> updates,
+                           List<Object[]> deletes,
+                           BigDecimal total,
+                           LocalDateTime updatedAt) {}
+}
@@ -0,0 +1,38 @@
+package com.second_project.ecommerce.cart;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.second_project.ecommerce.entity.Product;
+import com.second_project.ecommerce.entity.User;
+
+/**
+ * The product fields a cart shows and validates against, copied out of the entity so carts
+ * can be rendered without a session. Dropped by CartStore when the product changes.
+ */
+record ProductSnapshot(Long id,
+                       String name,
+                       String slug,
+                       List<String> images,
+                       BigDecimal price,
+                       BigDecimal originalPrice,
+                       Integer stock,
+                       Product.ProductStatus status,
+                       Long sellerId,
+                       String sellerName,
+                       String storeName) {
+
+    static ProductSnapshot of(Product product) {
+        User seller = product.getSeller();
+        String sellerName = seller != null ? seller.getFirstName() + " " + seller.getLastName() : null;
+        // Use storeName if available, otherwise fallback to seller name
+        String storeName = seller == null ? null
+                : seller.getStoreName() != null && !seller.getStoreName().trim().isEmpty()
+                        ? seller.getStoreName()
+                        : sellerName;
+        return new ProductSnapshot(product.getId(), product.getName(), product.getSlug(),
+                product.getImages() != null ? List.copyOf(product.getImages()) : List.of(),
+                product.getPrice(), product.getOriginalPrice(), product.getStock(), product.getStatus(),
+                seller != null ? seller.getUserId() : null, sellerName, storeName);
+    }
+}
@@ -0,0 +1,22 @@
+package com.second_project.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+
+import com.second_project.ecommerce.config.properties.IdProperties;
+import com.second_project.ecommerce.util.SnowflakeIdGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies app.id.worker-id to the shared SnowflakeIdGenerator. Order entities generate their
+ * numbers in @PrePersist and cannot have the properties injected, hence the static generator.
+ */
+@Configuration
+@Slf4j
+public class IdGeneratorConfig {
+
+    public IdGeneratorConfig(IdProperties idProperties) {
+        SnowflakeIdGenerator.configure(idProperties.getWorkerId());
+        log.info("Id generator worker id: {}", idProperties.getWorkerId());
+    }
+}
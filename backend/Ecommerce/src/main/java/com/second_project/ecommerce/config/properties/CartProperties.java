@@ -0,0 +1,50 @@
+package com.second_project.ecommerce.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cart")
+public class CartProperties {
+
+    // Carts kept in memory; least recently used clean carts are dropped beyond this
+    private int maxActiveCarts = 10000;
+    // Product snapshots kept for rendering carts
+    private int maxProductSnapshots = 20000;
+    // How long a remembered cart item count is trusted before it is counted again
+    private int countTtlSeconds = 300;
+    // Remembered cart item counts
+    private int maxCachedCounts = 50000;
+
+    public int getMaxActiveCarts() {
+        return maxActiveCarts;
+    }
+
+    public void setMaxActiveCarts(int maxActiveCarts) {
+        this.maxActiveCarts = maxActiveCarts;
+    }
+
+    public int getMaxProductSnapshots() {
+        return maxProductSnapshots;
+    }
+
+    public void setMaxProductSnapshots(int maxProductSnapshots) {
+        this.maxProductSnapshots = maxProductSnapshots;
+    }
+
+    public int getCountTtlSeconds() {
+        return countTtlSeconds;
+    }
+
+    public void setCountTtlSeconds(int countTtlSeconds) {
+        this.countTtlSeconds = countTtlSeconds;
+    }
+
+    public int getMaxCachedCounts() {
+        return maxCachedCounts;
+    }
+
+    public void setMaxCachedCounts(int maxCachedCounts) {
+        this.maxCachedCounts = maxCachedCounts;
+    }
+}
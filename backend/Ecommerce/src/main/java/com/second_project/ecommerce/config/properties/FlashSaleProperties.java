@@ -0,0 +1,73 @@
+package com.second_project.ecommerce.config.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.flash-sale")
+public class FlashSaleProperties {
+
+    // Products in flash-sale mode at startup (admins can change this at runtime)
+    private List<Long> productIds = new ArrayList<>();
+    // Checkouts let through per second; keep it well under what the connection pool can serve
+    private double permitsPerSecond = 20;
+    // Checkouts that may start at once after an idle period
+    private int burst = 10;
+    // Waiting users beyond this get 503 and Retry-After
+    private int queueCapacity = 5000;
+    // How long an admitted user has to send the checkout
+    private int admissionTtlSeconds = 30;
+    // A waiting user who has not polled for this long loses their place
+    private int abandonAfterSeconds = 30;
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public void setProductIds(List<Long> productIds) {
+        this.productIds = productIds;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public void setPermitsPerSecond(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getAdmissionTtlSeconds() {
+        return admissionTtlSeconds;
+    }
+
+    public void setAdmissionTtlSeconds(int admissionTtlSeconds) {
+        this.admissionTtlSeconds = admissionTtlSeconds;
+    }
+
+    public int getAbandonAfterSeconds() {
+        return abandonAfterSeconds;
+    }
+
+    public void setAbandonAfterSeconds(int abandonAfterSeconds) {
+        this.abandonAfterSeconds = abandonAfterSeconds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.second_project.ecommerce.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.id")
+public class IdProperties {
+
+    // Must differ between application nodes, 0-1023 (see SnowflakeIdGenerator)
+    private int workerId = 0;
+
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(int workerId) {
+        this.workerId = workerId;
+    }
+}
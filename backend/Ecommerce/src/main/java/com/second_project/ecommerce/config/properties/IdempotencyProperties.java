@@ -0,0 +1,40 @@
+package com.second_project.ecommerce.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    // How long a completed response is replayed for its key
+    private int ttlHours = 24;
+    // Completed responses kept in memory; older ones are read back from the database
+    private int maxCachedEntries = 10000;
+    // How long a duplicate waits for the request already running with its key
+    private int waitSeconds = 30;
+
+    public int getTtlHours() {
+        return ttlHours;
+    }
+
+    public void setTtlHours(int ttlHours) {
+        this.ttlHours = ttlHours;
+    }
+
+    public int getMaxCachedEntries() {
+        return maxCachedEntries;
+    }
+
+    public void setMaxCachedEntries(int maxCachedEntries) {
+        this.maxCachedEntries = maxCachedEntries;
+    }
+
+    public int getWaitSeconds() {
+        return waitSeconds;
+    }
+
+    public void setWaitSeconds(int waitSeconds) {
+        this.waitSeconds = waitSeconds;
+    }
+}
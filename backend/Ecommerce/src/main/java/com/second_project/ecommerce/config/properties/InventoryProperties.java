@@ -0,0 +1,30 @@
+package com.second_project.ecommerce.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.inventory")
+public class InventoryProperties {
+
+    // How long a QR order holds its stock while waiting for payment
+    private int reservationTtlMinutes = 15;
+    // Orders handled per transaction by the flush and expiry jobs
+    private int batchSize = 200;
+
+    public int getReservationTtlMinutes() {
+        return reservationTtlMinutes;
+    }
+
+    public void setReservationTtlMinutes(int reservationTtlMinutes) {
+        this.reservationTtlMinutes = reservationTtlMinutes;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
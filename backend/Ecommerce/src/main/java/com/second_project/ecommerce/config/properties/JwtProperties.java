@@ -1,5 +1,8 @@
 package com.second_project.ecommerce.config.properties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -8,8 +11,16 @@ import org.springframework.stereotype.Component;
 public class JwtProperties {
     
     private String secret;
+    // kid header of tokens signed with secret
+    private String keyId = "default";
+    // Earlier secrets by kid, still accepted for verification while their tokens expire
+    private Map<String, String> previousSecrets = new LinkedHashMap<>();
     private Long expirationMs;
     private Long refreshExpirationMs;
+    // How long a user's role and verified flag are trusted before they are read again
+    private int userStateTtlSeconds = 60;
+    // Users whose state is kept in memory
+    private int maxCachedUserStates = 10000;
 
     public String getSecret() {
         return secret;
@@ -19,6 +30,22 @@ public class JwtProperties {
         this.secret = secret;
     }
 
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public Map<String, String> getPreviousSecrets() {
+        return previousSecrets;
+    }
+
+    public void setPreviousSecrets(Map<String, String> previousSecrets) {
+        this.previousSecrets = previousSecrets;
+    }
+
     public Long getExpirationMs() {
         return expirationMs;
     }
@@ -34,5 +61,20 @@ public class JwtProperties {
     public void setRefreshExpirationMs(Long refreshExpirationMs) {
         this.refreshExpirationMs = refreshExpirationMs;
     }
-}
 
+    public int getUserStateTtlSeconds() {
+        return userStateTtlSeconds;
+    }
+
+    public void setUserStateTtlSeconds(int userStateTtlSeconds) {
+        this.userStateTtlSeconds = userStateTtlSeconds;
+    }
+
+    public int getMaxCachedUserStates() {
+        return maxCachedUserStates;
+    }
+
+    public void setMaxCachedUserStates(int maxCachedUserStates) {
+        this.maxCachedUserStates = maxCachedUserStates;
+    }
+}
@@ -0,0 +1,40 @@
+package com.second_project.ecommerce.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.order-expiry")
+public class OrderExpiryProperties {
+
+    // Unpaid QR orders older than this are cancelled
+    private int unpaidMinutes = 30;
+    // Orders cancelled per transaction
+    private int batchSize = 100;
+    // Upper bound per run, so one run never takes long; the rest waits for the next run
+    private int maxPerRun = 2000;
+
+    public int getUnpaidMinutes() {
+        return unpaidMinutes;
+    }
+
+    public void setUnpaidMinutes(int unpaidMinutes) {
+        this.unpaidMinutes = unpaidMinutes;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxPerRun() {
+        return maxPerRun;
+    }
+
+    public void setMaxPerRun(int maxPerRun) {
+        this.maxPerRun = maxPerRun;
+    }
+}
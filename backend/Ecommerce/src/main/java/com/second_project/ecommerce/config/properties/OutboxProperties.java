@@ -0,0 +1,79 @@
+package com.second_project.ecommerce.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    // Events read per relay run
+    private int batchSize = 100;
+    // Handler threads; events beyond the queue run on the relay thread
+    private int threads = 4;
+    // Longest a handler may take before the attempt counts as failed
+    private int handlerTimeoutSeconds = 30;
+    // Attempts before an event is marked FAILED
+    private int maxAttempts = 10;
+    // Retry delay: doubles per attempt from the base, up to the max
+    private int backoffBaseSeconds = 5;
+    private int backoffMaxSeconds = 3600;
+    // How long delivered events are kept
+    private int retentionDays = 7;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getHandlerTimeoutSeconds() {
+        return handlerTimeoutSeconds;
+    }
+
+    public void setHandlerTimeoutSeconds(int handlerTimeoutSeconds) {
+        this.handlerTimeoutSeconds = handlerTimeoutSeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getBackoffBaseSeconds() {
+        return backoffBaseSeconds;
+    }
+
+    public void setBackoffBaseSeconds(int backoffBaseSeconds) {
+        this.backoffBaseSeconds = backoffBaseSeconds;
+    }
+
+    public int getBackoffMaxSeconds() {
+        return backoffMaxSeconds;
+    }
+
+    public void setBackoffMaxSeconds(int backoffMaxSeconds) {
+        this.backoffMaxSeconds = backoffMaxSeconds;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+}
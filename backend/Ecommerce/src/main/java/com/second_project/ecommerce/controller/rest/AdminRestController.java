@@ -1,6 +1,7 @@
 package com.second_project.ecommerce.controller.rest;
 
 import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.flashsale.FlashSaleGate;
 import com.second_project.ecommerce.model.ApiResponse;
 import com.second_project.ecommerce.model.PageResponse;
 import com.second_project.ecommerce.model.ProductDto;
@@ -20,6 +21,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -31,6 +33,7 @@ public class AdminRestController {
 
     private final ProductService productService;
     private final UserService userService;
+    private final FlashSaleGate flashSaleGate;
 
     // Product Management
     @GetMapping("/products")
@@ -251,6 +254,31 @@ public class AdminRestController {
         return ResponseEntity.ok(ApiResponse.success("User retrieved successfully", userDto));
     }
 
+    // Flash Sale
+    @GetMapping("/flash-sale")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFlashSale() {
+        return ResponseEntity.ok(ApiResponse.success("Flash sale status retrieved successfully", flashSaleGate.status()));
+    }
+
+    @PutMapping("/flash-sale")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> startFlashSale(@RequestBody FlashSaleRequest request) {
+        flashSaleGate.start(request.getProductIds());
+        log.info("Flash sale started for products {}", request.getProductIds());
+        return ResponseEntity.ok(ApiResponse.success("Flash sale started", flashSaleGate.status()));
+    }
+
+    @DeleteMapping("/flash-sale")
+    public ResponseEntity<ApiResponse<Void>> stopFlashSale() {
+        flashSaleGate.stop();
+        log.info("Flash sale stopped");
+        return ResponseEntity.ok(ApiResponse.success("Flash sale stopped", null));
+    }
+
+    @Data
+    public static class FlashSaleRequest {
+        private List<Long> productIds;
+    }
+
     @Data
     public static class UpdateUserRequest {
         private String firstName;
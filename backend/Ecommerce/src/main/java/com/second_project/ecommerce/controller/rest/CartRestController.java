@@ -3,15 +3,22 @@ package com.second_project.ecommerce.controller.rest;
 import com.second_project.ecommerce.entity.User;
 import com.second_project.ecommerce.model.ApiResponse;
 import com.second_project.ecommerce.model.CartDto;
+import com.second_project.ecommerce.model.CartOperationDto;
 import com.second_project.ecommerce.security.CustomUserDetails;
 import com.second_project.ecommerce.service.CartService;
+import com.second_project.ecommerce.service.IdempotencyService;
 import com.second_project.ecommerce.service.UserService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/cart")
 @RequiredArgsConstructor
@@ -20,6 +27,7 @@ public class CartRestController {
 
     private final CartService cartService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<CartDto>> getCart(@AuthenticationPrincipal CustomUserDetails userDetails) {
@@ -56,6 +64,7 @@ public class CartRestController {
     @PostMapping("/buy-now")
     public ResponseEntity<ApiResponse<CartDto>> buyNow(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestParam Long productId,
             @RequestParam(defaultValue = "1") Integer quantity) {
 
@@ -63,7 +72,9 @@ public class CartRestController {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         // Add or replace item in cart (replace if exists, don't increment)
-        CartDto cartDto = cartService.addOrReplaceItemDto(user, productId, quantity);
+        CartDto cartDto = idempotencyService.execute(
+                user.getUserId(), idempotencyKey, "buy-now", List.of(productId, quantity), CartDto.class,
+                () -> cartService.addOrReplaceItemDto(user, productId, quantity));
         
         // Return cart with success message indicating buy now action
         return ResponseEntity.ok(ApiResponse.success("Item added to cart. Redirecting to checkout...", cartDto));
@@ -104,6 +115,27 @@ public class CartRestController {
         return ResponseEntity.ok(ApiResponse.success("Cart item removed successfully", cartDto));
     }
 
+    /**
+     * Apply several edits (ADD, SET_QUANTITY, REMOVE) in order and return the cart once.
+     * Either all of them apply or, if one is invalid or out of stock, none do.
+     */
+    @PatchMapping
+    public ResponseEntity<ApiResponse<CartDto>> updateCart(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @Valid @RequestBody CartPatchRequest request) {
+
+        User user = userService.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        // Unverified users cannot update cart (same as guests)
+        if (!user.getIsVerified()) {
+            throw new IllegalArgumentException("Please verify your email to update cart");
+        }
+
+        CartDto cartDto = cartService.applyOperationsDto(user, request.getOperations());
+        return ResponseEntity.ok(ApiResponse.success("Cart updated successfully", cartDto));
+    }
+
     @DeleteMapping
     public ResponseEntity<ApiResponse<Void>> clearCart(@AuthenticationPrincipal CustomUserDetails userDetails) {
         User user = userService.findByEmail(userDetails.getUsername())
@@ -115,19 +147,19 @@ public class CartRestController {
 
     @GetMapping("/count")
     public ResponseEntity<ApiResponse<Integer>> getCartItemCount(@AuthenticationPrincipal CustomUserDetails userDetails) {
-        User user = userService.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
         // Unverified users return 0 cart count (same as guests)
-        if (!user.getIsVerified()) {
+        if (!userDetails.isVerified()) {
             return ResponseEntity.ok(ApiResponse.success("Cart item count retrieved successfully", 0));
         }
 
-        CartDto cartDto = cartService.getCartDto(user);
-        // Return count of unique products (different items), not total quantity
-        int itemCount = (cartDto.getItems() != null) ? cartDto.getItems().size() : 0;
+        // Count of unique products (different items), not total quantity; no cart or product loading
+        int itemCount = cartService.getCartItemCount(userDetails.getUserId());
         return ResponseEntity.ok(ApiResponse.success("Cart item count retrieved successfully", itemCount));
     }
-}
-
 
+    @Data
+    public static class CartPatchRequest {
+        @NotEmpty(message = "At least one operation is required")
+        private List<@Valid CartOperationDto> operations;
+    }
+}
@@ -1,5 +1,6 @@
 package com.second_project.ecommerce.controller.rest;
 
+import com.second_project.ecommerce.cache.CatalogChangeTracker;
 import com.second_project.ecommerce.model.ApiResponse;
 import com.second_project.ecommerce.model.CategoryDto;
 import com.second_project.ecommerce.service.CategoryService;
@@ -9,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,28 +21,45 @@ import java.util.List;
 public class CategoryRestController {
 
     private final CategoryService categoryService;
+    private final CatalogChangeTracker catalogChangeTracker;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CategoryDto>>> getAllCategories() {
+    public ResponseEntity<ApiResponse<List<CategoryDto>>> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.categoryTag())) {
+            return null;
+        }
+
         List<CategoryDto> categories = categoryService.findActiveCategoriesDtos();
         return ResponseEntity.ok(ApiResponse.success("Categories retrieved successfully", categories));
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<CategoryDto>>> getAllCategoriesAdmin() {
+    public ResponseEntity<ApiResponse<List<CategoryDto>>> getAllCategoriesAdmin(WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.categoryTag())) {
+            return null;
+        }
+
         List<CategoryDto> categories = categoryService.findAllDtos();
         return ResponseEntity.ok(ApiResponse.success("Categories retrieved successfully", categories));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<CategoryDto>> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<CategoryDto>> getCategoryById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.categoryTag())) {
+            return null;
+        }
+
         CategoryDto category = categoryService.findDtoById(id);
         return ResponseEntity.ok(ApiResponse.success("Category retrieved successfully", category));
     }
 
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<ApiResponse<CategoryDto>> getCategoryBySlug(@PathVariable String slug) {
+    public ResponseEntity<ApiResponse<CategoryDto>> getCategoryBySlug(@PathVariable String slug, WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.categoryTag())) {
+            return null;
+        }
+
         CategoryDto category = categoryService.findDtoBySlug(slug);
         return ResponseEntity.ok(ApiResponse.success("Category retrieved successfully", category));
     }
@@ -62,6 +81,18 @@ public class CategoryRestController {
         return ResponseEntity.ok(ApiResponse.success("Category updated successfully", updatedCategory));
     }
 
+    /**
+     * Recompute every category's product count from the product links, repairing any drift in
+     * the incrementally maintained counts. Returns the number of categories that were corrected.
+     */
+    @PostMapping("/recount")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> recountProducts() {
+        int corrected = categoryService.recountProductCounts();
+        log.info("Category product counts recounted, {} corrected", corrected);
+        return ResponseEntity.ok(ApiResponse.success("Category product counts recounted", corrected));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Void>> deleteCategory(@PathVariable Long id) {
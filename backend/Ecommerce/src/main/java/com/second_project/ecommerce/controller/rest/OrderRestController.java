@@ -2,11 +2,17 @@ package com.second_project.ecommerce.controller.rest;
 
 import com.second_project.ecommerce.entity.Order;
 import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.flashsale.FlashSaleGate;
 import com.second_project.ecommerce.model.ApiResponse;
 import com.second_project.ecommerce.model.CheckoutRequestDto;
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.OrderDto;
+import com.second_project.ecommerce.model.OrderStatusResultDto;
 import com.second_project.ecommerce.model.PageResponse;
+import com.second_project.ecommerce.model.QueueTicketDto;
 import com.second_project.ecommerce.security.CustomUserDetails;
+import com.second_project.ecommerce.service.CartService;
+import com.second_project.ecommerce.service.IdempotencyService;
 import com.second_project.ecommerce.service.OrderService;
 import com.second_project.ecommerce.service.UserService;
 import jakarta.validation.Valid;
@@ -16,11 +22,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
@@ -29,6 +40,9 @@ public class OrderRestController {
 
     private final OrderService orderService;
     private final UserService userService;
+    private final CartService cartService;
+    private final FlashSaleGate flashSaleGate;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<Order>> createOrder(
@@ -43,10 +57,34 @@ public class OrderRestController {
     }
 
     @PostMapping("/checkout")
-    public ResponseEntity<ApiResponse<OrderDto>> checkout(
+    public ResponseEntity<ApiResponse<?>> checkout(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CheckoutRequestDto checkoutRequest) {
 
+        // A retry of a checkout that already went through gets the same order back
+        Optional<OrderDto> completed = idempotencyService.findCompleted(
+                userDetails.getUserId(), idempotencyKey, "checkout", checkoutRequest, OrderDto.class);
+        if (completed.isPresent()) {
+            return ResponseEntity.ok(ApiResponse.success("Order created successfully", completed.get()));
+        }
+
+        // Flash-sale products go through the waiting room before any order work starts
+        if (flashSaleGate.isActive()) {
+            FlashSaleGate.Admission admission = flashSaleGate.admit(
+                    userDetails.getUserId(), checkoutProductIds(userDetails, checkoutRequest));
+            if (admission.outcome() == FlashSaleGate.Outcome.QUEUED) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(ApiResponse.success("You are in the checkout queue", admission.ticket()));
+            }
+            if (admission.outcome() == FlashSaleGate.Outcome.FULL) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(
+                                Math.max(1, admission.ticket().getRetryAfterMs() / 1000)))
+                        .body(ApiResponse.error("The checkout queue is full, please try again shortly", admission.ticket()));
+            }
+        }
+
         User user = userService.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
@@ -55,19 +93,39 @@ public class OrderRestController {
             throw new IllegalArgumentException("Please verify your email to place orders");
         }
 
-        OrderDto orderDto = orderService.createOrderFromCartDto(user, checkoutRequest);
+        OrderDto orderDto = idempotencyService.execute(
+                user.getUserId(), idempotencyKey, "checkout", checkoutRequest, OrderDto.class,
+                () -> orderService.createOrderFromCartDto(user, checkoutRequest));
         return ResponseEntity.ok(ApiResponse.success("Order created successfully", orderDto));
     }
 
+    /**
+     * Poll the flash-sale queue: WAITING with a position and a suggested retry delay, or
+     * ADMITTED, after which the checkout must be sent within the admission window.
+     */
+    @GetMapping("/checkout/queue")
+    public ResponseEntity<ApiResponse<QueueTicketDto>> getCheckoutQueue(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        QueueTicketDto ticket = flashSaleGate.poll(userDetails.getUserId());
+        return ResponseEntity.ok(ApiResponse.success("Queue status retrieved successfully", ticket));
+    }
+
     @GetMapping
     public ResponseEntity<PageResponse<OrderDto>> getUserOrders(
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
 
         User user = userService.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
+        // Cursor mode (opt-in with ?cursor=, empty for the first page): keyset paging, no COUNT query
+        if (cursor != null) {
+            CursorPage<OrderDto> orderPage = orderService.scrollByUserDto(user, cursor, size);
+            return ResponseEntity.ok(PageResponse.cursor("Orders retrieved successfully", orderPage, size, cursor.isBlank()));
+        }
+
         Pageable pageable = PageRequest.of(page, size);
         Page<OrderDto> orderPage = orderService.findByUserDto(user, pageable);
 
@@ -119,7 +177,13 @@ public class OrderRestController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PageResponse<OrderDto>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+
+        if (cursor != null) {
+            CursorPage<OrderDto> orderPage = orderService.scrollAllDto(cursor, size);
+            return ResponseEntity.ok(PageResponse.cursor("Orders retrieved successfully", orderPage, size, cursor.isBlank()));
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<OrderDto> orderPage = orderService.findAllDto(pageable);
@@ -144,6 +208,22 @@ public class OrderRestController {
         return ResponseEntity.ok(ApiResponse.success("Order status updated successfully", orderDto));
     }
 
+    /**
+     * Move many orders to one status. Every order gets a result entry; orders that cannot make
+     * the move (not found, transition not allowed, out of stock) are skipped, not fatal.
+     */
+    @PutMapping("/status:batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<OrderStatusResultDto>>> updateOrderStatuses(
+            @RequestBody BatchStatusRequest request) {
+
+        List<OrderStatusResultDto> results = orderService.updateOrderStatuses(
+                request.getOrderIds(), request.getStatus(), request.getCancellationReason());
+        long updated = results.stream().filter(result -> "UPDATED".equals(result.getResult())).count();
+        return ResponseEntity.ok(ApiResponse.success(
+                updated + " of " + results.size() + " orders updated", results));
+    }
+
     @GetMapping("/statistics")
     public ResponseEntity<ApiResponse<OrderService.OrderStatistics>> getOrderStatistics(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
@@ -166,6 +246,14 @@ public class OrderRestController {
         return ResponseEntity.ok(ApiResponse.success("Dashboard statistics retrieved successfully", stats));
     }
 
+    // Buy-now names its product; a cart checkout takes everything in the cart
+    private List<Long> checkoutProductIds(CustomUserDetails userDetails, CheckoutRequestDto checkoutRequest) {
+        if (Boolean.TRUE.equals(checkoutRequest.getIsBuyNow()) && checkoutRequest.getProductId() != null) {
+            return List.of(checkoutRequest.getProductId());
+        }
+        return cartService.findProductIds(userDetails.getUserId());
+    }
+
     @Data
     public static class CreateOrderRequest {
         private String shippingAddress;
@@ -176,6 +264,13 @@ public class OrderRestController {
     public static class CancelOrderRequest {
         private String cancellationReason;
     }
+
+    @Data
+    public static class BatchStatusRequest {
+        private List<Long> orderIds;
+        private Order.OrderStatus status;
+        private String cancellationReason;
+    }
 }
 
 
@@ -1,9 +1,17 @@
 package com.second_project.ecommerce.controller.rest;
 
+import com.second_project.ecommerce.cache.CatalogChangeTracker;
+import com.second_project.ecommerce.counter.ProductCounters;
 import com.second_project.ecommerce.entity.Product;
 import com.second_project.ecommerce.model.ApiResponse;
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.PageResponse;
 import com.second_project.ecommerce.model.ProductDto;
+import com.second_project.ecommerce.model.ProductFacetsDto;
+import com.second_project.ecommerce.model.SuggestionDto;
+import com.second_project.ecommerce.search.ProductFacetFilter;
+import com.second_project.ecommerce.search.ProductSuggestIndex;
+import com.second_project.ecommerce.service.ProductRankingService;
 import com.second_project.ecommerce.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +22,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,13 +33,31 @@ import java.util.List;
 public class ProductRestController {
 
     private final ProductService productService;
+    private final ProductRankingService productRankingService;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final CatalogChangeTracker catalogChangeTracker;
+    private final ProductCounters productCounters;
 
     @GetMapping
     public ResponseEntity<PageResponse<ProductDto>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDir) {
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.productListTag())) {
+            return null;
+        }
+
+        // Cursor mode (opt-in with ?cursor=, empty for the first page): keyset paging, no COUNT query
+        if (cursor != null) {
+            Sort.Direction direction = sortDir.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC;
+            CursorPage<ProductDto> productPage = productService.scrollByStatusDtos(
+                    Product.ProductStatus.APPROVED, sortBy, direction, cursor, size);
+            return ResponseEntity.ok(PageResponse.cursor(
+                    "Products retrieved successfully", productPage, size, cursor.isBlank()));
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("ASC") ? 
                 Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
@@ -50,12 +77,21 @@ public class ProductRestController {
 
     @GetMapping("/search")
     public ResponseEntity<PageResponse<ProductDto>> searchProducts(
-            @RequestParam String keyword,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<String> priceRange,
+            @RequestParam(required = false) Integer minRating,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
 
+        ProductFacetFilter filter = new ProductFacetFilter(brand, categoryId, priceRange, minRating);
+        if ((keyword == null || keyword.isBlank()) && filter.isEmpty()) {
+            throw new IllegalArgumentException("Provide a keyword or at least one filter");
+        }
+
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductDto> productPage = productService.searchProductsDtos(keyword, pageable);
+        Page<ProductDto> productPage = productService.searchProductsDtos(keyword, filter, pageable);
 
         return ResponseEntity.ok(PageResponse.success(
                 "Search results retrieved successfully",
@@ -67,24 +103,61 @@ public class ProductRestController {
         ));
     }
 
+    /**
+     * Search-as-you-type suggestions (product names, brands, categories) ranked by units sold.
+     * Answered from the in-memory trie without touching the database.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<SuggestionDto> suggestions = productSuggestIndex.suggest(q, limit);
+        return ResponseEntity.ok(ApiResponse.success("Suggestions retrieved successfully", suggestions));
+    }
+
+    /**
+     * Facet counts (brand, category, price range, rating) for the filter sidebar.
+     * Takes the same keyword and filter parameters as /search.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<ProductFacetsDto>> getFacets(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<String> priceRange,
+            @RequestParam(required = false) Integer minRating) {
+
+        ProductFacetFilter filter = new ProductFacetFilter(brand, categoryId, priceRange, minRating);
+        ProductFacetsDto facets = productService.getFacets(keyword, filter);
+        return ResponseEntity.ok(ApiResponse.success("Facets retrieved successfully", facets));
+    }
+
     @GetMapping("/featured")
     public ResponseEntity<ApiResponse<List<ProductDto>>> getFeaturedProducts(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.productListTag())) {
+            return null;
+        }
+
         List<ProductDto> products = productService.findFeaturedProductsDtos(limit);
         return ResponseEntity.ok(ApiResponse.success("Featured products retrieved successfully", products));
     }
 
     @GetMapping("/new")
     public ResponseEntity<ApiResponse<List<ProductDto>>> getNewProducts(
+            @RequestParam(required = false) Long categoryId,
             @RequestParam(defaultValue = "10") int limit) {
-        List<ProductDto> products = productService.findNewProductsDtos(limit);
+        // Served from the in-memory ranking snapshot (no transaction, no query once warm)
+        List<ProductDto> products = productRankingService.getNewProducts(categoryId, limit);
         return ResponseEntity.ok(ApiResponse.success("New products retrieved successfully", products));
     }
 
     @GetMapping("/hot")
     public ResponseEntity<ApiResponse<List<ProductDto>>> getHotProducts(
+            @RequestParam(required = false) Long categoryId,
             @RequestParam(defaultValue = "10") int limit) {
-        List<ProductDto> products = productService.findHotProductsDtos(limit);
+        List<ProductDto> products = productRankingService.getHotProducts(categoryId, limit);
         return ResponseEntity.ok(ApiResponse.success("Hot products retrieved successfully", products));
     }
 
@@ -92,7 +165,18 @@ public class ProductRestController {
     public ResponseEntity<PageResponse<ProductDto>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.productListTag())) {
+            return null;
+        }
+        
+        if (cursor != null) {
+            CursorPage<ProductDto> productPage = productService.scrollByCategoryIdDtos(categoryId, cursor, size);
+            return ResponseEntity.ok(PageResponse.cursor(
+                    "Products by category retrieved successfully", productPage, size, cursor.isBlank()));
+        }
         
         Pageable pageable = PageRequest.of(page, size);
         Page<ProductDto> productPage = productService.findByCategoryIdDtos(categoryId, pageable);
@@ -111,7 +195,11 @@ public class ProductRestController {
     public ResponseEntity<PageResponse<ProductDto>> getProductsBySeller(
             @PathVariable Long sellerId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.productListTag())) {
+            return null;
+        }
         
         Pageable pageable = PageRequest.of(page, size);
         Page<ProductDto> productPage = productService.findBySellerIdDtos(sellerId, pageable);
@@ -127,7 +215,15 @@ public class ProductRestController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductDto>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ProductDto>> getProductById(@PathVariable Long id, WebRequest request) {
+        // Answer 304 from the version probe alone when the client's copy is current
+        Long version = productService.findVersionById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+        productCounters.recordView(id);
+        if (request.checkNotModified(catalogChangeTracker.productTag(id, version))) {
+            return null;
+        }
+
         ProductDto product = productService.findDtoById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
@@ -135,7 +231,16 @@ public class ProductRestController {
     }
 
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<ApiResponse<ProductDto>> getProductBySlug(@PathVariable String slug) {
+    public ResponseEntity<ApiResponse<ProductDto>> getProductBySlug(@PathVariable String slug, WebRequest request) {
+        Long id = productService.findIdBySlug(slug)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+        Long version = productService.findVersionById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+        productCounters.recordView(id);
+        if (request.checkNotModified(catalogChangeTracker.productTag(id, version))) {
+            return null;
+        }
+
         ProductDto product = productService.findDtoBySlug(slug)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
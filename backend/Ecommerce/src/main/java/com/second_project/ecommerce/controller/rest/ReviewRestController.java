@@ -19,8 +19,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.second_project.ecommerce.cache.CatalogChangeTracker;
 import com.second_project.ecommerce.model.ApiResponse;
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.PageResponse;
 import com.second_project.ecommerce.model.ReviewDto;
 import com.second_project.ecommerce.security.CustomUserDetails;
@@ -41,6 +44,7 @@ import lombok.extern.slf4j.Slf4j;
 public class ReviewRestController {
 
     private final ReviewService reviewService;
+    private final CatalogChangeTracker catalogChangeTracker;
 
     /**
      * Create a new review for a product.
@@ -117,10 +121,15 @@ public class ReviewRestController {
     @GetMapping("/{reviewId}")
     public ResponseEntity<ApiResponse<ReviewDto>> getReviewById(
             @PathVariable Long reviewId,
-            @AuthenticationPrincipal CustomUserDetails currentUser) {
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            WebRequest request) {
+        Long viewerId = currentUser != null ? currentUser.getUserId() : null;
+        if (request.checkNotModified(catalogChangeTracker.reviewsTag(viewerId))) {
+            return null;
+        }
+
         try {
-            Long userId = currentUser != null ? currentUser.getUserId() : null;
-            ReviewDto review = reviewService.getReviewById(reviewId, userId);
+            ReviewDto review = reviewService.getReviewById(reviewId, viewerId);
             return ResponseEntity.ok(ApiResponse.success("Review retrieved successfully", review));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -144,14 +153,29 @@ public class ReviewRestController {
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDir,
             @RequestParam(required = false) Integer rating,
-            @AuthenticationPrincipal CustomUserDetails currentUser) {
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            WebRequest request) {
+        Long viewerId = currentUser != null ? currentUser.getUserId() : null;
+        if (request.checkNotModified(catalogChangeTracker.productReviewsTag(productId, viewerId))) {
+            return null;
+        }
+
         try {
+            // Cursor mode (opt-in with ?cursor=): newest first, rating filter applied in the query
+            if (cursor != null) {
+                Integer ratingFilter = rating != null && rating >= 1 && rating <= 5 ? rating : null;
+                CursorPage<ReviewDto> reviewPage = reviewService.scrollReviewsByProductId(
+                        productId, ratingFilter, cursor, size, viewerId);
+                return ResponseEntity.ok(PageResponse.cursor(
+                        "Reviews retrieved successfully", reviewPage, size, cursor.isBlank()));
+            }
+
             Sort sort = sortDir.equalsIgnoreCase("ASC") ? 
                     Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Long userId = currentUser != null ? currentUser.getUserId() : null;
-            Page<ReviewDto> reviewPage = reviewService.getReviewsByProductId(productId, pageable, userId);
+            Page<ReviewDto> reviewPage = reviewService.getReviewsByProductId(productId, pageable, viewerId);
 
             // Filter by rating if provided (filter in memory for now)
             if (rating != null && rating >= 1 && rating <= 5) {
@@ -170,6 +194,10 @@ public class ReviewRestController {
                     reviewPage.getTotalElements(),
                     reviewPage.getTotalPages()
             ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new PageResponse<>(false, e.getMessage(), 
+                            java.util.Collections.emptyList(), 0, size, 0L, 0));
         } catch (Exception e) {
             log.error("Error retrieving reviews for product {}", productId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -186,8 +214,20 @@ public class ReviewRestController {
     public ResponseEntity<PageResponse<ReviewDto>> getReviewsByUserId(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.reviewsTag(null))) {
+            return null;
+        }
+
         try {
+            if (cursor != null) {
+                CursorPage<ReviewDto> reviewPage = reviewService.scrollReviewsByUserId(userId, cursor, size);
+                return ResponseEntity.ok(PageResponse.cursor(
+                        "User reviews retrieved successfully", reviewPage, size, cursor.isBlank()));
+            }
+
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<ReviewDto> reviewPage = reviewService.getReviewsByUserId(userId, pageable);
 
@@ -199,6 +239,10 @@ public class ReviewRestController {
                     reviewPage.getTotalElements(),
                     reviewPage.getTotalPages()
             ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new PageResponse<>(false, e.getMessage(), 
+                            java.util.Collections.emptyList(), 0, size, 0L, 0));
         } catch (Exception e) {
             log.error("Error retrieving reviews for user {}", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -212,7 +256,11 @@ public class ReviewRestController {
      * Public endpoint.
      */
     @GetMapping("/product/{productId}/rating")
-    public ResponseEntity<ApiResponse<Double>> getAverageRating(@PathVariable Long productId) {
+    public ResponseEntity<ApiResponse<Double>> getAverageRating(@PathVariable Long productId, WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.productReviewsTag(productId, null))) {
+            return null;
+        }
+
         try {
             Double avgRating = reviewService.getAverageRating(productId);
             return ResponseEntity.ok(ApiResponse.success("Average rating retrieved successfully", avgRating));
@@ -228,7 +276,11 @@ public class ReviewRestController {
      * Public endpoint.
      */
     @GetMapping("/product/{productId}/count")
-    public ResponseEntity<ApiResponse<Long>> getReviewCount(@PathVariable Long productId) {
+    public ResponseEntity<ApiResponse<Long>> getReviewCount(@PathVariable Long productId, WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.productReviewsTag(productId, null))) {
+            return null;
+        }
+
         try {
             Long count = reviewService.getReviewCount(productId);
             return ResponseEntity.ok(ApiResponse.success("Review count retrieved successfully", count));
@@ -245,7 +297,11 @@ public class ReviewRestController {
      * Public endpoint.
      */
     @GetMapping("/product/{productId}/distribution")
-    public ResponseEntity<ApiResponse<Map<Integer, Long>>> getRatingDistribution(@PathVariable Long productId) {
+    public ResponseEntity<ApiResponse<Map<Integer, Long>>> getRatingDistribution(@PathVariable Long productId, WebRequest request) {
+        if (request.checkNotModified(catalogChangeTracker.productReviewsTag(productId, null))) {
+            return null;
+        }
+
         try {
             Map<Integer, Long> distribution = reviewService.getRatingDistribution(productId);
             return ResponseEntity.ok(ApiResponse.success("Rating distribution retrieved successfully", distribution));
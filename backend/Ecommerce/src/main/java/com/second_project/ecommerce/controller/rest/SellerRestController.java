@@ -57,20 +57,11 @@ public class SellerRestController {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> productPage = productService.findBySeller(seller, pageable);
-        
-        // Convert to DTOs
-        List<ProductDto> dtos = productPage.getContent().stream()
-                .map(product -> {
-                    ProductDto dto = productService.findDtoById(product.getId())
-                            .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-                    return dto;
-                })
-                .collect(java.util.stream.Collectors.toList());
+        Page<ProductDto> productPage = productService.findBySellerDtos(seller, pageable);
 
         return ResponseEntity.ok(PageResponse.success(
                 "Seller products retrieved successfully",
-                dtos,
+                productPage.getContent(),
                 productPage.getNumber(),
                 productPage.getSize(),
                 productPage.getTotalElements(),
@@ -83,21 +74,18 @@ public class SellerRestController {
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @RequestBody ProductDto productDto) {
 
-        User seller = userService.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        // Check if seller is approved (admins can bypass this check)
-        if (!seller.getRole().equals(User.UserRole.ADMIN) && !seller.getIsSellerApproved()) {
+        // Check if seller is approved (admins can bypass this check); role and approval come
+        // from the principal, which takes them from UserStateCache on /api/seller routes
+        if (userDetails.getRole() != User.UserRole.ADMIN && !userDetails.isSellerApproved()) {
             throw new IllegalArgumentException("Seller is not approved. Please wait for admin approval.");
         }
 
-        // Set seller ID in DTO - use getUserId() instead of getId()
-        productDto.setSellerId(seller.getUserId());
+        productDto.setSellerId(userDetails.getUserId());
         
         // Use service layer's saveDto which handles lazy loading properly and has @Transactional
         ProductDto savedDto = productService.saveDto(productDto);
         
-        log.info("Product created by seller {}: {}", seller.getUserId(), savedDto.getId());
+        log.info("Product created by seller {}: {}", userDetails.getUserId(), savedDto.getId());
         
         return ResponseEntity.ok(ApiResponse.success("Product created successfully. Awaiting admin approval.", savedDto));
     }
@@ -306,8 +294,7 @@ public class SellerRestController {
                     productSummary.setName(product.getName());
                     productSummary.setSales(product.getSoldCount() != null ? product.getSoldCount() : 0);
                     productSummary.setPrice(product.getPrice());
-                    Double productRating = reviewRepository.getAverageRatingByProductId(product.getId());
-                    productSummary.setRating(productRating != null ? productRating : 0.0);
+                    productSummary.setRating(product.getAverageRating());
                     return productSummary;
                 })
                 .collect(Collectors.toList()));
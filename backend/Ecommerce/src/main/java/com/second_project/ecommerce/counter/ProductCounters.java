@@ -0,0 +1,175 @@
+package com.second_project.ecommerce.counter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.second_project.ecommerce.event.ProductChangedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Write-behind counters for products.sold_count and products.view_count.
+ *
+ * Sales and views are added to a per-product LongAdder instead of updating the product row,
+ * so a bestseller's row is not written on every order or page view. flush() (run every few
+ * seconds by ProductCounterFlushScheduler) turns the pending deltas into one batched
+ * UPDATE ... SET sold_count = sold_count + ? per product. Until then the stored counts lag.
+ *
+ * Deltas added inside a transaction only count once it commits. Pending deltas are lost if
+ * the application stops before the next flush; sold counts can be rebuilt from order_items.
+ *
+ * Metrics: product.counters.pending (products with unflushed deltas) and
+ * product.counters.flush.lag.seconds (age of the oldest unflushed delta).
+ */
+@Component
+public class ProductCounters {
+
+    private static final String FLUSH_SQL =
+            "UPDATE products SET sold_count = GREATEST(sold_count + ?, 0), view_count = view_count + ? WHERE id = ?";
+
+    private final Map<Long, Deltas> pending = new ConcurrentHashMap<>();
+    // When the oldest unflushed delta was added (epoch millis), 0 if nothing is pending
+    private final AtomicLong dirtySince = new AtomicLong();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductCounters(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        Gauge.builder("product.counters.pending", this, ProductCounters::pendingProducts)
+                .description("Products with sold or view counts not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("product.counters.flush.lag.seconds", this, ProductCounters::lagSeconds)
+                .description("Age of the oldest sold or view count not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Units sold (negative when an order that already took its stock is cancelled).
+     */
+    public void addSold(Long productId, long quantity) {
+        if (productId == null || quantity == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            deltas(productId).sold.add(quantity);
+            markDirty();
+        });
+    }
+
+    public void addSold(Map<Long, Integer> quantitiesByProductId) {
+        quantitiesByProductId.forEach(this::addSold);
+    }
+
+    public void recordView(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        deltas(productId).views.increment();
+        markDirty();
+    }
+
+    /**
+     * Write pending deltas to the products table. Returns the number of products updated.
+     */
+    public synchronized int flush() {
+        long since = dirtySince.getAndSet(0);
+        List<Long> productIds = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        List<long[]> taken = new ArrayList<>();
+        for (Map.Entry<Long, Deltas> entry : pending.entrySet()) {
+            Deltas deltas = entry.getValue();
+            // Subtract what was read instead of resetting, so concurrent adds are kept
+            long sold = deltas.sold.sum();
+            long views = deltas.views.sum();
+            if (sold == 0 && views == 0) {
+                // Entries are kept: removing one could drop a delta added to it concurrently
+                continue;
+            }
+            deltas.sold.add(-sold);
+            deltas.views.add(-views);
+            productIds.add(entry.getKey());
+            rows.add(new Object[] {sold, views, entry.getKey()});
+            taken.add(new long[] {sold, views});
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, rows));
+        } catch (RuntimeException e) {
+            // Put the deltas back for the next run
+            for (int i = 0; i < productIds.size(); i++) {
+                Deltas deltas = deltas(productIds.get(i));
+                deltas.sold.add(taken.get(i)[0]);
+                deltas.views.add(taken.get(i)[1]);
+            }
+            dirtySince.accumulateAndGet(since, (current, previous) -> current == 0 ? previous : Math.min(current, previous));
+            throw e;
+        }
+
+        // Views alone do not change anything that is cached or ranked
+        for (int i = 0; i < productIds.size(); i++) {
+            if (taken.get(i)[0] != 0) {
+                eventPublisher.publishEvent(new ProductChangedEvent(
+                        this, productIds.get(i), ProductChangedEvent.ChangeType.SOLD_COUNT_CHANGED));
+            }
+        }
+        return rows.size();
+    }
+
+    private Deltas deltas(Long productId) {
+        return pending.computeIfAbsent(productId, id -> new Deltas());
+    }
+
+    private void markDirty() {
+        dirtySince.compareAndSet(0, System.currentTimeMillis());
+    }
+
+    private double pendingProducts() {
+        return pending.values().stream().filter(deltas -> deltas.sold.sum() != 0 || deltas.views.sum() != 0).count();
+    }
+
+    private double lagSeconds() {
+        long since = dirtySince.get();
+        return since == 0 ? 0 : (System.currentTimeMillis() - since) / 1000d;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Deltas {
+        private final LongAdder sold = new LongAdder();
+        private final LongAdder views = new LongAdder();
+    }
+}
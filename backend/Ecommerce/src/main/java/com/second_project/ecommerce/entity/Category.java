@@ -53,6 +53,12 @@ public class Category {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Number of APPROVED products linked to this category. Maintained by delta UPDATEs
+    // (CategoryRepository.adjustProductCount) when links or product status change;
+    // updatable = false so saving a category never writes back a stale value.
+    @Column(nullable = false, updatable = false)
+    private Integer productCount = 0;
+
     @ManyToMany(mappedBy = "categories")
     private Set<Product> products = new HashSet<>();
 
@@ -169,11 +175,11 @@ public class Category {
     }
 
     public int getProductCount() {
-        return products != null ? products.size() : 0;
+        return productCount != null ? productCount : 0;
     }
     
     public void setProductCount(int count) {
-        // This is a computed field, no-op setter for compatibility
+        this.productCount = count;
     }
     
     // Alias method for image field
@@ -24,21 +24,28 @@ import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import com.second_project.ecommerce.util.SnowflakeIdGenerator;
 
 @Entity
 @Table(
     name = "orders",
     indexes = {
         @Index(name = "idx_order_user", columnList = "user_id"),
-        @Index(name = "idx_order_status", columnList = "order_status"),
-        @Index(name = "idx_order_created", columnList = "created_at")
+        @Index(name = "idx_order_status_date", columnList = "order_status, order_date"),
+        @Index(name = "idx_order_created", columnList = "created_at"),
+        @Index(name = "idx_order_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_order_stock_hold", columnList = "stock_hold")
     }
 )
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Order {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -100,6 +107,16 @@ public class Order {
     @Column(name = "delivered_date")
     private LocalDateTime deliveredDate;
 
+    // Inventory held for this order in the reservation ledger (InventoryReservationService).
+    // null means the quantities are part of products.stock. Only changed through
+    // OrderRepository's conditional UPDATEs, so a regular save never writes back a stale state.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stock_hold", length = 20, updatable = false)
+    private StockHold stockHold;
+
+    @Column(name = "stock_hold_expires_at", updatable = false)
+    private LocalDateTime stockHoldExpiresAt;
+
     public Order() {}
 
     @PrePersist
@@ -118,7 +135,7 @@ public class Order {
     }
 
     private String generateOrderNumber() {
-        return "ORD" + System.currentTimeMillis();
+        return "ORD" + SnowflakeIdGenerator.shared().nextCode();
     }
 
     public void addItem(OrderItem item) {
@@ -278,6 +295,22 @@ public class Order {
     public void setDeliveredDate(LocalDateTime deliveredDate) {
         this.deliveredDate = deliveredDate;
     }
+
+    public StockHold getStockHold() {
+        return stockHold;
+    }
+
+    public void setStockHold(StockHold stockHold) {
+        this.stockHold = stockHold;
+    }
+
+    public LocalDateTime getStockHoldExpiresAt() {
+        return stockHoldExpiresAt;
+    }
+
+    public void setStockHoldExpiresAt(LocalDateTime stockHoldExpiresAt) {
+        this.stockHoldExpiresAt = stockHoldExpiresAt;
+    }
     
     // Alias methods for backward compatibility
     public OrderStatus getStatus() {
@@ -317,7 +350,23 @@ public class Order {
         CONFIRMED,
         PROCESSING,
         COMPLETED,
-        CANCELLED
+        CANCELLED;
+
+        // Forward moves only; COMPLETED and CANCELLED are final
+        public boolean canTransitionTo(OrderStatus target) {
+            return switch (this) {
+                case PENDING -> target == CONFIRMED || target == PROCESSING || target == CANCELLED;
+                case CONFIRMED -> target == PROCESSING || target == COMPLETED || target == CANCELLED;
+                case PROCESSING -> target == COMPLETED || target == CANCELLED;
+                case COMPLETED, CANCELLED -> false;
+            };
+        }
+    }
+
+    public enum StockHold {
+        RESERVED,   // Held until payment or expiry, not yet taken from products.stock
+        COMMITTED,  // Paid or cash on delivery, waiting for the batch flush to products.stock
+        RELEASED    // Hold expired or order cancelled, stock given back
     }
 
     public enum DeliveryStatus {
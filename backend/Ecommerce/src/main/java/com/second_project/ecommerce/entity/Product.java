@@ -38,7 +38,10 @@ import lombok.Data;
         @Index(name = "idx_product_name", columnList = "name"),
         @Index(name = "idx_product_sku", columnList = "sku"),
         @Index(name = "idx_product_status", columnList = "status"),
-        @Index(name = "idx_product_seller", columnList = "seller_id")
+        @Index(name = "idx_product_seller", columnList = "seller_id"),
+        @Index(name = "idx_product_status_sold", columnList = "status, sold_count"),
+        @Index(name = "idx_product_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_product_status_price", columnList = "status, price")
     }
 )
 @Data
@@ -75,9 +78,42 @@ public class Product {
     @Column(nullable = false)
     private Integer stock = 0;
 
-    @Column(nullable = false)
+    // Written only by ProductCounters' batched delta flush (see also viewCount); updatable = false
+    // keeps a regular entity save from writing back a value read before the last flush
+    @Column(nullable = false, updatable = false)
     private Integer soldCount = 0;
 
+    @Column(nullable = false, updatable = false)
+    private Long viewCount = 0L;
+
+    // Denormalized review aggregates, maintained by ReviewServiceImpl through atomic
+    // delta UPDATEs (ProductRepository.applyReview*). Marked updatable = false so a
+    // regular entity save can never overwrite them with stale values.
+    @Column(nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    @Column(nullable = false, updatable = false)
+    private Integer ratingCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer reviewCount = 0;
+
+    // 1-5 star histogram
+    @Column(nullable = false, updatable = false)
+    private Integer oneStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer twoStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer threeStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer fourStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer fiveStarCount = 0;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @Column(columnDefinition = "TEXT")
     private List<String> images = new ArrayList<>();
@@ -178,15 +214,24 @@ public class Product {
         this.seller = seller;
     }
 
-    // Calculate average rating
+    // Average rating from the denormalized aggregates (no need to load reviews)
     public Double getAverageRating() {
-        if (reviews.isEmpty()) {
+        if (ratingCount == null || ratingCount == 0 || ratingSum == null) {
             return 0.0;
         }
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return (double) ratingSum / ratingCount;
+    }
+
+    // Number of reviews with the given star rating (1-5)
+    public Integer getStarCount(int rating) {
+        switch (rating) {
+            case 1: return oneStarCount;
+            case 2: return twoStarCount;
+            case 3: return threeStarCount;
+            case 4: return fourStarCount;
+            case 5: return fiveStarCount;
+            default: return 0;
+        }
     }
 
     // Calculate discount percentage
@@ -282,6 +327,14 @@ public class Product {
         this.soldCount = soldCount;
     }
 
+    public Long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Long viewCount) {
+        this.viewCount = viewCount;
+    }
+
     public List<String> getImages() {
         return images;
     }
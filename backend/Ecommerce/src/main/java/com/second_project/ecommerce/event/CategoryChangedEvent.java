@@ -0,0 +1,34 @@
+package com.second_project.ecommerce.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published by CategoryServiceImpl whenever a category is created, edited or deleted
+ * (DETAILS_CHANGED), or its product count changes (COUNT_CHANGED). categoryId is null after
+ * a full recount. Product DTOs only show category details, so count changes leave product
+ * caches and tags alone. Listeners react AFTER_COMMIT, like for ProductChangedEvent.
+ */
+public class CategoryChangedEvent extends ApplicationEvent {
+
+    public enum ChangeType {
+        DETAILS_CHANGED,
+        COUNT_CHANGED
+    }
+
+    private final Long categoryId;
+    private final ChangeType changeType;
+
+    public CategoryChangedEvent(Object source, Long categoryId, ChangeType changeType) {
+        super(source);
+        this.categoryId = categoryId;
+        this.changeType = changeType;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+}
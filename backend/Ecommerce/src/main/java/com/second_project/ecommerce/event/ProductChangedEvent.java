@@ -0,0 +1,41 @@
+package com.second_project.ecommerce.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published by ProductServiceImpl whenever a product is created, edited, approved,
+ * rejected, discontinued or sells/restocks units, and by ReviewServiceImpl when a review
+ * of the product is created, edited or deleted. ProductCounters publishes SOLD_COUNT_CHANGED
+ * after writing sold counts, outside any transaction.
+ *
+ * Listeners use it to keep in-memory read models (rankings, indexes, caches) in step with
+ * the database. Listeners should react AFTER_COMMIT so they never observe rolled-back data.
+ */
+public class ProductChangedEvent extends ApplicationEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        STOCK_CHANGED,
+        REVIEWS_CHANGED,
+        SOLD_COUNT_CHANGED
+    }
+
+    private final Long productId;
+    private final ChangeType changeType;
+
+    public ProductChangedEvent(Object source, Long productId, ChangeType changeType) {
+        super(source);
+        this.productId = productId;
+        this.changeType = changeType;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+}
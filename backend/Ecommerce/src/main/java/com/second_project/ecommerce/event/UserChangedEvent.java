@@ -0,0 +1,24 @@
+package com.second_project.ecommerce.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published by UserServiceImpl whenever a user is saved (profile, store details,
+ * role or verification changes).
+ *
+ * Caches holding user-derived data, such as the seller name on cached product details,
+ * use it to drop their copies after the change commits.
+ */
+public class UserChangedEvent extends ApplicationEvent {
+
+    private final Long userId;
+
+    public UserChangedEvent(Object source, Long userId) {
+        super(source);
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,39 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.cart.CartStore;
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.event.UserChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the in-memory carts in line with product and seller changes.
+ *
+ * A status change can come with the product's cart rows being deleted (product delete), so
+ * carts holding it are written and reloaded. Other changes only refresh the product snapshot;
+ * sold counts and reviews are not shown in carts.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartStoreListener {
+
+    private final CartStore cartStore;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getChangeType()) {
+            case STATUS_CHANGED -> cartStore.evictCartsWithProduct(event.getProductId());
+            case SOLD_COUNT_CHANGED, REVIEWS_CHANGED -> { }
+            default -> cartStore.forgetProduct(event.getProductId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cartStore.forgetSeller(event.getUserId());
+    }
+}
@@ -0,0 +1,47 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.cache.CatalogChangeTracker;
+import com.second_project.ecommerce.event.CategoryChangedEvent;
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.event.UserChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bumps the ETag change counters once a catalog change is committed.
+ *
+ * Bumping before commit could hand a client the new tag together with the old data,
+ * which it would then keep revalidating as "not modified".
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogChangeTrackerListener {
+
+    private final CatalogChangeTracker catalogChangeTracker;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogChangeTracker.productChanged(event.getProductId());
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.REVIEWS_CHANGED) {
+            catalogChangeTracker.reviewsChanged(event.getProductId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getChangeType() == CategoryChangedEvent.ChangeType.COUNT_CHANGED) {
+            catalogChangeTracker.categoryCountsChanged();
+        } else {
+            catalogChangeTracker.categoryChanged();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        catalogChangeTracker.userChanged();
+    }
+}
@@ -0,0 +1,32 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.cache.CategorySnapshot;
+import com.second_project.ecommerce.cache.ProductDetailCache;
+import com.second_project.ecommerce.event.CategoryChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Drops the category snapshot when a transaction that changed categories completes (after
+ * rollback as well, which costs one extra reload). Cached product details embed category
+ * names, so they go too, but not for product count changes: product DTOs do not show counts.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategorySnapshotListener {
+
+    private final CategorySnapshot categorySnapshot;
+    private final ProductDetailCache productDetailCache;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categorySnapshot.invalidate();
+        if (event.getChangeType() == CategoryChangedEvent.ChangeType.DETAILS_CHANGED) {
+            productDetailCache.invalidateAll();
+        }
+    }
+}
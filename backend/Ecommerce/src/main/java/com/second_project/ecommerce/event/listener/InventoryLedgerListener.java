@@ -0,0 +1,38 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.service.InventoryReservationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Loads the inventory ledger at startup and queues a product's stock to be re-read whenever a
+ * committed change may have moved products.stock outside the ledger (seller edits, restored
+ * stock, new products).
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryLedgerListener {
+
+    private final InventoryReservationService inventoryReservationService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        inventoryReservationService.load();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getChangeType()) {
+            case CREATED, UPDATED, STOCK_CHANGED -> inventoryReservationService.refreshStock(event.getProductId());
+            default -> {
+            }
+        }
+    }
+}
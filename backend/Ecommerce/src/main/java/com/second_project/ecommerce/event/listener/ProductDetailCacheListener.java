@@ -0,0 +1,35 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.cache.ProductDetailCache;
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.event.UserChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Removes product details from the cache after the change that made them stale commits.
+ *
+ * Entity updates already miss through the version check; this covers stock and sold counts,
+ * rating aggregates written by native queries, and seller name or email changes. It runs
+ * synchronously so the writer's next read already sees fresh data.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductDetailCacheListener {
+
+    private final ProductDetailCache productDetailCache;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productDetailCache.invalidate(event.getProductId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        productDetailCache.invalidateSeller(event.getUserId());
+    }
+}
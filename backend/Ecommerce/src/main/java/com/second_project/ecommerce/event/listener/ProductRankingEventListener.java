@@ -0,0 +1,36 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.service.ProductRankingService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Marks the hot/new ranking snapshots stale when a product changes.
+ *
+ * Runs after commit so the background refresh never reloads rankings before the
+ * order or approval that triggered it is visible. Marking stale is just a flag flip,
+ * so this stays cheap on the request thread.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductRankingEventListener {
+
+    private final ProductRankingService productRankingService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Reviews do not affect sold counts or creation dates
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.REVIEWS_CHANGED) {
+            return;
+        }
+        log.debug("Product {} changed ({}), marking rankings stale", event.getProductId(), event.getChangeType());
+        productRankingService.markStale();
+    }
+}
@@ -0,0 +1,54 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.event.CategoryChangedEvent;
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.search.ProductSearchIndexer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the in-memory product search, facet and suggest indexes in step with the database.
+ *
+ * The full build runs once the application is up; after that each committed product
+ * change re-reads just that product, and each category edit or delete re-reads the products
+ * of that category (their documents carry its name). All of it runs on the async executor
+ * so neither startup nor the request that made the change waits on indexing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndexListener {
+
+    private final ProductSearchIndexer productSearchIndexer;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        log.info("Building product search index");
+        productSearchIndexer.rebuild();
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Stock changes are included: they move soldCount, which weights the suggestions
+        productSearchIndexer.reindex(event.getProductId());
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        // Documents hold category names, not product counts
+        if (event.getChangeType() == CategoryChangedEvent.ChangeType.DETAILS_CHANGED) {
+            productSearchIndexer.reindexCategory(event.getCategoryId());
+        }
+    }
+}
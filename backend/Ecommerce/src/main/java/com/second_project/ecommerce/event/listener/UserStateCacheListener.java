@@ -0,0 +1,26 @@
+package com.second_project.ecommerce.event.listener;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.second_project.ecommerce.event.UserChangedEvent;
+import com.second_project.ecommerce.security.UserStateCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Drops a user's cached role and flags after a change to the user commits, so a demoted,
+ * promoted or newly verified user is seen on their next request.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStateCacheListener {
+
+    private final UserStateCache userStateCache;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userStateCache.invalidate(event.getUserId());
+    }
+}
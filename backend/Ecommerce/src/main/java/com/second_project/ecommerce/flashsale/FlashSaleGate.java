@@ -0,0 +1,247 @@
+package com.second_project.ecommerce.flashsale;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.config.properties.FlashSaleProperties;
+import com.second_project.ecommerce.inventory.InventoryLedger;
+import com.second_project.ecommerce.model.QueueTicketDto;
+
+/**
+ * Virtual waiting room for checkouts of flash-sale products.
+ *
+ * A checkout that touches a flash-sale product needs a token from a bucket sized to what the
+ * database can take; without one the user joins a bounded FIFO queue and polls for their turn.
+ * The head of the queue is admitted as tokens come in, and an admitted user has a short window
+ * to send the checkout. Once the ledger shows a product has no stock left, requests fail before
+ * they queue. Checkouts without flash-sale products never reach the queue.
+ *
+ * Queue state lives in memory, so like InventoryLedger this assumes a single application instance.
+ */
+@Component
+public class FlashSaleGate {
+
+    public enum Outcome { PASS, QUEUED, FULL }
+
+    public record Admission(Outcome outcome, QueueTicketDto ticket) {}
+
+    private static final Admission PASS = new Admission(Outcome.PASS, null);
+    private static final long MIN_RETRY_MS = 500;
+    private static final long MAX_RETRY_MS = 5000;
+
+    private final InventoryLedger ledger;
+    private final FlashSaleProperties properties;
+
+    private volatile Set<Long> productIds;
+    private TokenBucket bucket;
+    private final Map<Long, Ticket> tickets = new HashMap<>();
+    private final ArrayDeque<Ticket> waiting = new ArrayDeque<>();
+    // Admitted tickets in admission order, so also in expiry order
+    private final ArrayDeque<Ticket> admitted = new ArrayDeque<>();
+    private long nextSeq = 0;
+
+    public FlashSaleGate(InventoryLedger ledger, FlashSaleProperties properties) {
+        this.ledger = ledger;
+        this.properties = properties;
+        this.productIds = Set.copyOf(properties.getProductIds());
+        this.bucket = newBucket();
+    }
+
+    /**
+     * Decide whether a user's checkout may run now.
+     *
+     * @param requestedProductIds products in the checkout
+     * @throws IllegalArgumentException if a flash-sale product in the checkout is sold out
+     */
+    public Admission admit(Long userId, Collection<Long> requestedProductIds) {
+        List<Long> saleProductIds = saleProductIds(requestedProductIds);
+        if (saleProductIds.isEmpty()) {
+            return PASS;
+        }
+        if (soldOut(saleProductIds)) {
+            synchronized (this) {
+                drop(tickets.get(userId));
+            }
+            throw new IllegalArgumentException("This flash-sale item is sold out");
+        }
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            pump(now);
+            Ticket ticket = tickets.get(userId);
+            if (ticket == null) {
+                if (waiting.isEmpty() && bucket.tryAcquire()) {
+                    return PASS;
+                }
+                if (waiting.size() >= properties.getQueueCapacity()) {
+                    return new Admission(Outcome.FULL, new QueueTicketDto("FULL", null, retryAfterMs(waiting.size())));
+                }
+                ticket = new Ticket(userId, nextSeq++, saleProductIds);
+                ticket.seenAt = now;
+                tickets.put(userId, ticket);
+                waiting.addLast(ticket);
+                pump(now);
+            }
+            ticket.seenAt = now;
+            if (ticket.admittedUntil > 0) {
+                // The admission is used up by this checkout, whatever its outcome
+                ticket.consumed = true;
+                tickets.remove(userId);
+                return PASS;
+            }
+            return new Admission(Outcome.QUEUED, waitingTicket(ticket));
+        }
+    }
+
+    /**
+     * Where a user stands in the queue; polling also keeps their place.
+     */
+    public synchronized QueueTicketDto poll(Long userId) {
+        long now = System.currentTimeMillis();
+        pump(now);
+        Ticket ticket = tickets.get(userId);
+        if (ticket == null) {
+            return new QueueTicketDto("NONE", null, null);
+        }
+        if (soldOut(ticket.productIds)) {
+            drop(ticket);
+            return new QueueTicketDto("SOLD_OUT", null, null);
+        }
+        ticket.seenAt = now;
+        if (ticket.admittedUntil > 0) {
+            return new QueueTicketDto("ADMITTED", 0L, null);
+        }
+        return waitingTicket(ticket);
+    }
+
+    public boolean isActive() {
+        return !productIds.isEmpty();
+    }
+
+    /**
+     * Put products in flash-sale mode, replacing the previous set. Starts with an empty queue.
+     */
+    public synchronized void start(Collection<Long> newProductIds) {
+        if (newProductIds == null || newProductIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one product id is required");
+        }
+        clear();
+        productIds = Set.copyOf(newProductIds);
+    }
+
+    /**
+     * Leave flash-sale mode; everyone still queued goes straight through on their next request.
+     */
+    public synchronized void stop() {
+        productIds = Set.of();
+        clear();
+    }
+
+    public synchronized Map<String, Object> status() {
+        pump(System.currentTimeMillis());
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("productIds", productIds);
+        status.put("waiting", waiting.size());
+        status.put("admitted", admitted.stream().filter(ticket -> !ticket.consumed).count());
+        status.put("tokens", (int) bucket.available());
+        status.put("permitsPerSecond", properties.getPermitsPerSecond());
+        return status;
+    }
+
+    private List<Long> saleProductIds(Collection<Long> requestedProductIds) {
+        Set<Long> sale = productIds;
+        if (sale.isEmpty() || requestedProductIds == null) {
+            return List.of();
+        }
+        return requestedProductIds.stream().filter(sale::contains).distinct().toList();
+    }
+
+    private boolean soldOut(List<Long> saleProductIds) {
+        for (Long productId : saleProductIds) {
+            Integer available = ledger.available(productId);
+            if (available != null && available <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Drop lapsed admissions, skip abandoned tickets and admit the head while tokens last
+    private void pump(long now) {
+        Ticket head;
+        while ((head = admitted.peekFirst()) != null && (head.consumed || head.admittedUntil < now)) {
+            admitted.pollFirst();
+            tickets.remove(head.userId, head);
+        }
+        long abandonMs = properties.getAbandonAfterSeconds() * 1000L;
+        while ((head = waiting.peekFirst()) != null) {
+            if (head.dropped || head.seenAt + abandonMs < now) {
+                waiting.pollFirst();
+                tickets.remove(head.userId, head);
+                continue;
+            }
+            if (!bucket.tryAcquire()) {
+                break;
+            }
+            waiting.pollFirst();
+            head.admittedUntil = now + properties.getAdmissionTtlSeconds() * 1000L;
+            admitted.addLast(head);
+        }
+    }
+
+    // Removing from the middle of the queue is linear; the ticket is skipped when it reaches the head
+    private void drop(Ticket ticket) {
+        if (ticket != null) {
+            ticket.dropped = true;
+            ticket.consumed = true;
+            tickets.remove(ticket.userId, ticket);
+        }
+    }
+
+    private QueueTicketDto waitingTicket(Ticket ticket) {
+        Ticket head = waiting.peekFirst();
+        long position = head != null ? ticket.seq - head.seq + 1 : 1;
+        return new QueueTicketDto("WAITING", position, retryAfterMs(position));
+    }
+
+    // Roughly when the user's turn comes, but often enough that the admission window is not missed
+    private long retryAfterMs(long position) {
+        long estimate = (long) Math.ceil(position * 1000d / properties.getPermitsPerSecond());
+        long max = Math.min(MAX_RETRY_MS, properties.getAdmissionTtlSeconds() * 500L);
+        return Math.max(MIN_RETRY_MS, Math.min(estimate, max));
+    }
+
+    private void clear() {
+        tickets.clear();
+        waiting.clear();
+        admitted.clear();
+        bucket = newBucket();
+    }
+
+    private TokenBucket newBucket() {
+        return new TokenBucket(properties.getPermitsPerSecond(), properties.getBurst());
+    }
+
+    private static final class Ticket {
+        private final Long userId;
+        private final long seq;
+        private final List<Long> productIds;
+        private long seenAt;
+        private long admittedUntil;
+        private boolean consumed;
+        private boolean dropped;
+
+        private Ticket(Long userId, long seq, List<Long> productIds) {
+            this.userId = userId;
+            this.seq = seq;
+            this.productIds = productIds;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.second_project.ecommerce.inventory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory stock ledger: per product, the stock last written to products.stock plus the
+ * quantities held by open reservations and by committed orders the flush job has not written
+ * yet. Available stock is stock - reserved - committed.
+ *
+ * Products are guarded by a fixed set of lock stripes; an operation over several products
+ * takes their stripes in ascending order, so two orders can never deadlock. Reservation
+ * checks never touch the database once a product's stock is known. Callers that need the
+ * database while holding stripes must take their connection first: request threads hold
+ * theirs while they wait for a stripe (after-commit callbacks), so waiting for a connection
+ * under a stripe can starve the pool.
+ *
+ * The ledger only mirrors state that lives in the database (products.stock and
+ * orders.stock_hold); InventoryReservationServiceImpl rebuilds it from there on startup.
+ * It assumes a single application instance.
+ */
+@Component
+public class InventoryLedger {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<Long, Sku> skus = new ConcurrentHashMap<>();
+    // Open (RESERVED) holds by order id
+    private final Map<Long, Map<Long, Integer>> reservations = new ConcurrentHashMap<>();
+
+    public InventoryLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Hold quantities for an order, all or nothing.
+     *
+     * @param stockLoader gives products.stock for a product the ledger has not seen yet (null if
+     *                    the product does not exist); it runs under the stripes, so it should
+     *                    not touch the database
+     * @return null on success, otherwise the id of the first product without enough stock
+     */
+    public Long reserve(Long orderId, Map<Long, Integer> quantities, Function<Long, Integer> stockLoader) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        lock(sorted.keySet());
+        try {
+            if (reservations.containsKey(orderId)) {
+                throw new IllegalStateException("Order " + orderId + " already holds stock");
+            }
+            for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+                Sku sku = sku(entry.getKey(), stockLoader);
+                if (sku == null || sku.available() < entry.getValue()) {
+                    return entry.getKey();
+                }
+            }
+            sorted.forEach((productId, quantity) -> skus.get(productId).reserved += quantity);
+            reservations.put(orderId, sorted);
+            return null;
+        } finally {
+            unlock(sorted.keySet());
+        }
+    }
+
+    /**
+     * Turn an order's hold into a commitment (counted until the flush writes it).
+     */
+    public boolean commit(Long orderId) {
+        return move(orderId, true);
+    }
+
+    /**
+     * Drop an order's hold, making its quantities available again.
+     */
+    public boolean release(Long orderId) {
+        return move(orderId, false);
+    }
+
+    /**
+     * Committed quantities were written to products.stock by the flush.
+     */
+    public void applied(Map<Long, Integer> quantities) {
+        withLocks(quantities.keySet(), () -> quantities.forEach((productId, quantity) -> {
+            Sku sku = skus.get(productId);
+            if (sku != null) {
+                sku.committed -= quantity;
+                sku.stock = Math.max(sku.stock - quantity, 0);
+            }
+        }));
+    }
+
+    /**
+     * Committed quantities of a cancelled order will never be written: stop counting them.
+     */
+    public void releaseCommitted(Map<Long, Integer> quantities) {
+        withLocks(quantities.keySet(), () -> quantities.forEach((productId, quantity) -> {
+            Sku sku = skus.get(productId);
+            if (sku != null) {
+                sku.committed -= quantity;
+            }
+        }));
+    }
+
+    /**
+     * Re-read products.stock after it was changed outside the ledger (seller edit, restock).
+     * The read happens under the product's stripe, so it cannot interleave with a flush; the
+     * loader should use a connection the caller already holds.
+     */
+    public void refreshStock(Long productId, Function<Long, Integer> stockLoader) {
+        ReentrantLock lock = stripe(productId);
+        lock.lock();
+        try {
+            Integer stock = stockLoader.apply(productId);
+            if (stock == null) {
+                skus.remove(productId);
+            } else {
+                skus.computeIfAbsent(productId, id -> new Sku()).stock = stock;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run an action while holding the stripes of the given products.
+     */
+    public void withLocks(Collection<Long> productIds, Runnable action) {
+        Runnable release = acquire(productIds);
+        try {
+            action.run();
+        } finally {
+            release.run();
+        }
+    }
+
+    /**
+     * Take the stripes of the given products and return the action that gives them back, for
+     * a hold that ends in a transaction callback (the flush keeps them until its write has
+     * committed and applied() has run, so refreshStock() cannot see the write twice).
+     */
+    public Runnable acquire(Collection<Long> productIds) {
+        TreeSet<Long> sorted = new TreeSet<>(productIds);
+        lock(sorted);
+        return () -> unlock(sorted);
+    }
+
+    /**
+     * Replace the whole ledger (startup). Takes every stripe.
+     */
+    public void reset(Map<Long, Integer> stocks,
+                      Map<Long, Map<Long, Integer>> reserved,
+                      Map<Long, Integer> committed) {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+        try {
+            skus.clear();
+            reservations.clear();
+            stocks.forEach((productId, stock) -> skus.computeIfAbsent(productId, id -> new Sku()).stock = stock);
+            reserved.forEach((orderId, quantities) -> {
+                Map<Long, Integer> sorted = new TreeMap<>(quantities);
+                sorted.forEach((productId, quantity) -> skus.computeIfAbsent(productId, id -> new Sku()).reserved += quantity);
+                reservations.put(orderId, sorted);
+            });
+            committed.forEach((productId, quantity) -> skus.computeIfAbsent(productId, id -> new Sku()).committed += quantity);
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Quantities held by an open reservation, or null.
+     */
+    public Map<Long, Integer> reservation(Long orderId) {
+        Map<Long, Integer> quantities = reservations.get(orderId);
+        return quantities != null ? new HashMap<>(quantities) : null;
+    }
+
+    /**
+     * Stock still available for new reservations, or null if the ledger has not seen the product.
+     */
+    public Integer available(Long productId) {
+        ReentrantLock lock = stripe(productId);
+        lock.lock();
+        try {
+            Sku sku = skus.get(productId);
+            return sku != null ? sku.available() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int openReservations() {
+        return reservations.size();
+    }
+
+    private boolean move(Long orderId, boolean toCommitted) {
+        Map<Long, Integer> quantities = reservations.get(orderId);
+        if (quantities == null) {
+            return false;
+        }
+        lock(quantities.keySet());
+        try {
+            if (reservations.remove(orderId) == null) {
+                return false;
+            }
+            quantities.forEach((productId, quantity) -> {
+                Sku sku = skus.get(productId);
+                if (sku != null) {
+                    sku.reserved -= quantity;
+                    if (toCommitted) {
+                        sku.committed += quantity;
+                    }
+                }
+            });
+            return true;
+        } finally {
+            unlock(quantities.keySet());
+        }
+    }
+
+    // Called under the product's stripe
+    private Sku sku(Long productId, Function<Long, Integer> stockLoader) {
+        Sku sku = skus.get(productId);
+        if (sku != null) {
+            return sku;
+        }
+        Integer stock = stockLoader.apply(productId);
+        if (stock == null) {
+            return null;
+        }
+        sku = new Sku();
+        sku.stock = stock;
+        skus.put(productId, sku);
+        return sku;
+    }
+
+    private ReentrantLock stripe(Long productId) {
+        return stripes[Math.floorMod(productId.hashCode(), STRIPES)];
+    }
+
+    // Stripe indexes in ascending order, each once
+    private TreeSet<Integer> stripeIndexes(Collection<Long> productIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long productId : productIds) {
+            indexes.add(Math.floorMod(productId.hashCode(), STRIPES));
+        }
+        return indexes;
+    }
+
+    private void lock(Collection<Long> productIds) {
+        for (int index : stripeIndexes(productIds)) {
+            stripes[index].lock();
+        }
+    }
+
+    private void unlock(Collection<Long> productIds) {
+        for (int index : stripeIndexes(productIds).descendingSet()) {
+            stripes[index].unlock();
+        }
+    }
+
+    private static final class Sku {
+        private int stock;
+        private int reserved;
+        private int committed;
+
+        private int available() {
+            return stock - reserved - committed;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.second_project.ecommerce.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * One edit in a batch cart update (PATCH /api/cart).
+ * ADD takes productId and quantity (added to what the cart already holds),
+ * SET_QUANTITY takes cartItemId and quantity, REMOVE takes cartItemId.
+ */
+@Data
+public class CartOperationDto {
+
+    public enum Type {
+        ADD, SET_QUANTITY, REMOVE
+    }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    private Long productId;
+    private Long cartItemId;
+    private Integer quantity;
+}
@@ -0,0 +1,46 @@
+package com.second_project.ecommerce.model;
+
+/**
+ * One value of a facet with the number of matching products,
+ * e.g. value "samsung", label "Samsung", count 42.
+ * The value is what the client sends back as a filter parameter.
+ */
+public class FacetCountDto {
+
+    private String value;
+    private String label;
+    private long count;
+
+    public FacetCountDto() {}
+
+    public FacetCountDto(String value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,70 @@
+package com.second_project.ecommerce.model;
+
+import com.second_project.ecommerce.entity.Order;
+
+/**
+ * Outcome of one order in a bulk status update.
+ * result is UPDATED, UNCHANGED (already in the target status), REJECTED (transition not
+ * allowed), NOT_FOUND or FAILED (e.g. not enough stock to confirm a lapsed order); message
+ * explains anything but UPDATED.
+ */
+public class OrderStatusResultDto {
+
+    private Long orderId;
+    private String result;
+    private Order.OrderStatus previousStatus;
+    private Order.OrderStatus status;
+    private String message;
+
+    public OrderStatusResultDto() {}
+
+    public OrderStatusResultDto(Long orderId, String result, Order.OrderStatus previousStatus,
+                                Order.OrderStatus status, String message) {
+        this.orderId = orderId;
+        this.result = result;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public Order.OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(Order.OrderStatus previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
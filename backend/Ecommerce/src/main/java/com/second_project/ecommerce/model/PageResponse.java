@@ -15,6 +15,9 @@ public class PageResponse<T> extends ApiResponse<List<T>> {
     private int totalPages;
     private boolean last;
     private boolean first;
+    // Cursor mode only: opaque cursor for the next page (null on the last page)
+    private String nextCursor;
+    private boolean hasNext;
 
     public PageResponse() {}
 
@@ -35,6 +38,25 @@ public class PageResponse<T> extends ApiResponse<List<T>> {
         return new PageResponse<>(true, message, data, pageNumber, pageSize, totalElements, totalPages);
     }
 
+    /**
+     * Cursor (keyset) mode: no total count is computed, so totalElements and totalPages are -1.
+     */
+    public static <T> PageResponse<T> cursor(String message, CursorPage<T> page, int pageSize, boolean first) {
+        PageResponse<T> response = new PageResponse<>();
+        response.setSuccess(true);
+        response.setMessage(message);
+        response.setData(page.getContent());
+        response.pageNumber = 0;
+        response.pageSize = pageSize;
+        response.totalElements = -1;
+        response.totalPages = -1;
+        response.first = first;
+        response.last = !page.isHasNext();
+        response.nextCursor = page.getNextCursor();
+        response.hasNext = page.isHasNext();
+        return response;
+    }
+
     public static <T> PageResponse<T> of(Page<T> page, String message) {
         return new PageResponse<>(
             true,
@@ -95,4 +117,20 @@ public class PageResponse<T> extends ApiResponse<List<T>> {
     public void setFirst(boolean first) {
         this.first = first;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
 }
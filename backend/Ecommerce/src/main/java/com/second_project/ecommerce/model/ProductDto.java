@@ -54,6 +54,8 @@ public class ProductDto {
     @Min(value = 0, message = "Số lượng đã bán phải lớn hơn hoặc bằng 0")
     private Integer soldCount;
 
+    private Long viewCount;
+
     private List<String> images;
 
     private Boolean isFeatured;
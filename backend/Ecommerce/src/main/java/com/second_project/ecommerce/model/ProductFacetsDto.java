@@ -0,0 +1,63 @@
+package com.second_project.ecommerce.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Facet counts for the filter sidebar.
+ *
+ * Each facet is counted with every other selected filter applied but not its own,
+ * so selecting one brand still shows how many products the other brands would add.
+ * Ratings are cumulative ("4 stars and up").
+ */
+public class ProductFacetsDto {
+
+    private long total;
+    private List<FacetCountDto> brands = new ArrayList<>();
+    private List<FacetCountDto> categories = new ArrayList<>();
+    private List<FacetCountDto> priceRanges = new ArrayList<>();
+    private List<FacetCountDto> ratings = new ArrayList<>();
+
+    public ProductFacetsDto() {}
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<FacetCountDto> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(List<FacetCountDto> brands) {
+        this.brands = brands;
+    }
+
+    public List<FacetCountDto> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<FacetCountDto> categories) {
+        this.categories = categories;
+    }
+
+    public List<FacetCountDto> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public void setPriceRanges(List<FacetCountDto> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+
+    public List<FacetCountDto> getRatings() {
+        return ratings;
+    }
+
+    public void setRatings(List<FacetCountDto> ratings) {
+        this.ratings = ratings;
+    }
+}
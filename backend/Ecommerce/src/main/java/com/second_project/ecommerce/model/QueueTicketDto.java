@@ -0,0 +1,46 @@
+package com.second_project.ecommerce.model;
+
+/**
+ * A user's place in the flash-sale checkout queue.
+ * status is WAITING (poll again after retryAfterMs), ADMITTED (send the checkout now),
+ * SOLD_OUT or NONE (not queued).
+ */
+public class QueueTicketDto {
+
+    private String status;
+    private Long position;
+    private Long retryAfterMs;
+
+    public QueueTicketDto() {}
+
+    public QueueTicketDto(String status, Long position, Long retryAfterMs) {
+        this.status = status;
+        this.position = position;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public Long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    public void setRetryAfterMs(Long retryAfterMs) {
+        this.retryAfterMs = retryAfterMs;
+    }
+}
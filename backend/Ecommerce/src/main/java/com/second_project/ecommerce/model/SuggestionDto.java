@@ -0,0 +1,64 @@
+package com.second_project.ecommerce.model;
+
+/**
+ * One autocomplete suggestion for the search box.
+ *
+ * For PRODUCT suggestions that match exactly one product, productId and slug are set so
+ * the client can link straight to the product page; otherwise the text is meant to be
+ * used as a search keyword.
+ */
+public class SuggestionDto {
+
+    public enum Type {
+        PRODUCT,
+        BRAND,
+        CATEGORY
+    }
+
+    private String text;
+    private Type type;
+    private Long productId;
+    private String slug;
+
+    public SuggestionDto() {}
+
+    public SuggestionDto(String text, Type type, Long productId, String slug) {
+        this.text = text;
+        this.type = type;
+        this.productId = productId;
+        this.slug = slug;
+    }
+
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+}
@@ -0,0 +1,52 @@
+package com.second_project.ecommerce.outbox;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.second_project.ecommerce.config.properties.FrontendProperties;
+import com.second_project.ecommerce.entity.OutboxEvent;
+import com.second_project.ecommerce.service.EmailService;
+
+/**
+ * Sends the order confirmation email after checkout. A retry after a failure in a later
+ * handler can send the same email twice; that is preferred over losing it.
+ */
+@Component
+public class OrderConfirmationEmailHandler implements OutboxHandler {
+
+    private final EmailService emailService;
+    private final FrontendProperties frontendProperties;
+    private final ObjectMapper objectMapper;
+
+    public OrderConfirmationEmailHandler(EmailService emailService,
+                                         FrontendProperties frontendProperties,
+                                         ObjectMapper objectMapper) {
+        this.emailService = emailService;
+        this.frontendProperties = frontendProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String eventType() {
+        return OrderPlacedPayload.TYPE;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        OrderPlacedPayload order = objectMapper.readValue(event.getPayload(), OrderPlacedPayload.class);
+        if (order.email() == null) {
+            return;
+        }
+        String total = NumberFormat.getInstance(Locale.forLanguageTag("vi-VN")).format(order.totalAmount()) + " ₫";
+        String subject = "Xác nhận đơn hàng " + order.orderNumber() + " - Order Confirmation";
+        String body = "Cảm ơn bạn đã đặt hàng!\n\n"
+                + "Mã đơn hàng: " + order.orderNumber() + "\n"
+                + "Tổng tiền: " + total + "\n"
+                + "Phương thức thanh toán: " + order.paymentMethod() + "\n\n"
+                + "Xem đơn hàng: " + frontendProperties.getBaseUrl() + "/orders/" + order.orderId();
+        emailService.sendVerificationEmail(order.email(), subject, body);
+    }
+}
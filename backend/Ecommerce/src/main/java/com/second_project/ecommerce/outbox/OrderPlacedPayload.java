@@ -0,0 +1,16 @@
+package com.second_project.ecommerce.outbox;
+
+import java.math.BigDecimal;
+
+/**
+ * Payload of the ORDER_PLACED outbox event, written by checkout.
+ */
+public record OrderPlacedPayload(Long orderId,
+                                 String orderNumber,
+                                 Long userId,
+                                 String email,
+                                 BigDecimal totalAmount,
+                                 String paymentMethod) {
+
+    public static final String TYPE = "ORDER_PLACED";
+}
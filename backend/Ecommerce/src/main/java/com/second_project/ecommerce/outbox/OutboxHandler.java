@@ -0,0 +1,23 @@
+package com.second_project.ecommerce.outbox;
+
+import com.second_project.ecommerce.entity.OutboxEvent;
+
+/**
+ * In-process consumer of outbox events. Spring beans implementing this are picked up by
+ * OutboxRelay.
+ *
+ * Delivery is at least once: after a crash, or when another handler of the same event fails,
+ * an event is handed over again. Handlers must tolerate seeing it twice.
+ */
+public interface OutboxHandler {
+
+    /**
+     * The event type handled, e.g. OrderPlacedPayload.TYPE.
+     */
+    String eventType();
+
+    /**
+     * Throwing schedules a retry of the event with backoff.
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,223 @@
+package com.second_project.ecommerce.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.second_project.ecommerce.config.properties.OutboxProperties;
+import com.second_project.ecommerce.entity.OutboxEvent;
+import com.second_project.ecommerce.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers outbox events to their OutboxHandlers.
+ *
+ * Each run reads a batch of due events, runs the handlers on a fixed pool (bounded queue; when
+ * it is full the relay thread runs the handler itself, which slows reading down instead of
+ * piling up work) and then records the outcome: DONE once every handler of the event
+ * succeeded, otherwise another attempt after an exponential backoff, and FAILED after
+ * app.outbox.max-attempts. An event is only marked DONE after its handlers ran, so a crash in
+ * between delivers it again.
+ *
+ * Metrics: outbox.pending, outbox.lag.seconds (age of the oldest undelivered event),
+ * outbox.delivered, outbox.retries and outbox.failed.
+ *
+ * Runs are serialized; like the other in-memory jobs this assumes a single application instance.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transaction;
+    private final Map<String, List<OutboxHandler>> handlersByType = new HashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong pending = new AtomicLong();
+    // createdAt of the oldest undelivered event (epoch millis), 0 if there is none
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final Counter deliveredCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxHandler> handlers,
+                       OutboxProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        for (OutboxHandler handler : handlers) {
+            handlersByType.computeIfAbsent(handler.eventType(), type -> new ArrayList<>()).add(handler);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getBatchSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events not delivered yet")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", this, OutboxRelay::lagSeconds)
+                .description("Age of the oldest outbox event not delivered yet")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("outbox.delivered")
+                .description("Outbox events delivered to all their handlers")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("outbox.retries")
+                .description("Outbox delivery attempts that failed and were rescheduled")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.failed")
+                .description("Outbox events given up after the maximum number of attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deliver one batch of due events. Returns the number delivered.
+     */
+    public synchronized int relay() {
+        List<OutboxEvent> due = transaction.execute(status -> outboxEventRepository.findDue(
+                LocalDateTime.now(), PageRequest.of(0, properties.getBatchSize())));
+        int delivered = 0;
+        if (due != null && !due.isEmpty()) {
+            Map<OutboxEvent, Future<?>> running = new LinkedHashMap<>();
+            for (OutboxEvent event : due) {
+                running.put(event, executor.submit(() -> {
+                    dispatch(event);
+                    return null;
+                }));
+            }
+
+            List<Long> doneIds = new ArrayList<>();
+            Map<OutboxEvent, Throwable> failures = new LinkedHashMap<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(properties.getHandlerTimeoutSeconds());
+            for (Map.Entry<OutboxEvent, Future<?>> entry : running.entrySet()) {
+                try {
+                    entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    doneIds.add(entry.getKey().getId());
+                } catch (ExecutionException e) {
+                    failures.put(entry.getKey(), e.getCause());
+                } catch (TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    failures.put(entry.getKey(), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    // Not recorded: still PENDING, so delivered again on the next run
+                    break;
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            transaction.executeWithoutResult(status -> {
+                if (!doneIds.isEmpty()) {
+                    outboxEventRepository.markDone(doneIds, now);
+                }
+                failures.forEach((event, error) -> recordFailure(event, error, now));
+            });
+            delivered = doneIds.size();
+            deliveredCounter.increment(delivered);
+        }
+        refreshBacklog();
+        return delivered;
+    }
+
+    /**
+     * Delete delivered events older than the retention period. Returns the number deleted.
+     */
+    public int purgeDelivered() {
+        Integer deleted = transaction.execute(status -> outboxEventRepository.deleteDoneBefore(
+                LocalDateTime.now().minusDays(properties.getRetentionDays())));
+        return deleted != null ? deleted : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void dispatch(OutboxEvent event) throws Exception {
+        List<OutboxHandler> handlers = handlersByType.getOrDefault(event.getEventType(), List.of());
+        if (handlers.isEmpty()) {
+            log.debug("No handler for outbox event type {}, marking event {} done", event.getEventType(), event.getId());
+        }
+        for (OutboxHandler handler : handlers) {
+            handler.handle(event);
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, Throwable error, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (attempts >= properties.getMaxAttempts()) {
+            outboxEventRepository.markAttemptFailed(event.getId(), OutboxEvent.Status.FAILED, attempts, now, message);
+            failedCounter.increment();
+            log.error("Outbox event {} ({}) failed after {} attempts: {}", event.getId(), event.getEventType(), attempts, message);
+        } else {
+            outboxEventRepository.markAttemptFailed(event.getId(), OutboxEvent.Status.PENDING, attempts,
+                    now.plus(backoff(attempts)), message);
+            retryCounter.increment();
+            log.warn("Outbox event {} ({}) failed, attempt {}: {}", event.getId(), event.getEventType(), attempts, message);
+        }
+    }
+
+    // base * 2^(attempts - 1), capped, with up to 20% jitter so failed events do not retry in lockstep
+    private Duration backoff(int attempts) {
+        long seconds = (long) properties.getBackoffBaseSeconds() << Math.min(attempts - 1, 20);
+        seconds = Math.min(seconds, properties.getBackoffMaxSeconds());
+        long jitterMillis = ThreadLocalRandom.current().nextLong(seconds * 200 + 1);
+        return Duration.ofSeconds(seconds).plusMillis(jitterMillis);
+    }
+
+    private void refreshBacklog() {
+        List<Object[]> rows = transaction.execute(status -> outboxEventRepository.findPendingBacklog());
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        Object[] row = rows.get(0);
+        pending.set(((Number) row[0]).longValue());
+        LocalDateTime oldest = (LocalDateTime) row[1];
+        oldestPendingMillis.set(oldest == null ? 0
+                : oldest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private double lagSeconds() {
+        long oldest = oldestPendingMillis.get();
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest) / 1000d;
+    }
+}
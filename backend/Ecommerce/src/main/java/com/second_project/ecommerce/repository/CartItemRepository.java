@@ -19,6 +19,14 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     void deleteByCartId(Long cartId);
     
     List<CartItem> findByProductId(Long productId);
+
+    // Ids only, no entities: used to route a checkout before any order work starts
+    @Query("SELECT DISTINCT ci.product.id FROM CartItem ci WHERE ci.cart.user.userId = :userId")
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
+    // Cart badge: a count over cart_items and carts only
+    @Query("SELECT COUNT(ci) FROM CartItem ci WHERE ci.cart.user.userId = :userId")
+    long countByUserId(@Param("userId") Long userId);
     
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.product.id = :productId")
@@ -3,6 +3,8 @@ package com.second_project.ecommerce.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.second_project.ecommerce.entity.Cart;
@@ -16,5 +18,9 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
     
     boolean existsByUserId(Long userId);
+
+    // Cart and its item rows in one query; products stay lazy (only their ids are read)
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.user.userId = :userId")
+    Optional<Cart> findWithItemsByUserId(@Param("userId") Long userId);
 }
 
@@ -1,9 +1,11 @@
 package com.second_project.ecommerce.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -27,11 +29,32 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     boolean existsBySlug(String slug);
     
-    /**
-     * Count products in a category (including all products, not just approved ones).
-     * Uses the join table to count efficiently without loading products.
-     */
-    @Query("SELECT COUNT(p) FROM Product p JOIN p.categories c WHERE c.id = :categoryId")
-    Long countProductsByCategoryId(@Param("categoryId") Long categoryId);
+    // Product counts: delta updates applied in the same transaction as the product write.
+    // Native SQL because productCount is mapped updatable = false.
+    @Modifying
+    @Query(value = "UPDATE categories SET product_count = GREATEST(product_count + :delta, 0) " +
+           "WHERE id IN :categoryIds", nativeQuery = true)
+    int adjustProductCount(@Param("categoryIds") Collection<Long> categoryIds, @Param("delta") int delta);
+    
+    // Categories an approved product currently counts towards (read before changing it)
+    @Query(value = "SELECT pc.category_id FROM product_category pc JOIN products p ON p.id = pc.product_id " +
+           "WHERE pc.product_id = :productId AND p.status = 'APPROVED'", nativeQuery = true)
+    List<Long> findCountedCategoryIds(@Param("productId") Long productId);
+    
+    // Recount a single category
+    @Modifying
+    @Query(value = "UPDATE categories c SET c.product_count = (" +
+           "SELECT COUNT(*) FROM product_category pc JOIN products p ON p.id = pc.product_id " +
+           "WHERE pc.category_id = c.id AND p.status = 'APPROVED') WHERE c.id = :categoryId", nativeQuery = true)
+    int rebuildProductCount(@Param("categoryId") Long categoryId);
+    
+    // Recount job: recompute every category's product count from the join table.
+    // Returns the number of rows whose values actually changed (MySQL reports changed rows only).
+    @Modifying
+    @Query(value = "UPDATE categories c LEFT JOIN (" +
+           "SELECT pc.category_id, COUNT(*) AS cnt FROM product_category pc " +
+           "JOIN products p ON p.id = pc.product_id WHERE p.status = 'APPROVED' " +
+           "GROUP BY pc.category_id) x ON x.category_id = c.id " +
+           "SET c.product_count = COALESCE(x.cnt, 0)", nativeQuery = true)
+    int rebuildProductCounts();
 }
-
@@ -1,15 +1,25 @@
 package com.second_project.ecommerce.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import com.second_project.ecommerce.entity.Order;
 import com.second_project.ecommerce.entity.Order.OrderStatus;
 import com.second_project.ecommerce.entity.User;
@@ -31,6 +41,11 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     Page<Order> findAllByOrderByOrderDateDesc(Pageable pageable);
     
+    // Keyset (cursor) pagination on (createdAt, id), no COUNT query
+    Window<Order> findByUser(User user, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Order> findByIdNotNull(ScrollPosition position, Sort sort, Limit limit);
+    
     @Query("SELECT o FROM Order o JOIN o.items oi WHERE oi.product.seller.id = :sellerId")
     Page<Order> findOrdersBySellerId(@Param("sellerId") Long sellerId, Pageable pageable);
     
@@ -67,5 +82,93 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT DISTINCT o.shippingAddress FROM Order o WHERE o.user.userId = :userId ORDER BY o.orderDate DESC")
     List<String> findDistinctShippingAddressesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Inventory reservations (InventoryReservationService). Native SQL because the stock hold
+    // columns are mapped updatable = false; every transition is conditional on the current
+    // state, so payment, cancellation, expiry and the flush job cannot act on the same hold twice.
+    @Modifying
+    @Query(value = "UPDATE orders SET stock_hold = :hold, stock_hold_expires_at = :expiresAt WHERE id = :orderId",
+           nativeQuery = true)
+    int setStockHold(@Param("orderId") Long orderId, @Param("hold") String hold,
+                     @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query(value = "UPDATE orders SET stock_hold = :to, stock_hold_expires_at = NULL " +
+           "WHERE id = :orderId AND stock_hold = :from", nativeQuery = true)
+    int transitionStockHold(@Param("orderId") Long orderId, @Param("from") String from, @Param("to") String to);
+    
+    // Flushed: the quantities are now part of products.stock
+    @Modifying
+    @Query(value = "UPDATE orders SET stock_hold = NULL, stock_hold_expires_at = NULL " +
+           "WHERE id = :orderId AND stock_hold = :from", nativeQuery = true)
+    int clearStockHold(@Param("orderId") Long orderId, @Param("from") String from);
+    
+    // Cancelling an order whose stock was already taken from products.stock
+    @Modifying
+    @Query(value = "UPDATE orders SET stock_hold = :to WHERE id = :orderId AND stock_hold IS NULL", nativeQuery = true)
+    int transitionAppliedStockHold(@Param("orderId") Long orderId, @Param("to") String to);
+    
+    // Bulk forms of the two transitions above for batch cancellation. The count says whether every
+    // order moved; if not, findIdsByIdInAndStockHold tells which ones this transaction moved.
+    @Modifying
+    @Query(value = "UPDATE orders SET stock_hold = :to, stock_hold_expires_at = NULL " +
+           "WHERE id IN (:orderIds) AND stock_hold = :from", nativeQuery = true)
+    int transitionStockHolds(@Param("orderIds") Collection<Long> orderIds,
+                             @Param("from") String from,
+                             @Param("to") String to);
+    
+    @Modifying
+    @Query(value = "UPDATE orders SET stock_hold = :to WHERE id IN (:orderIds) AND stock_hold IS NULL", nativeQuery = true)
+    int transitionAppliedStockHolds(@Param("orderIds") Collection<Long> orderIds, @Param("to") String to);
+    
+    @Query(value = "SELECT id FROM orders WHERE id IN (:orderIds) AND stock_hold = :hold", nativeQuery = true)
+    List<Long> findIdsByIdInAndStockHold(@Param("orderIds") Collection<Long> orderIds, @Param("hold") String hold);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.stockHold = :hold ORDER BY o.id")
+    List<Long> findIdsByStockHold(@Param("hold") Order.StockHold hold, Pageable pageable);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.stockHold = :hold AND o.stockHoldExpiresAt < :now ORDER BY o.id")
+    List<Long> findIdsByStockHoldExpiredBefore(@Param("hold") Order.StockHold hold,
+                                               @Param("now") LocalDateTime now,
+                                               Pageable pageable);
+    
+    // Unpaid QR orders placed before the cutoff, in (order_date, id) order after the given position.
+    // Range scan on idx_order_status_date. Returns [orderId, orderDate] rows.
+    @Query(value = "SELECT o.id, o.order_date FROM orders o JOIN payments p ON p.order_id = o.id " +
+           "WHERE o.order_status = 'PENDING' AND o.order_date < :cutoff " +
+           "AND (o.order_date > :afterDate OR (o.order_date = :afterDate AND o.id > :afterId)) " +
+           "AND p.payment_method = 'QR' AND p.payment_status = 'PENDING' " +
+           "ORDER BY o.order_date, o.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findUnpaidQrOrdersBefore(@Param("cutoff") LocalDateTime cutoff,
+                                            @Param("afterDate") LocalDateTime afterDate,
+                                            @Param("afterId") Long afterId,
+                                            @Param("limit") int limit);
+    
+    // Locks the orders that are still pending and unpaid, so a concurrent status change waits.
+    // Status changes lock orders in id order, so two batches cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o JOIN FETCH o.payment p WHERE o.id IN :orderIds " +
+           "AND o.orderStatus = com.second_project.ecommerce.entity.Order.OrderStatus.PENDING " +
+           "AND p.paymentStatus = com.second_project.ecommerce.entity.Payment.PaymentStatus.PENDING " +
+           "ORDER BY o.id")
+    List<Order> findUnpaidForUpdate(@Param("orderIds") Collection<Long> orderIds);
+    
+    // Status changes: locks the orders (in id order) so the expiry job and other status
+    // changes wait instead of overwriting each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :orderIds ORDER BY o.id")
+    List<Order> findAllByIdForUpdate(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
+    
+    // Returns [orderId, stockHold, stockHoldExpiresAt, productId, quantity] rows for the ledger rebuild
+    @Query("SELECT o.id, o.stockHold, o.stockHoldExpiresAt, i.product.id, i.quantity FROM Order o JOIN o.items i " +
+           "WHERE o.stockHold IN :holds")
+    List<Object[]> findStockHoldItems(@Param("holds") Collection<Order.StockHold> holds);
+    
+    // Returns [orderId, productId, quantity] rows
+    @Query("SELECT i.order.id, i.product.id, i.quantity FROM OrderItem i WHERE i.order.id IN :orderIds")
+    List<Object[]> findItemQuantitiesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
-
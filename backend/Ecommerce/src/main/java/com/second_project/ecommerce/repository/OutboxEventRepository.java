@@ -0,0 +1,46 @@
+package com.second_project.ecommerce.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.second_project.ecommerce.entity.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = com.second_project.ecommerce.entity.OutboxEvent.Status.PENDING " +
+           "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.second_project.ecommerce.entity.OutboxEvent.Status.DONE, " +
+           "e.processedAt = :now WHERE e.id IN :ids")
+    int markDone(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :lastError WHERE e.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") OutboxEvent.Status status,
+                          @Param("attempts") int attempts,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("lastError") String lastError);
+
+    // Returns [count, oldest createdAt] of the events not delivered yet
+    @Query("SELECT COUNT(e), MIN(e.createdAt) FROM OutboxEvent e " +
+           "WHERE e.status = com.second_project.ecommerce.entity.OutboxEvent.Status.PENDING")
+    List<Object[]> findPendingBacklog();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.second_project.ecommerce.entity.OutboxEvent.Status.DONE " +
+           "AND e.processedAt < :before")
+    int deleteDoneBefore(@Param("before") LocalDateTime before);
+}
@@ -1,11 +1,18 @@
 package com.second_project.ecommerce.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,8 +28,21 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     Optional<Product> findBySlug(String slug);
     
+    // Cheap lookups for the product detail cache: version check and slug resolution
+    @Query("SELECT COALESCE(p.version, 0) FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.slug = :slug")
+    Optional<Long> findIdBySlug(@Param("slug") String slug);
+    
     Page<Product> findByStatus(ProductStatus status, Pageable pageable);
     
+    // Keyset (cursor) pagination: Spring Data derives the seek predicate from the ScrollPosition, no COUNT query
+    Window<Product> findByStatus(ProductStatus status, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Product> findByCategoriesIdAndStatus(Long categoryId, ProductStatus status,
+                                                ScrollPosition position, Sort sort, Limit limit);
+    
     Page<Product> findBySeller(User seller, Pageable pageable);
     
     Page<Product> findBySellerId(Long sellerId, Pageable pageable);
@@ -81,6 +101,149 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT c.id FROM Product p JOIN p.categories c WHERE p.id = :productId")
     List<Long> findCategoryIdsByProductId(@Param("productId") Long productId);
     
+    // Batch version of the seller lookup: returns [productId, seller] pairs for a whole page of products
+    @Query("SELECT p.id, s FROM Product p JOIN p.seller s WHERE p.id IN :productIds")
+    List<Object[]> findSellersByProductIds(@Param("productIds") Collection<Long> productIds);
+    
+    // Batch version of the category lookup: returns [productId, categoryId] pairs for a whole page of products
+    @Query("SELECT p.id, c.id FROM Product p JOIN p.categories c WHERE p.id IN :productIds")
+    List<Object[]> findCategoryIdsByProductIds(@Param("productIds") Collection<Long> productIds);
+    
+    // Products to reindex after a category is renamed
+    @Query("SELECT p.id FROM Product p JOIN p.categories c WHERE c.id = :categoryId AND p.status = :status")
+    List<Long> findIdsByCategoryIdAndStatus(@Param("categoryId") Long categoryId,
+                                            @Param("status") ProductStatus status);
+    
+    // Categories for the search and facet indexes: returns [productId, categoryId, categoryName] rows
+    @Query("SELECT p.id, c.id, c.name FROM Product p JOIN p.categories c WHERE p.id IN :productIds")
+    List<Object[]> findCategoryIdAndNamesByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Products with their sellers, for rendering carts
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.seller WHERE p.id IN :productIds")
+    List<Product> findAllWithSellerByIdIn(@Param("productIds") Collection<Long> productIds);
+    
+    // Inventory: conditional decrement in a single statement, so concurrent writers cannot
+    // oversell or lose an update (the reservation ledger flush writes committed quantities
+    // with it). Returns 0 when the product is missing or has too little stock.
+    // The version bump makes a concurrent entity save of the same product fail instead of
+    // writing back the stock it read earlier. sold_count goes through ProductCounters.
+    @Modifying
+    @Query(value = "UPDATE products SET stock = stock - :quantity, " +
+           "version = COALESCE(version, 0) + 1 " +
+           "WHERE id = :productId AND stock >= :quantity", nativeQuery = true)
+    int decrementStockIfAvailable(@Param("productId") Long productId, @Param("quantity") int quantity);
+    
+    // Stock restore (order cancelled)
+    @Modifying
+    @Query(value = "UPDATE products SET stock = stock + :quantity, " +
+           "version = COALESCE(version, 0) + 1 " +
+           "WHERE id = :productId", nativeQuery = true)
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+    
+    // Reservation ledger flush, when decrementStockIfAvailable found too little stock because a
+    // seller lowered it below the committed quantities: take what is left (the caller reports it).
+    @Modifying
+    @Query(value = "UPDATE products SET stock = GREATEST(stock - :quantity, 0), " +
+           "version = COALESCE(version, 0) + 1 WHERE id = :productId", nativeQuery = true)
+    int applyCommittedStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+    
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :productId")
+    Optional<Integer> findStockById(@Param("productId") Long productId);
+    
+    // Returns [productId, stock] rows for the reservation ledger
+    @Query("SELECT p.id, p.stock FROM Product p")
+    List<Object[]> findAllStocks();
+    
+    // Rating aggregates: atomic delta updates applied in the same transaction as the review write.
+    // Native SQL because the aggregate columns are mapped updatable = false.
+    @Modifying
+    @Query(value = "UPDATE products SET rating_sum = rating_sum + :rating, rating_count = rating_count + 1, " +
+           "review_count = review_count + 1, " +
+           "one_star_count = one_star_count + (CASE WHEN :rating = 1 THEN 1 ELSE 0 END), " +
+           "two_star_count = two_star_count + (CASE WHEN :rating = 2 THEN 1 ELSE 0 END), " +
+           "three_star_count = three_star_count + (CASE WHEN :rating = 3 THEN 1 ELSE 0 END), " +
+           "four_star_count = four_star_count + (CASE WHEN :rating = 4 THEN 1 ELSE 0 END), " +
+           "five_star_count = five_star_count + (CASE WHEN :rating = 5 THEN 1 ELSE 0 END) " +
+           "WHERE id = :productId", nativeQuery = true)
+    int applyReviewAdded(@Param("productId") Long productId, @Param("rating") int rating);
+    
+    @Modifying
+    @Query(value = "UPDATE products SET rating_sum = rating_sum - :rating, rating_count = rating_count - 1, " +
+           "review_count = review_count - 1, " +
+           "one_star_count = one_star_count - (CASE WHEN :rating = 1 THEN 1 ELSE 0 END), " +
+           "two_star_count = two_star_count - (CASE WHEN :rating = 2 THEN 1 ELSE 0 END), " +
+           "three_star_count = three_star_count - (CASE WHEN :rating = 3 THEN 1 ELSE 0 END), " +
+           "four_star_count = four_star_count - (CASE WHEN :rating = 4 THEN 1 ELSE 0 END), " +
+           "five_star_count = five_star_count - (CASE WHEN :rating = 5 THEN 1 ELSE 0 END) " +
+           "WHERE id = :productId", nativeQuery = true)
+    int applyReviewRemoved(@Param("productId") Long productId, @Param("rating") int rating);
+    
+    @Modifying
+    @Query(value = "UPDATE products SET rating_sum = rating_sum + :newRating - :oldRating, " +
+           "one_star_count = one_star_count + (CASE WHEN :newRating = 1 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 1 THEN 1 ELSE 0 END), " +
+           "two_star_count = two_star_count + (CASE WHEN :newRating = 2 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 2 THEN 1 ELSE 0 END), " +
+           "three_star_count = three_star_count + (CASE WHEN :newRating = 3 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 3 THEN 1 ELSE 0 END), " +
+           "four_star_count = four_star_count + (CASE WHEN :newRating = 4 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 4 THEN 1 ELSE 0 END), " +
+           "five_star_count = five_star_count + (CASE WHEN :newRating = 5 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 5 THEN 1 ELSE 0 END) " +
+           "WHERE id = :productId", nativeQuery = true)
+    int applyReviewRatingChanged(@Param("productId") Long productId,
+                                 @Param("oldRating") int oldRating,
+                                 @Param("newRating") int newRating);
+    
+    // A legacy review without a rating gets one: it was already counted in review_count
+    @Modifying
+    @Query(value = "UPDATE products SET rating_sum = rating_sum + :rating, rating_count = rating_count + 1, " +
+           "one_star_count = one_star_count + (CASE WHEN :rating = 1 THEN 1 ELSE 0 END), " +
+           "two_star_count = two_star_count + (CASE WHEN :rating = 2 THEN 1 ELSE 0 END), " +
+           "three_star_count = three_star_count + (CASE WHEN :rating = 3 THEN 1 ELSE 0 END), " +
+           "four_star_count = four_star_count + (CASE WHEN :rating = 4 THEN 1 ELSE 0 END), " +
+           "five_star_count = five_star_count + (CASE WHEN :rating = 5 THEN 1 ELSE 0 END) " +
+           "WHERE id = :productId", nativeQuery = true)
+    int applyReviewRated(@Param("productId") Long productId, @Param("rating") int rating);
+    
+    // A legacy review without a rating is deleted: only review_count moves
+    @Modifying
+    @Query(value = "UPDATE products SET review_count = review_count - 1 WHERE id = :productId", nativeQuery = true)
+    int applyUnratedReviewRemoved(@Param("productId") Long productId);
+    
+    // Repair job: recompute every product's rating aggregates from the reviews table.
+    // Returns the number of rows whose values actually changed (MySQL reports changed rows only).
+    @Modifying
+    @Query(value = "UPDATE products p LEFT JOIN (" +
+           "SELECT product_id, COUNT(*) AS review_cnt, COUNT(rating) AS rating_cnt, COALESCE(SUM(rating), 0) AS rating_total, " +
+           "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) AS s1, SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) AS s2, " +
+           "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) AS s3, SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) AS s4, " +
+           "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) AS s5 " +
+           "FROM reviews GROUP BY product_id) r ON r.product_id = p.id " +
+           "SET p.rating_sum = COALESCE(r.rating_total, 0), p.rating_count = COALESCE(r.rating_cnt, 0), " +
+           "p.review_count = COALESCE(r.review_cnt, 0), " +
+           "p.one_star_count = COALESCE(r.s1, 0), p.two_star_count = COALESCE(r.s2, 0), " +
+           "p.three_star_count = COALESCE(r.s3, 0), p.four_star_count = COALESCE(r.s4, 0), " +
+           "p.five_star_count = COALESCE(r.s5, 0)", nativeQuery = true)
+    int rebuildRatingAggregates();
+    
+    // Top-K rankings (hot = best selling, new = most recent); served by idx_product_status_sold / idx_product_status_created
+    @Query("SELECT p FROM Product p WHERE p.status = :status ORDER BY p.soldCount DESC, p.id DESC")
+    List<Product> findTopSelling(@Param("status") ProductStatus status, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p JOIN p.categories c WHERE c.id = :categoryId AND p.status = :status " +
+           "ORDER BY p.soldCount DESC, p.id DESC")
+    List<Product> findTopSellingByCategoryId(@Param("categoryId") Long categoryId,
+                                             @Param("status") ProductStatus status,
+                                             Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.createdAt > :since ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findNewest(@Param("status") ProductStatus status,
+                             @Param("since") LocalDateTime since,
+                             Pageable pageable);
+    
+    @Query("SELECT p FROM Product p JOIN p.categories c WHERE c.id = :categoryId AND p.status = :status " +
+           "AND p.createdAt > :since ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findNewestByCategoryId(@Param("categoryId") Long categoryId,
+                                         @Param("status") ProductStatus status,
+                                         @Param("since") LocalDateTime since,
+                                         Pageable pageable);
+    
     @Query("SELECT p FROM Product p WHERE p.seller.userId = :sellerId ORDER BY p.soldCount DESC")
     Page<Product> findTopSellingProductsBySellerId(@Param("sellerId") Long sellerId, Pageable pageable);
     
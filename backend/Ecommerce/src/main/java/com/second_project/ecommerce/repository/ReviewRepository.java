@@ -2,8 +2,12 @@ package com.second_project.ecommerce.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -46,6 +50,21 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     Page<Review> findByProductIdAndRating(Long productId, Integer rating, Pageable pageable);
     
+    /**
+     * Keyset (cursor) pagination variants: seek on (createdAt, id) instead of OFFSET,
+     * without a COUNT query. Served by idx_review_created (product_id, createdAt).
+     * 
+     * @param position Position after the last review of the previous page
+     * @param sort Sort including the id tie-breaker
+     * @param limit Page size
+     * @return Window of reviews
+     */
+    Window<Review> findByProductId(Long productId, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Review> findByProductIdAndRating(Long productId, Integer rating, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Review> findByUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
+    
     /**
      * Check if user has already reviewed a product.
      * 
@@ -1,10 +1,13 @@
 package com.second_project.ecommerce.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.second_project.ecommerce.entity.User;
@@ -16,6 +19,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     Optional<User> findByEmailIgnoreCase(String email);
+
+    // Authorization state only: returns [role, isVerified, isSellerApproved], empty if the user is gone
+    @Query("SELECT u.role, u.isVerified, u.isSellerApproved FROM User u WHERE u.userId = :userId")
+    List<Object[]> findAuthStateById(@Param("userId") Long userId);
     
     boolean existsByEmail(String email);
     
@@ -0,0 +1,34 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.cart.CartStore;
+
+/**
+ * Writes cart changes held by CartStore to the carts and cart_items tables.
+ */
+@Component
+public class CartFlushScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartFlushScheduler.class);
+    private final CartStore cartStore;
+
+    public CartFlushScheduler(CartStore cartStore) {
+        this.cartStore = cartStore;
+    }
+
+    @Scheduled(fixedDelay = 2000)
+    public void flushCarts() {
+        try {
+            int flushed = cartStore.flush();
+            if (flushed > 0) {
+                logger.debug("Flushed {} carts", flushed);
+            }
+        } catch (Exception e) {
+            logger.error("Error flushing carts: {}", e.getMessage(), e);
+        }
+    }
+}
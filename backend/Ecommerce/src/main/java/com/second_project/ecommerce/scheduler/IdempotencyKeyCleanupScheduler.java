@@ -0,0 +1,35 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.service.IdempotencyService;
+
+/**
+ * Removes Idempotency-Key records whose TTL has passed, from memory and from the
+ * idempotency_keys table.
+ */
+@Component
+public class IdempotencyKeyCleanupScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyCleanupScheduler.class);
+    private final IdempotencyService idempotencyService;
+
+    public IdempotencyKeyCleanupScheduler(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgeExpiredKeys() {
+        try {
+            int deleted = idempotencyService.purgeExpired();
+            if (deleted > 0) {
+                logger.info("Deleted {} expired idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error deleting expired idempotency keys: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.service.InventoryReservationService;
+
+/**
+ * Background work for inventory reservations: writes committed order quantities to
+ * products.stock every few seconds, re-reads stock changed outside the ledger (seller edits,
+ * restored stock) within half a second, and gives back the stock of QR orders whose hold ran
+ * out before payment.
+ */
+@Component
+public class InventoryReservationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReservationScheduler.class);
+    private final InventoryReservationService inventoryReservationService;
+
+    public InventoryReservationScheduler(InventoryReservationService inventoryReservationService) {
+        this.inventoryReservationService = inventoryReservationService;
+    }
+
+    @Scheduled(fixedDelay = 3000)
+    public void flushCommittedStock() {
+        try {
+            int flushed = inventoryReservationService.flushCommitted();
+            if (flushed > 0) {
+                logger.debug("Flushed stock of {} orders", flushed);
+            }
+        } catch (Exception e) {
+            logger.error("Error flushing committed stock: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 500)
+    public void refreshChangedStock() {
+        try {
+            inventoryReservationService.refreshPendingStock();
+        } catch (Exception e) {
+            logger.error("Error refreshing changed stock: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 30000)
+    public void releaseExpiredReservations() {
+        try {
+            int released = inventoryReservationService.releaseExpired();
+            if (released > 0) {
+                logger.info("Released expired stock reservations of {} orders", released);
+            }
+        } catch (Exception e) {
+            logger.error("Error releasing expired stock reservations: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.outbox.OutboxRelay;
+
+/**
+ * Polls the outbox every second and hands due events to their handlers; once a day, deletes
+ * delivered events past their retention.
+ */
+@Component
+public class OutboxRelayScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayScheduler.class);
+    private final OutboxRelay outboxRelay;
+
+    public OutboxRelayScheduler(OutboxRelay outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void relayOutbox() {
+        try {
+            int delivered = outboxRelay.relay();
+            if (delivered > 0) {
+                logger.debug("Delivered {} outbox events", delivered);
+            }
+        } catch (Exception e) {
+            logger.error("Error relaying outbox events: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeDeliveredEvents() {
+        try {
+            int deleted = outboxRelay.purgeDelivered();
+            logger.info("Deleted {} delivered outbox events", deleted);
+        } catch (Exception e) {
+            logger.error("Error deleting delivered outbox events: {}", e.getMessage(), e);
+        }
+    }
+}
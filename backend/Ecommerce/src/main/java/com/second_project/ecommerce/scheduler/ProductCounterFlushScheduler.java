@@ -0,0 +1,34 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.counter.ProductCounters;
+
+/**
+ * Writes the sold and view count deltas collected by ProductCounters to the products table.
+ */
+@Component
+public class ProductCounterFlushScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCounterFlushScheduler.class);
+    private final ProductCounters productCounters;
+
+    public ProductCounterFlushScheduler(ProductCounters productCounters) {
+        this.productCounters = productCounters;
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void flushProductCounters() {
+        try {
+            int updated = productCounters.flush();
+            if (updated > 0) {
+                logger.debug("Flushed counters of {} products", updated);
+            }
+        } catch (Exception e) {
+            logger.error("Error flushing product counters: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.service.ProductRankingService;
+
+/**
+ * Rebuilds the hot/new ranking snapshots shortly after products change.
+ *
+ * Checking every 5 seconds coalesces bursts of order/approval events into one rebuild,
+ * and keeps rankings at most a few seconds behind the database.
+ */
+@Component
+public class ProductRankingRefreshScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRankingRefreshScheduler.class);
+    private final ProductRankingService productRankingService;
+
+    public ProductRankingRefreshScheduler(ProductRankingService productRankingService) {
+        this.productRankingService = productRankingService;
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void refreshRankings() {
+        try {
+            productRankingService.refreshIfStale();
+        } catch (Exception e) {
+            logger.error("Error refreshing product rankings: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.search.ProductSearchIndexer;
+
+/**
+ * Nightly full rebuild of the in-memory product search index.
+ *
+ * Product changes are indexed incrementally, but renaming a category does not publish a
+ * product event, so products keep the old category name until this job runs.
+ */
+@Component
+public class ProductSearchIndexRebuildScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexRebuildScheduler.class);
+    private final ProductSearchIndexer productSearchIndexer;
+
+    public ProductSearchIndexRebuildScheduler(ProductSearchIndexer productSearchIndexer) {
+        this.productSearchIndexer = productSearchIndexer;
+    }
+
+    /**
+     * Rebuild the search index daily at 3:30 AM.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void rebuildSearchIndex() {
+        try {
+            productSearchIndexer.rebuild();
+        } catch (Exception e) {
+            logger.error("Error rebuilding product search index: {}", e.getMessage(), e);
+        }
+    }
+}
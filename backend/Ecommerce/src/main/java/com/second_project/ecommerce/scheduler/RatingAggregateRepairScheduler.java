@@ -0,0 +1,45 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.second_project.ecommerce.repository.ProductRepository;
+
+/**
+ * Rebuilds the denormalized rating aggregates on products from the reviews table.
+ *
+ * ReviewServiceImpl keeps ratingSum, ratingCount, reviewCount and the star histogram
+ * current with delta updates. This job is the safety net for anything that bypasses it
+ * (manual SQL, imported data, legacy reviews without a rating).
+ */
+@Component
+public class RatingAggregateRepairScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregateRepairScheduler.class);
+    private final ProductRepository productRepository;
+
+    public RatingAggregateRepairScheduler(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Recompute rating aggregates daily at 3:00 AM (single set-based UPDATE).
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    @Transactional
+    public void repairRatingAggregates() {
+        try {
+            int changed = productRepository.rebuildRatingAggregates();
+            if (changed > 0) {
+                logger.warn("Rating aggregate repair corrected {} products", changed);
+            } else {
+                logger.info("Rating aggregates verified at {}, no drift found", java.time.LocalDateTime.now());
+            }
+        } catch (Exception e) {
+            logger.error("Error repairing rating aggregates: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.second_project.ecommerce.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.service.OrderExpiryService;
+
+/**
+ * Cancels QR orders left unpaid past app.order-expiry.unpaid-minutes, once a minute.
+ */
+@Component
+public class UnpaidOrderExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnpaidOrderExpiryScheduler.class);
+    private final OrderExpiryService orderExpiryService;
+
+    public UnpaidOrderExpiryScheduler(OrderExpiryService orderExpiryService) {
+        this.orderExpiryService = orderExpiryService;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void expireUnpaidOrders() {
+        try {
+            int cancelled = orderExpiryService.expireUnpaidOrders();
+            if (cancelled > 0) {
+                logger.info("Cancelled {} unpaid QR orders", cancelled);
+            }
+        } catch (Exception e) {
+            logger.error("Error cancelling unpaid orders: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.second_project.ecommerce.search;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Fixed price buckets (VND) used for the price facet and filter.
+ * Lower bound inclusive, upper bound exclusive; the last bucket is open-ended.
+ */
+public enum PriceRange {
+
+    UNDER_1M("under-1m", "Under 1,000,000₫", 0L, 1_000_000L),
+    FROM_1M_TO_5M("1m-5m", "1,000,000₫ - 5,000,000₫", 1_000_000L, 5_000_000L),
+    FROM_5M_TO_10M("5m-10m", "5,000,000₫ - 10,000,000₫", 5_000_000L, 10_000_000L),
+    FROM_10M_TO_20M("10m-20m", "10,000,000₫ - 20,000,000₫", 10_000_000L, 20_000_000L),
+    OVER_20M("over-20m", "Over 20,000,000₫", 20_000_000L, null);
+
+    private final String key;
+    private final String label;
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    PriceRange(String key, String label, Long min, Long max) {
+        this.key = key;
+        this.label = label;
+        this.min = BigDecimal.valueOf(min);
+        this.max = max != null ? BigDecimal.valueOf(max) : null;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Bucket for a price, or null when the product has no price.
+     */
+    public static PriceRange of(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (PriceRange range : values()) {
+            if (price.compareTo(range.min) >= 0 && (range.max == null || price.compareTo(range.max) < 0)) {
+                return range;
+            }
+        }
+        // Negative prices are rejected on save; treat anything else as the cheapest bucket
+        return UNDER_1M;
+    }
+
+    /**
+     * Parse a request parameter such as "1m-5m".
+     *
+     * @throws IllegalArgumentException for an unknown key
+     */
+    public static PriceRange fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(range -> range.key.equalsIgnoreCase(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown price range: " + key));
+    }
+}
@@ -0,0 +1,78 @@
+package com.second_project.ecommerce.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the searchable and filterable fields of one approved product.
+ * Built by ProductSearchIndexer from the database and fed to the in-memory indexes.
+ */
+public final class ProductDocument {
+
+    private final Long id;
+    private final String name;
+    private final String slug;
+    private final String brand;
+    private final String description;
+    private final List<Long> categoryIds;
+    private final List<String> categoryNames;
+    private final BigDecimal price;
+    private final double averageRating;
+    private final int soldCount;
+
+    public ProductDocument(Long id, String name, String slug, String brand, String description,
+                           List<Long> categoryIds, List<String> categoryNames,
+                           BigDecimal price, double averageRating, int soldCount) {
+        this.id = id;
+        this.name = name;
+        this.slug = slug;
+        this.brand = brand;
+        this.description = description;
+        this.categoryIds = categoryIds != null ? List.copyOf(categoryIds) : List.of();
+        this.categoryNames = categoryNames != null ? List.copyOf(categoryNames) : List.of();
+        this.price = price;
+        this.averageRating = averageRating;
+        this.soldCount = soldCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    // Parallel to categoryNames: categoryIds.get(i) is named categoryNames.get(i)
+    public List<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public List<String> getCategoryNames() {
+        return categoryNames;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public int getSoldCount() {
+        return soldCount;
+    }
+}
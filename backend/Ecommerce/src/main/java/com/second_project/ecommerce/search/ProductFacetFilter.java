@@ -0,0 +1,77 @@
+package com.second_project.ecommerce.search;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Facet selections from the storefront filter sidebar.
+ *
+ * Values within one facet are OR-ed (brand A or brand B), facets are AND-ed together.
+ * An empty selection means the facet is not filtered.
+ */
+public final class ProductFacetFilter {
+
+    private static final ProductFacetFilter NONE = new ProductFacetFilter(null, null, null, null);
+
+    private final Set<String> brands;
+    private final Set<Long> categoryIds;
+    private final Set<PriceRange> priceRanges;
+    private final Integer minRating;
+
+    public ProductFacetFilter(Collection<String> brands, Collection<Long> categoryIds,
+                              Collection<String> priceRanges, Integer minRating) {
+        if (minRating != null && (minRating < 1 || minRating > 5)) {
+            throw new IllegalArgumentException("minRating must be between 1 and 5");
+        }
+        this.brands = new LinkedHashSet<>();
+        if (brands != null) {
+            for (String brand : brands) {
+                String key = brandKey(brand);
+                if (!key.isEmpty()) {
+                    this.brands.add(key);
+                }
+            }
+        }
+        this.categoryIds = categoryIds != null ? new LinkedHashSet<>(categoryIds) : new LinkedHashSet<>();
+        this.priceRanges = EnumSet.noneOf(PriceRange.class);
+        if (priceRanges != null) {
+            for (String range : priceRanges) {
+                this.priceRanges.add(PriceRange.fromKey(range));
+            }
+        }
+        this.minRating = minRating;
+    }
+
+    public static ProductFacetFilter none() {
+        return NONE;
+    }
+
+    /**
+     * Brands are matched case- and diacritics-insensitively.
+     */
+    static String brandKey(String brand) {
+        return TextNormalizer.fold(brand).trim();
+    }
+
+    public boolean isEmpty() {
+        return brands.isEmpty() && categoryIds.isEmpty() && priceRanges.isEmpty() && minRating == null;
+    }
+
+    public Set<String> getBrands() {
+        return brands;
+    }
+
+    public Set<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public Set<PriceRange> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public Integer getMinRating() {
+        return minRating;
+    }
+}
@@ -0,0 +1,402 @@
+package com.second_project.ecommerce.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.model.FacetCountDto;
+import com.second_project.ecommerce.model.ProductFacetsDto;
+
+/**
+ * Columnar in-memory facet index over approved products.
+ *
+ * Every product gets a dense slot number; each facet value (brand, category, price range,
+ * star rating) owns a BitSet of the slots that have it. Filtering is OR within a facet and
+ * AND across facets, and counts are cardinalities of BitSet intersections, so a whole
+ * sidebar costs a few thousand word operations instead of one GROUP BY query per facet.
+ */
+@Component
+public class ProductFacetIndex {
+
+    // Brand and category lists are trimmed to the most frequent values
+    private static final int MAX_FACET_VALUES = 50;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FacetData data = new FacetData();
+    private volatile boolean ready = false;
+
+    /**
+     * True once the first full build has been installed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replace the whole index with the given documents.
+     */
+    public void rebuild(Collection<ProductDocument> documents) {
+        FacetData fresh = new FacetData();
+        for (ProductDocument document : documents) {
+            fresh.add(document);
+        }
+        lock.writeLock().lock();
+        try {
+            data = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a single product.
+     */
+    public void index(ProductDocument document) {
+        lock.writeLock().lock();
+        try {
+            data.remove(document.getId());
+            data.add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product (no-op if it is not indexed).
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            data.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of the indexed products filed under the category.
+     */
+    public List<Long> productIdsInCategory(Long categoryId) {
+        lock.readLock().lock();
+        try {
+            BitSet bits = data.categoryBits.get(categoryId);
+            List<Long> ids = new ArrayList<>(bits != null ? bits.cardinality() : 0);
+            if (bits != null) {
+                for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+                    ids.add(data.idBySlot.get(slot));
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply the filter to a candidate list.
+     *
+     * @param candidateIds ranked product IDs from a keyword search (order is kept),
+     *                     or null for all approved products (newest ID first)
+     */
+    public List<Long> filter(List<Long> candidateIds, ProductFacetFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = data.candidates(candidateIds);
+            matches.and(data.brandMask(filter));
+            matches.and(data.categoryMask(filter));
+            matches.and(data.priceMask(filter));
+            matches.and(data.ratingMask(filter));
+
+            List<Long> ids = new ArrayList<>(matches.cardinality());
+            if (candidateIds != null) {
+                for (Long id : candidateIds) {
+                    Integer slot = data.slotById.get(id);
+                    if (slot != null && matches.get(slot)) {
+                        ids.add(id);
+                    }
+                }
+            } else {
+                for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                    ids.add(data.idBySlot.get(slot));
+                }
+                ids.sort(Comparator.reverseOrder());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count products per facet value for the candidates and filter.
+     * Each facet ignores its own selection so the other values of that facet stay visible.
+     */
+    public ProductFacetsDto facets(List<Long> candidateIds, ProductFacetFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet base = data.candidates(candidateIds);
+            BitSet brandMask = data.brandMask(filter);
+            BitSet categoryMask = data.categoryMask(filter);
+            BitSet priceMask = data.priceMask(filter);
+            BitSet ratingMask = data.ratingMask(filter);
+
+            ProductFacetsDto facets = new ProductFacetsDto();
+            facets.setTotal(and(base, brandMask, categoryMask, priceMask, ratingMask).cardinality());
+
+            BitSet brandContext = and(base, categoryMask, priceMask, ratingMask);
+            List<FacetCountDto> brands = new ArrayList<>();
+            for (Map.Entry<String, BitSet> entry : data.brandBits.entrySet()) {
+                long count = intersectionCount(brandContext, entry.getValue());
+                if (count > 0 || filter.getBrands().contains(entry.getKey())) {
+                    brands.add(new FacetCountDto(entry.getKey(), data.brandLabels.get(entry.getKey()), count));
+                }
+            }
+            facets.setBrands(topValues(brands));
+
+            BitSet categoryContext = and(base, brandMask, priceMask, ratingMask);
+            List<FacetCountDto> categories = new ArrayList<>();
+            for (Map.Entry<Long, BitSet> entry : data.categoryBits.entrySet()) {
+                long count = intersectionCount(categoryContext, entry.getValue());
+                if (count > 0 || filter.getCategoryIds().contains(entry.getKey())) {
+                    categories.add(new FacetCountDto(String.valueOf(entry.getKey()),
+                            data.categoryNames.get(entry.getKey()), count));
+                }
+            }
+            facets.setCategories(topValues(categories));
+
+            BitSet priceContext = and(base, brandMask, categoryMask, ratingMask);
+            List<FacetCountDto> priceRanges = new ArrayList<>();
+            for (PriceRange range : PriceRange.values()) {
+                long count = intersectionCount(priceContext, data.priceBits.get(range));
+                if (count > 0 || filter.getPriceRanges().contains(range)) {
+                    priceRanges.add(new FacetCountDto(range.getKey(), range.getLabel(), count));
+                }
+            }
+            facets.setPriceRanges(priceRanges);
+
+            BitSet ratingContext = and(base, brandMask, categoryMask, priceMask);
+            List<FacetCountDto> ratings = new ArrayList<>();
+            for (int stars = 4; stars >= 1; stars--) {
+                long count = intersectionCount(ratingContext, data.atLeastStars(stars));
+                ratings.add(new FacetCountDto(String.valueOf(stars), stars + " stars & up", count));
+            }
+            facets.setRatings(ratings);
+
+            return facets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static BitSet and(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            result.and(mask);
+        }
+        return result;
+    }
+
+    private static long intersectionCount(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    private static List<FacetCountDto> topValues(List<FacetCountDto> values) {
+        values.sort(Comparator.comparingLong(FacetCountDto::getCount).reversed()
+                .thenComparing(value -> value.getLabel() != null ? value.getLabel() : ""));
+        return values.size() > MAX_FACET_VALUES ? new ArrayList<>(values.subList(0, MAX_FACET_VALUES)) : values;
+    }
+
+    /**
+     * Slots, bitmaps and labels. Only accessed under the index lock
+     * (or before being published by rebuild).
+     */
+    private static final class FacetData {
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private final List<Long> idBySlot = new ArrayList<>();
+        private final List<SlotValues> valuesBySlot = new ArrayList<>();
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+        private final BitSet live = new BitSet();
+
+        private final Map<String, BitSet> brandBits = new HashMap<>();
+        private final Map<String, String> brandLabels = new HashMap<>();
+        private final Map<Long, BitSet> categoryBits = new HashMap<>();
+        private final Map<Long, String> categoryNames = new HashMap<>();
+        private final Map<PriceRange, BitSet> priceBits = new EnumMap<>(PriceRange.class);
+        // Indexed by the floor of the average rating; 0 means no rating yet
+        private final BitSet[] starBits = new BitSet[6];
+
+        FacetData() {
+            for (PriceRange range : PriceRange.values()) {
+                priceBits.put(range, new BitSet());
+            }
+            for (int i = 0; i < starBits.length; i++) {
+                starBits[i] = new BitSet();
+            }
+        }
+
+        void add(ProductDocument document) {
+            Integer reused = freeSlots.poll();
+            int slot = reused != null ? reused : idBySlot.size();
+            String brandKey = ProductFacetFilter.brandKey(document.getBrand());
+            PriceRange priceRange = PriceRange.of(document.getPrice());
+            int stars = (int) Math.floor(Math.max(0, Math.min(5, document.getAverageRating())));
+            SlotValues values = new SlotValues(brandKey, document.getCategoryIds(), priceRange, stars);
+            if (reused != null) {
+                idBySlot.set(slot, document.getId());
+                valuesBySlot.set(slot, values);
+            } else {
+                idBySlot.add(document.getId());
+                valuesBySlot.add(values);
+            }
+            slotById.put(document.getId(), slot);
+            live.set(slot);
+
+            if (!brandKey.isEmpty()) {
+                brandBits.computeIfAbsent(brandKey, key -> new BitSet()).set(slot);
+                brandLabels.putIfAbsent(brandKey, document.getBrand().trim());
+            }
+            List<Long> categoryIds = document.getCategoryIds();
+            for (int i = 0; i < categoryIds.size(); i++) {
+                categoryBits.computeIfAbsent(categoryIds.get(i), id -> new BitSet()).set(slot);
+                if (i < document.getCategoryNames().size()) {
+                    categoryNames.put(categoryIds.get(i), document.getCategoryNames().get(i));
+                }
+            }
+            if (priceRange != null) {
+                priceBits.get(priceRange).set(slot);
+            }
+            starBits[stars].set(slot);
+        }
+
+        void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            SlotValues values = valuesBySlot.get(slot);
+            if (!values.brandKey.isEmpty()) {
+                clear(brandBits, values.brandKey, slot);
+                if (!brandBits.containsKey(values.brandKey)) {
+                    brandLabels.remove(values.brandKey);
+                }
+            }
+            for (Long categoryId : values.categoryIds) {
+                clear(categoryBits, categoryId, slot);
+                if (!categoryBits.containsKey(categoryId)) {
+                    categoryNames.remove(categoryId);
+                }
+            }
+            if (values.priceRange != null) {
+                priceBits.get(values.priceRange).clear(slot);
+            }
+            starBits[values.stars].clear(slot);
+            live.clear(slot);
+            idBySlot.set(slot, null);
+            valuesBySlot.set(slot, null);
+            freeSlots.push(slot);
+        }
+
+        BitSet candidates(List<Long> candidateIds) {
+            if (candidateIds == null) {
+                return (BitSet) live.clone();
+            }
+            BitSet candidates = new BitSet(idBySlot.size());
+            for (Long id : candidateIds) {
+                Integer slot = slotById.get(id);
+                if (slot != null) {
+                    candidates.set(slot);
+                }
+            }
+            return candidates;
+        }
+
+        BitSet brandMask(ProductFacetFilter filter) {
+            if (filter.getBrands().isEmpty()) {
+                return live;
+            }
+            BitSet mask = new BitSet();
+            for (String brand : filter.getBrands()) {
+                BitSet bits = brandBits.get(brand);
+                if (bits != null) {
+                    mask.or(bits);
+                }
+            }
+            return mask;
+        }
+
+        BitSet categoryMask(ProductFacetFilter filter) {
+            if (filter.getCategoryIds().isEmpty()) {
+                return live;
+            }
+            BitSet mask = new BitSet();
+            for (Long categoryId : filter.getCategoryIds()) {
+                BitSet bits = categoryBits.get(categoryId);
+                if (bits != null) {
+                    mask.or(bits);
+                }
+            }
+            return mask;
+        }
+
+        BitSet priceMask(ProductFacetFilter filter) {
+            if (filter.getPriceRanges().isEmpty()) {
+                return live;
+            }
+            BitSet mask = new BitSet();
+            for (PriceRange range : filter.getPriceRanges()) {
+                mask.or(priceBits.get(range));
+            }
+            return mask;
+        }
+
+        BitSet ratingMask(ProductFacetFilter filter) {
+            return filter.getMinRating() == null ? live : atLeastStars(filter.getMinRating());
+        }
+
+        BitSet atLeastStars(int stars) {
+            BitSet mask = new BitSet();
+            for (int i = stars; i < starBits.length; i++) {
+                mask.or(starBits[i]);
+            }
+            return mask;
+        }
+
+        private static <K> void clear(Map<K, BitSet> bitsByValue, K value, int slot) {
+            BitSet bits = bitsByValue.get(value);
+            if (bits != null) {
+                bits.clear(slot);
+                if (bits.isEmpty()) {
+                    bitsByValue.remove(value);
+                }
+            }
+        }
+    }
+
+    private static final class SlotValues {
+        private final String brandKey;
+        private final List<Long> categoryIds;
+        private final PriceRange priceRange;
+        private final int stars;
+
+        private SlotValues(String brandKey, List<Long> categoryIds, PriceRange priceRange, int stars) {
+            this.brandKey = brandKey;
+            this.categoryIds = categoryIds;
+            this.priceRange = priceRange;
+            this.stars = stars;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.second_project.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over approved products, ranked with BM25.
+ *
+ * Name, brand, category names and description are tokenized with TextNormalizer and
+ * merged into one weighted term frequency per product (name counts more than description).
+ * All query terms must match; the last one is treated as a prefix so results appear
+ * while the user is still typing. Reads share a read lock, updates take the write lock,
+ * and a full rebuild is assembled off-lock and swapped in.
+ */
+@Component
+public class ProductSearchIndex {
+
+    // Field weights for the merged term frequency
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Upper bound on the number of dictionary terms a prefix may expand to
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexData data = new IndexData();
+    private volatile boolean ready = false;
+
+    /**
+     * True once the first full build has been installed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replace the whole index with the given documents.
+     */
+    public void rebuild(Collection<ProductDocument> documents) {
+        IndexData fresh = new IndexData();
+        for (ProductDocument document : documents) {
+            fresh.add(document);
+        }
+        lock.writeLock().lock();
+        try {
+            data = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a single product.
+     */
+    public void index(ProductDocument document) {
+        lock.writeLock().lock();
+        try {
+            data.remove(document.getId());
+            data.add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product (no-op if it is not indexed).
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            data.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return data.lengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search and return matching product IDs, best match first.
+     */
+    public List<Long> search(String query) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean prefix = i == tokens.size() - 1;
+                Map<Long, Double> tokenScores = data.score(tokens.get(i), prefix);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND semantics: keep only products that match every token
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+            List<Long> ids = new ArrayList<>(ranked.size());
+            for (Map.Entry<Long, Double> entry : ranked) {
+                ids.add(entry.getKey());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Postings and document statistics. Only accessed under the index lock
+     * (or before being published by rebuild).
+     */
+    private static final class IndexData {
+        // term -> (productId -> weighted term frequency); sorted for prefix lookups
+        private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        // productId -> (term -> weighted tf), needed to remove a document
+        private final Map<Long, Map<String, Float>> terms = new HashMap<>();
+        // productId -> weighted document length
+        private final Map<Long, Float> lengths = new HashMap<>();
+        private double totalLength = 0;
+
+        void add(ProductDocument document) {
+            Map<String, Float> tf = new HashMap<>();
+            float length = 0;
+            length += accumulate(tf, TextNormalizer.tokenize(document.getName()), NAME_WEIGHT);
+            length += accumulate(tf, TextNormalizer.tokenize(document.getBrand()), BRAND_WEIGHT);
+            for (String categoryName : document.getCategoryNames()) {
+                length += accumulate(tf, TextNormalizer.tokenize(categoryName), CATEGORY_WEIGHT);
+            }
+            length += accumulate(tf, TextNormalizer.tokenize(document.getDescription()), DESCRIPTION_WEIGHT);
+
+            Long id = document.getId();
+            for (Map.Entry<String, Float> entry : tf.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(id, entry.getValue());
+            }
+            terms.put(id, tf);
+            lengths.put(id, length);
+            totalLength += length;
+        }
+
+        void remove(Long id) {
+            Map<String, Float> tf = terms.remove(id);
+            if (tf == null) {
+                return;
+            }
+            for (String term : tf.keySet()) {
+                Map<Long, Float> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(id);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            Float length = lengths.remove(id);
+            totalLength -= length != null ? length : 0;
+        }
+
+        Map<Long, Double> score(String token, boolean prefix) {
+            Map<Long, Double> scores = new HashMap<>();
+            if (lengths.isEmpty()) {
+                return scores;
+            }
+            Map<String, Map<Long, Float>> matches = prefix
+                    ? postings.subMap(token, true, token + Character.MAX_VALUE, true)
+                    : (postings.containsKey(token) ? Map.of(token, postings.get(token)) : Map.of());
+
+            int n = lengths.size();
+            double avgLength = totalLength / n;
+            int expansions = 0;
+            for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                Map<Long, Float> docs = match.getValue();
+                double idf = Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Long, Float> doc : docs.entrySet()) {
+                    double tf = doc.getValue();
+                    double norm = K1 * (1 - B + B * lengths.get(doc.getKey()) / avgLength);
+                    double score = idf * tf * (K1 + 1) / (tf + norm);
+                    // A prefix may expand to several terms of one product: count its best one
+                    scores.merge(doc.getKey(), score, Math::max);
+                }
+            }
+            return scores;
+        }
+
+        private static float accumulate(Map<String, Float> tf, List<String> tokens, float weight) {
+            for (String token : tokens) {
+                tf.merge(token, weight, Float::sum);
+            }
+            return tokens.size() * weight;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.second_project.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.second_project.ecommerce.entity.Product;
+import com.second_project.ecommerce.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads approved products from the database into the in-memory search, facet and suggest indexes.
+ *
+ * A full rebuild runs at startup (and nightly), scrolling through approved products in
+ * batches of {@value #BATCH_SIZE}, each in its own read-only transaction. Single products are
+ * re-read after every lifecycle change, and every product of a category after the category
+ * is edited or deleted (documents carry category names). Changes arriving while a rebuild is
+ * in flight are replayed once the new index is installed, so they are not lost to the swap.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndexer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public ProductSearchIndexer(ProductRepository productRepository,
+                                ProductSearchIndex productSearchIndex,
+                                ProductFacetIndex productFacetIndex,
+                                ProductSuggestIndex productSuggestIndex,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.productSuggestIndex = productSuggestIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuild the whole index from the database. Concurrent calls are skipped.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.debug("Search index rebuild already running, skipping");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            changedDuringRebuild.clear();
+            List<ProductDocument> documents = new ArrayList<>();
+            ScrollPosition position = ScrollPosition.keyset();
+            boolean hasNext = true;
+            while (hasNext) {
+                final ScrollPosition current = position;
+                Batch batch = readOnlyTransaction.execute(status -> loadBatch(current));
+                documents.addAll(batch.documents);
+                position = batch.next;
+                hasNext = batch.next != null;
+            }
+            productSearchIndex.rebuild(documents);
+            productFacetIndex.rebuild(documents);
+            productSuggestIndex.rebuild(documents);
+            rebuilding.set(false);
+
+            // Re-read anything that changed while we were scrolling
+            for (Long productId : new ArrayList<>(changedDuringRebuild)) {
+                reindex(productId);
+            }
+            changedDuringRebuild.clear();
+            log.info("Search index rebuilt with {} products in {} ms",
+                    documents.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild search index: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Re-read one product and add, update or remove it in the index depending on its status.
+     */
+    public void reindex(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(productId);
+        }
+        try {
+            ProductDocument document = readOnlyTransaction.execute(status ->
+                    productRepository.findById(productId)
+                            .filter(product -> product.getStatus() == Product.ProductStatus.APPROVED)
+                            .map(product -> toDocuments(Collections.singletonList(product)).get(0))
+                            .orElse(null));
+            if (document != null) {
+                productSearchIndex.index(document);
+                productFacetIndex.index(document);
+                productSuggestIndex.index(document);
+            } else {
+                productSearchIndex.remove(productId);
+                productFacetIndex.remove(productId);
+                productSuggestIndex.remove(productId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reindex product {}: {}", productId, e.getMessage());
+        }
+    }
+
+    /**
+     * Re-read every product filed under the category, in the index or in the database, so
+     * renamed categories show their new name and deleted ones disappear.
+     */
+    public void reindexCategory(Long categoryId) {
+        if (categoryId == null) {
+            return;
+        }
+        try {
+            Set<Long> productIds = new LinkedHashSet<>(productFacetIndex.productIdsInCategory(categoryId));
+            productIds.addAll(readOnlyTransaction.execute(status ->
+                    productRepository.findIdsByCategoryIdAndStatus(categoryId, Product.ProductStatus.APPROVED)));
+            if (rebuilding.get()) {
+                changedDuringRebuild.addAll(productIds);
+            }
+            List<Long> ids = new ArrayList<>(productIds);
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                reindexBatch(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+            }
+            log.debug("Reindexed {} products of category {}", ids.size(), categoryId);
+        } catch (Exception e) {
+            log.warn("Failed to reindex category {}: {}", categoryId, e.getMessage());
+        }
+    }
+
+    private void reindexBatch(List<Long> productIds) {
+        Map<Long, ProductDocument> documents = readOnlyTransaction.execute(status ->
+                toDocuments(productRepository.findAllById(productIds).stream()
+                        .filter(product -> product.getStatus() == Product.ProductStatus.APPROVED)
+                        .collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.toMap(ProductDocument::getId, document -> document)));
+        for (Long productId : productIds) {
+            ProductDocument document = documents.get(productId);
+            if (document != null) {
+                productSearchIndex.index(document);
+                productFacetIndex.index(document);
+                productSuggestIndex.index(document);
+            } else {
+                productSearchIndex.remove(productId);
+                productFacetIndex.remove(productId);
+                productSuggestIndex.remove(productId);
+            }
+        }
+    }
+
+    private Batch loadBatch(ScrollPosition position) {
+        Window<Product> window = productRepository.findByStatus(Product.ProductStatus.APPROVED,
+                position, Sort.by(Sort.Direction.ASC, "id"), Limit.of(BATCH_SIZE));
+        List<ProductDocument> documents = toDocuments(window.getContent());
+        ScrollPosition next = window.hasNext() && !window.isEmpty()
+                ? window.positionAt(window.size() - 1)
+                : null;
+        return new Batch(documents, next);
+    }
+
+    private List<ProductDocument> toDocuments(List<Product> products) {
+        Map<Long, List<Object[]>> categories = loadCategories(products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toList()));
+        List<ProductDocument> documents = new ArrayList<>(products.size());
+        for (Product product : products) {
+            List<Long> categoryIds = new ArrayList<>();
+            List<String> categoryNames = new ArrayList<>();
+            for (Object[] row : categories.getOrDefault(product.getId(), Collections.emptyList())) {
+                categoryIds.add((Long) row[1]);
+                categoryNames.add(row[2] != null ? (String) row[2] : "");
+            }
+            documents.add(new ProductDocument(
+                    product.getId(),
+                    product.getName(),
+                    product.getSlug(),
+                    product.getBrand(),
+                    product.getDescription(),
+                    categoryIds,
+                    categoryNames,
+                    product.getPrice(),
+                    product.getAverageRating(),
+                    product.getSoldCount() != null ? product.getSoldCount() : 0));
+        }
+        return documents;
+    }
+
+    // [productId, categoryId, categoryName] rows grouped by product
+    private Map<Long, List<Object[]>> loadCategories(Collection<Long> productIds) {
+        Map<Long, List<Object[]>> categories = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return categories;
+        }
+        for (Object[] row : productRepository.findCategoryIdAndNamesByProductIds(productIds)) {
+            categories.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+        }
+        return categories;
+    }
+
+    private static final class Batch {
+        private final List<ProductDocument> documents;
+        private final ScrollPosition next;
+
+        private Batch(List<ProductDocument> documents, ScrollPosition next) {
+            this.documents = documents;
+            this.next = next;
+        }
+    }
+}
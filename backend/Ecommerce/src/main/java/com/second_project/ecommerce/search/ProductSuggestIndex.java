@@ -0,0 +1,388 @@
+package com.second_project.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.model.SuggestionDto;
+
+/**
+ * Prefix trie for search-as-you-type over approved product names, brands and category names.
+ *
+ * Every trie node caches its top {@value #MAX_SUGGESTIONS} completions by popularity
+ * (units sold), so a lookup is a walk down the typed prefix plus a copy of that list,
+ * independent of catalog size. Keys are folded with TextNormalizer, and phrases are also
+ * indexed from their second to fourth word so "15 pro" finds "iPhone 15 Pro".
+ *
+ * Updates re-place the affected completions and recompute the cached lists along their
+ * paths only. A full rebuild inserts everything first and computes the lists in one pass.
+ */
+@Component
+public class ProductSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Phrases are indexed from each of their first few words
+    private static final int MAX_WORD_STARTS = 4;
+    // Trie depth limit; longer prefixes are checked against the full key
+    private static final int MAX_KEY_LENGTH = 32;
+
+    private static final Comparator<Completion> BY_POPULARITY = Comparator
+            .comparingLong((Completion completion) -> completion.weight).reversed()
+            .thenComparing(completion -> completion.type)
+            .thenComparing(completion -> completion.text);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private SuggestData data = new SuggestData();
+    private volatile boolean ready = false;
+
+    /**
+     * True once the first full build has been installed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replace the whole trie with the given documents.
+     */
+    public void rebuild(Collection<ProductDocument> documents) {
+        SuggestData fresh = new SuggestData();
+        for (ProductDocument document : documents) {
+            fresh.add(document, false);
+        }
+        fresh.placeAll();
+        lock.writeLock().lock();
+        try {
+            data = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a single product.
+     */
+    public void index(ProductDocument document) {
+        lock.writeLock().lock();
+        try {
+            data.remove(document.getId());
+            data.add(document, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product (no-op if it is not indexed).
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            data.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Most popular completions of the typed text, at most {@value #MAX_SUGGESTIONS}.
+     */
+    public List<SuggestionDto> suggest(String query, int limit) {
+        List<SuggestionDto> suggestions = new ArrayList<>();
+        String prefix = String.join(" ", TextNormalizer.tokenize(query));
+        if (prefix.isEmpty()) {
+            return suggestions;
+        }
+        int max = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        boolean truncated = prefix.length() > MAX_KEY_LENGTH;
+
+        lock.readLock().lock();
+        try {
+            Node node = data.root.find(truncated ? prefix.substring(0, MAX_KEY_LENGTH) : prefix);
+            if (node == null) {
+                return suggestions;
+            }
+            for (Completion completion : node.top) {
+                if (truncated && !completion.matches(prefix)) {
+                    continue;
+                }
+                suggestions.add(completion.toDto());
+                if (suggestions.size() == max) {
+                    break;
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Trie plus the completions placed in it. Only accessed under the index lock
+     * (or before being published by rebuild).
+     */
+    private static final class SuggestData {
+        private final Node root = new Node();
+        // completion id ("p:", "b:" or "c:" + key) -> completion
+        private final Map<String, Completion> completions = new HashMap<>();
+        // productId -> completions the product contributes to
+        private final Map<Long, List<Completion>> byProduct = new HashMap<>();
+
+        void add(ProductDocument document, boolean incremental) {
+            List<Completion> contributed = new ArrayList<>();
+            String nameKey = String.join(" ", TextNormalizer.tokenize(document.getName()));
+            attach("p:" + nameKey, SuggestionDto.Type.PRODUCT, document.getName(), document, incremental, contributed);
+            String brandKey = String.join(" ", TextNormalizer.tokenize(document.getBrand()));
+            attach("b:" + brandKey, SuggestionDto.Type.BRAND, document.getBrand(), document, incremental, contributed);
+            for (int i = 0; i < document.getCategoryIds().size() && i < document.getCategoryNames().size(); i++) {
+                attach("c:" + document.getCategoryIds().get(i), SuggestionDto.Type.CATEGORY,
+                        document.getCategoryNames().get(i), document, incremental, contributed);
+            }
+            if (!contributed.isEmpty()) {
+                byProduct.put(document.getId(), contributed);
+            }
+        }
+
+        void remove(Long productId) {
+            List<Completion> contributed = byProduct.remove(productId);
+            if (contributed == null) {
+                return;
+            }
+            for (Completion completion : contributed) {
+                unplace(completion);
+                completion.soldCounts.remove(productId);
+                completion.slugs.remove(productId);
+                if (completion.soldCounts.isEmpty()) {
+                    completions.remove(completion.id);
+                } else {
+                    completion.updateWeight();
+                    place(completion, true);
+                }
+            }
+        }
+
+        /**
+         * Insert every completion without maintaining the cached lists, then compute them bottom-up once.
+         */
+        void placeAll() {
+            for (Completion completion : completions.values()) {
+                place(completion, false);
+            }
+            recomputeAll(root);
+        }
+
+        private void attach(String id, SuggestionDto.Type type, String text, ProductDocument document,
+                            boolean incremental, List<Completion> contributed) {
+            List<String> tokens = TextNormalizer.tokenize(text);
+            if (tokens.isEmpty()) {
+                return;
+            }
+            Completion completion = completions.get(id);
+            if (completion == null) {
+                completion = new Completion(id, type);
+                completions.put(id, completion);
+            } else if (incremental) {
+                unplace(completion);
+            }
+            // Latest text wins, so a renamed category shows its new name
+            completion.setText(text.trim(), tokens);
+            completion.soldCounts.put(document.getId(), document.getSoldCount());
+            completion.slugs.put(document.getId(), document.getSlug());
+            completion.updateWeight();
+            if (incremental) {
+                place(completion, true);
+            }
+            contributed.add(completion);
+        }
+
+        private void place(Completion completion, boolean recompute) {
+            for (String key : completion.trieKeys) {
+                List<Node> path = new ArrayList<>(key.length() + 1);
+                Node node = root;
+                path.add(node);
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.childOrCreate(key.charAt(i));
+                    path.add(node);
+                }
+                node.entries.add(completion);
+                if (recompute) {
+                    for (int i = path.size() - 1; i >= 0; i--) {
+                        path.get(i).recompute();
+                    }
+                }
+            }
+        }
+
+        private void unplace(Completion completion) {
+            for (String key : completion.trieKeys) {
+                List<Node> path = new ArrayList<>(key.length() + 1);
+                Node node = root;
+                path.add(node);
+                for (int i = 0; i < key.length() && node != null; i++) {
+                    node = node.child(key.charAt(i));
+                    path.add(node);
+                }
+                if (node == null) {
+                    continue;
+                }
+                node.entries.remove(completion);
+                for (int i = path.size() - 1; i >= 0; i--) {
+                    Node current = path.get(i);
+                    // Prune branches left without completions
+                    if (i > 0 && current.entries.isEmpty() && current.children.length == 0) {
+                        path.get(i - 1).removeChild(key.charAt(i - 1));
+                    } else {
+                        current.recompute();
+                    }
+                }
+            }
+        }
+
+        private void recomputeAll(Node node) {
+            for (Node child : node.children) {
+                recomputeAll(child);
+            }
+            node.recompute();
+        }
+    }
+
+    /**
+     * One suggestion, possibly shared by several products (a brand, a category, or
+     * products with the same name). Its weight is the sum of their sold counts.
+     */
+    private static final class Completion {
+        private final String id;
+        private final SuggestionDto.Type type;
+        private final Map<Long, Integer> soldCounts = new HashMap<>();
+        private final Map<Long, String> slugs = new HashMap<>();
+        private String text;
+        private List<String> fullKeys = List.of();
+        private List<String> trieKeys = List.of();
+        private long weight;
+
+        private Completion(String id, SuggestionDto.Type type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        // Only called while the completion is not placed in the trie
+        void setText(String text, List<String> tokens) {
+            this.text = text;
+            Set<String> full = new LinkedHashSet<>();
+            Set<String> trie = new LinkedHashSet<>();
+            for (int i = 0; i < tokens.size() && i < MAX_WORD_STARTS; i++) {
+                String key = String.join(" ", tokens.subList(i, tokens.size()));
+                full.add(key);
+                trie.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+            }
+            this.fullKeys = new ArrayList<>(full);
+            this.trieKeys = new ArrayList<>(trie);
+        }
+
+        void updateWeight() {
+            long sum = 0;
+            for (Integer soldCount : soldCounts.values()) {
+                sum += soldCount != null ? soldCount : 0;
+            }
+            weight = sum;
+        }
+
+        boolean matches(String prefix) {
+            for (String key : fullKeys) {
+                if (key.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        SuggestionDto toDto() {
+            if (type == SuggestionDto.Type.PRODUCT && soldCounts.size() == 1) {
+                Long productId = soldCounts.keySet().iterator().next();
+                return new SuggestionDto(text, type, productId, slugs.get(productId));
+            }
+            return new SuggestionDto(text, type, null, null);
+        }
+    }
+
+    private static final class Node {
+        private static final Completion[] NONE = new Completion[0];
+
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private final List<Completion> entries = new ArrayList<>(1);
+        private Completion[] top = NONE;
+
+        Node child(char label) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char label) {
+            Node child = child(label);
+            if (child == null) {
+                child = new Node();
+                labels = Arrays.copyOf(labels, labels.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                labels[labels.length - 1] = label;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+
+        void removeChild(char label) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == label) {
+                    char[] newLabels = new char[labels.length - 1];
+                    Node[] newChildren = new Node[children.length - 1];
+                    System.arraycopy(labels, 0, newLabels, 0, i);
+                    System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+                    System.arraycopy(children, 0, newChildren, 0, i);
+                    System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+                    labels = newLabels;
+                    children = newChildren;
+                    return;
+                }
+            }
+        }
+
+        Node find(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            return node;
+        }
+
+        // Top completions of this subtree: own entries merged with the children's cached lists
+        void recompute() {
+            Set<Completion> candidates = new LinkedHashSet<>(entries);
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            if (candidates.isEmpty()) {
+                top = NONE;
+                return;
+            }
+            List<Completion> sorted = new ArrayList<>(candidates);
+            sorted.sort(BY_POPULARITY);
+            top = sorted.subList(0, Math.min(MAX_SUGGESTIONS, sorted.size())).toArray(NONE);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.second_project.ecommerce.security;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.BooleanSupplier;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -10,6 +11,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import com.second_project.ecommerce.entity.User;
 import com.second_project.ecommerce.entity.User.UserRole;
 
+/**
+ * The authenticated user. Built from the database at login, and from the token's claims
+ * (id, email, role) on every other request; those principals have no name or password, and
+ * their verified and seller-approved flags are looked up only when asked for (see
+ * JwtAuthenticationFilter).
+ */
 public class CustomUserDetails implements UserDetails {
 
     private final Long userId;
@@ -18,7 +25,8 @@ public class CustomUserDetails implements UserDetails {
     private final String email;
     private final String password;
     private final UserRole role;
-    private final boolean enabled;
+    private final BooleanSupplier verified;
+    private final BooleanSupplier sellerApproved;
 
     public CustomUserDetails(Long userId, String firstName, String lastName, String email, 
                            String password, UserRole role, boolean enabled) {
@@ -47,7 +55,8 @@ public class CustomUserDetails implements UserDetails {
         this.email = email;
         this.password = password;
         this.role = role;
-        this.enabled = enabled;
+        this.verified = () -> enabled;
+        this.sellerApproved = () -> false;
     }
 
     public CustomUserDetails(User user) {
@@ -61,7 +70,10 @@ public class CustomUserDetails implements UserDetails {
         this.email = user.getEmail();
         this.password = user.getPassword();
         this.role = user.getRole();
-        this.enabled = user.isEnabled();
+        boolean enabled = user.isEnabled();
+        this.verified = () -> enabled;
+        boolean approved = Boolean.TRUE.equals(user.getIsSellerApproved());
+        this.sellerApproved = () -> approved;
         
         if (this.userId == null) {
             throw new IllegalArgumentException("User ID cannot be null");
@@ -83,6 +95,29 @@ public class CustomUserDetails implements UserDetails {
         }
     }
 
+    private CustomUserDetails(Long userId, String email, UserRole role, BooleanSupplier verified,
+                              BooleanSupplier sellerApproved) {
+        this.userId = userId;
+        this.firstName = null;
+        this.lastName = null;
+        this.email = email;
+        this.password = null;
+        this.role = role;
+        this.verified = verified;
+        this.sellerApproved = sellerApproved;
+    }
+
+    /**
+     * Principal for a request authenticated by token, without loading the user.
+     */
+    public static CustomUserDetails fromClaims(Long userId, String email, UserRole role,
+                                               BooleanSupplier verified, BooleanSupplier sellerApproved) {
+        if (userId == null || email == null || email.isBlank() || role == null) {
+            throw new IllegalArgumentException("Token is missing the user ID, email or role");
+        }
+        return new CustomUserDetails(userId, email, role, verified, sellerApproved);
+    }
+
     public Long getUserId() {
         return userId;
     }
@@ -108,7 +143,11 @@ public class CustomUserDetails implements UserDetails {
     }
 
     public boolean isVerified() {
-        return enabled;
+        return verified.getAsBoolean();
+    }
+
+    public boolean isSellerApproved() {
+        return sellerApproved.getAsBoolean();
     }
 
     @Override
@@ -155,7 +194,6 @@ public class CustomUserDetails implements UserDetails {
                 ", lastName='" + lastName + '\'' +
                 ", email='" + email + '\'' +
                 ", role=" + role +
-                ", enabled=" + enabled +
                 '}';
     }
 }
@@ -1,6 +1,7 @@
 package com.second_project.ecommerce.security;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,22 +14,39 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.second_project.ecommerce.entity.User.UserRole;
+
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Authenticates requests from the bearer token alone: the token is verified once and the
+ * principal is built from its userId, subject and role claims, without a database query.
+ *
+ * Privileged requests (admin, seller and actuator paths, or a token claiming ADMIN or SELLER)
+ * take the role and seller approval from UserStateCache instead, so a role change or an
+ * approval applies before old tokens expire. Tokens without the userId and role claims still load the user by email.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    private static final List<String> PRIVILEGED_PATHS = List.of("/api/admin/", "/api/seller/", "/actuator/");
+
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final UserStateCache userStateCache;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   CustomUserDetailsService userDetailsService,
+                                   UserStateCache userStateCache) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.userStateCache = userStateCache;
     }
 
     @Override
@@ -40,10 +58,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
+            UserDetails userDetails = claims != null ? loadPrincipal(claims, request) : null;
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, 
@@ -61,6 +79,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Principal from the token's claims, or null if the user no longer exists
+     */
+    private UserDetails loadPrincipal(Claims claims, HttpServletRequest request) {
+        String email = claims.getSubject();
+        Long userId = claims.get("userId", Long.class);
+        UserRole tokenRole = parseRole(claims.get("role", String.class));
+        if (userId == null || tokenRole == null) {
+            // Token issued without the user claims
+            return userDetailsService.loadUserByUsername(email);
+        }
+
+        if (tokenRole != UserRole.CUSTOMER || isPrivilegedPath(request)) {
+            UserStateCache.UserState state = userStateCache.get(userId);
+            if (state == null) {
+                return null;
+            }
+            return CustomUserDetails.fromClaims(userId, email, state.role(), state::verified, state::sellerApproved);
+        }
+
+        // Only looked up if something asks whether the user is verified or an approved seller
+        return CustomUserDetails.fromClaims(userId, email, tokenRole,
+                () -> {
+                    UserStateCache.UserState state = userStateCache.get(userId);
+                    return state != null && state.verified();
+                },
+                () -> {
+                    UserStateCache.UserState state = userStateCache.get(userId);
+                    return state != null && state.sellerApproved();
+                });
+    }
+
+    private static UserRole parseRole(String role) {
+        if (role == null) {
+            return null;
+        }
+        try {
+            return UserRole.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPrivilegedPath(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PRIVILEGED_PATHS.stream().anyMatch(path::startsWith);
+    }
+
     /**
      * Extract JWT token from Authorization header
      */
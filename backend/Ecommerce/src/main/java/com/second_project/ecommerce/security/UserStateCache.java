@@ -0,0 +1,76 @@
+package com.second_project.ecommerce.security;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.second_project.ecommerce.config.properties.JwtProperties;
+import com.second_project.ecommerce.entity.User.UserRole;
+import com.second_project.ecommerce.repository.UserRepository;
+
+/**
+ * Current role, verified flag and seller approval per user, for requests authenticated by
+ * token. The token's own role is as old as the token; privileged requests check it against
+ * this state instead. Entries live for app.security.jwt.user-state-ttl-seconds and are dropped
+ * when the user changes (UserChangedEvent, which covers the admin role and seller-status
+ * endpoints). Bounded with least recently used eviction.
+ */
+@Component
+public class UserStateCache {
+
+    public record UserState(UserRole role, boolean verified, boolean sellerApproved) {}
+
+    private record Entry(UserState state, long expiresAt) {}
+
+    private final UserRepository userRepository;
+    private final JwtProperties properties;
+    // Access-ordered, guarded by its own monitor
+    private final LinkedHashMap<Long, Entry> states;
+
+    public UserStateCache(UserRepository userRepository, JwtProperties properties) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        int maxEntries = properties.getMaxCachedUserStates();
+        this.states = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The user's state, read from the database when not cached or expired; null if the user
+     * no longer exists.
+     */
+    public UserState get(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (states) {
+            entry = states.get(userId);
+        }
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.state();
+        }
+
+        List<Object[]> rows = userRepository.findAuthStateById(userId);
+        if (rows.isEmpty()) {
+            invalidate(userId);
+            return null;
+        }
+        Object[] row = rows.get(0);
+        UserState state = new UserState((UserRole) row[0], Boolean.TRUE.equals(row[1]), Boolean.TRUE.equals(row[2]));
+        synchronized (states) {
+            states.put(userId, new Entry(state, now + properties.getUserStateTtlSeconds() * 1000L));
+        }
+        return state;
+    }
+
+    public void invalidate(Long userId) {
+        synchronized (states) {
+            states.remove(userId);
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.second_project.ecommerce.entity.Cart;
 import com.second_project.ecommerce.entity.CartItem;
 import com.second_project.ecommerce.entity.User;
 import com.second_project.ecommerce.model.CartDto;
+import com.second_project.ecommerce.model.CartOperationDto;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CartService {
@@ -16,6 +18,11 @@ public interface CartService {
     void clearCart(User user);
     Optional<Cart> findByUser(User user);
     CartItem findCartItem(Long cartItemId);
+    List<Long> findProductIds(Long userId);
+    int getCartItemCount(Long userId);
+
+    // Write pending cart edits to the database; call before reading the cart tables directly
+    void flushCart(User user);
     
     // DTO methods for REST API (best practice to avoid lazy loading issues)
     CartDto getCartDto(User user);
@@ -23,6 +30,7 @@ public interface CartService {
     CartDto addOrReplaceItemDto(User user, Long productId, Integer quantity);
     CartDto updateItemQuantityDto(User user, Long cartItemId, Integer quantity);
     CartDto removeItemDto(User user, Long cartItemId);
+    CartDto applyOperationsDto(User user, List<CartOperationDto> operations);
 }
 
 
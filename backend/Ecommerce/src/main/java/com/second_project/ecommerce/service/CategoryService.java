@@ -5,6 +5,7 @@ import com.second_project.ecommerce.model.CategoryDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,11 +21,17 @@ public interface CategoryService {
     void delete(Long id);
     void updateProductCount(Long categoryId);
     
+    // Product counts (approved products only), kept current by ProductServiceImpl
+    void adjustProductCounts(Collection<Long> before, Collection<Long> after);
+    List<Long> findCountedCategoryIds(Long productId);
+    int recountProductCounts();
+    
     // DTO methods (for API responses)
     List<CategoryDto> findAllDtos();
     List<CategoryDto> findActiveCategoriesDtos();
     CategoryDto findDtoById(Long id);
     CategoryDto findDtoBySlug(String slug);
+    List<CategoryDto> findDtosByIds(Collection<Long> ids);
     CategoryDto saveDto(CategoryDto categoryDto);
     CategoryDto updateDto(Long id, CategoryDto categoryDto);
 }
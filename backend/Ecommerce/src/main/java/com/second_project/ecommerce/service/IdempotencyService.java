@@ -0,0 +1,38 @@
+package com.second_project.ecommerce.service;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for endpoints that must not run twice (checkout, buy-now).
+ *
+ * The first request with a key runs and its result is stored together with a hash of the
+ * request; retries with the same key get the stored result. A duplicate that arrives while the
+ * first one is still running waits for it. Reusing a key for a different request is rejected.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Run the action once per (user, key). Without a key the action simply runs.
+     *
+     * The action runs in a transaction together with storing its result, so the result is
+     * stored exactly when the action's own changes commit. Failures are not stored: a
+     * failed request may be retried with the same key.
+     *
+     * @param operation name of the endpoint, part of the request hash
+     * @param request   the request body (or parameters) the hash is computed from
+     * @throws IllegalArgumentException if the key was used for a different request
+     */
+    <T> T execute(Long userId, String key, String operation, Object request, Class<T> resultType, Supplier<T> action);
+
+    /**
+     * The stored result for a key, if the request already completed. Lets a controller answer
+     * a retry before doing any other work.
+     */
+    <T> Optional<T> findCompleted(Long userId, String key, String operation, Object request, Class<T> resultType);
+
+    /**
+     * Delete expired keys. Returns the number of database rows removed.
+     */
+    int purgeExpired();
+}
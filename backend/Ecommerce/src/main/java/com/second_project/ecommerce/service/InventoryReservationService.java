@@ -0,0 +1,70 @@
+package com.second_project.ecommerce.service;
+
+import java.util.Collection;
+
+import com.second_project.ecommerce.entity.Order;
+
+/**
+ * Reserve-at-checkout, commit-at-payment inventory.
+ *
+ * Checkout takes stock from an in-memory ledger instead of locking product rows; the order's
+ * stock_hold column records where its quantities are. Committed quantities are written to
+ * products.stock in batches by flushCommitted().
+ */
+public interface InventoryReservationService {
+
+    /**
+     * Hold the order's quantities until the reservation TTL runs out (payment still to come).
+     * Throws IllegalArgumentException if a product does not have enough stock.
+     */
+    void reserve(Order order);
+
+    /**
+     * Take the order's quantities for good (no payment step, e.g. cash on delivery).
+     */
+    void reserveAndCommit(Order order);
+
+    /**
+     * Payment received: commit the hold, or take the stock again if the hold already lapsed.
+     */
+    void commit(Order order);
+
+    /**
+     * Order cancelled: give its stock back, whatever state the hold is in.
+     */
+    void release(Order order);
+
+    /**
+     * release(Order) for many orders in one transaction: hold transitions are grouped by state and
+     * stock already in products.stock is given back with one grouped UPDATE for all products.
+     */
+    void releaseAll(Collection<Order> orders);
+
+    /**
+     * Release holds whose TTL has passed. Returns the number of orders released.
+     */
+    int releaseExpired();
+
+    /**
+     * Write committed quantities to products.stock. Returns the number of orders flushed.
+     */
+    int flushCommitted();
+
+    /**
+     * Re-read a product's stock after it changed outside the ledger. Only queues the product:
+     * callers are after-commit listeners whose thread may still hold a pool connection, so the
+     * read happens in refreshPendingStock().
+     */
+    void refreshStock(Long productId);
+
+    /**
+     * Re-read the stock of the products queued by refreshStock(). Returns how many were read.
+     */
+    int refreshPendingStock();
+
+    /**
+     * Load the ledger from products.stock and the orders' stock holds. Runs once (at startup or
+     * on first use); reloading later could drop holds whose transactions have not committed yet.
+     */
+    void load();
+}
@@ -0,0 +1,13 @@
+package com.second_project.ecommerce.service;
+
+/**
+ * Cancels QR orders whose payment never arrived, giving their stock back.
+ */
+public interface OrderExpiryService {
+
+    /**
+     * Cancel unpaid QR orders older than the configured window, in bounded chunks.
+     * Returns the number of orders cancelled.
+     */
+    int expireUnpaidOrders();
+}
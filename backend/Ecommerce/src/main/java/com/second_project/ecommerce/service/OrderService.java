@@ -14,6 +14,8 @@ public interface OrderService {
     Order createOrderFromCart(User user, CheckoutRequestDto checkoutRequest);
     Order updateOrderStatus(Long orderId, Order.OrderStatus status);
     com.second_project.ecommerce.model.OrderDto updateOrderStatusDto(Long orderId, Order.OrderStatus status);
+    // Bulk status change with per-order results; transitions must be allowed by OrderStatus.canTransitionTo
+    List<com.second_project.ecommerce.model.OrderStatusResultDto> updateOrderStatuses(List<Long> orderIds, Order.OrderStatus status, String cancellationReason);
     Optional<Order> findById(Long id);
     Page<Order> findByUser(User user, Pageable pageable);
     Page<Order> findAll(Pageable pageable);
@@ -27,6 +29,9 @@ public interface OrderService {
     com.second_project.ecommerce.model.OrderDto getOrderDtoById(Long id);
     Page<com.second_project.ecommerce.model.OrderDto> findByUserDto(User user, Pageable pageable);
     Page<com.second_project.ecommerce.model.OrderDto> findAllDto(Pageable pageable);
+    // Keyset (cursor) pagination, newest first; blank cursor = first page
+    com.second_project.ecommerce.model.CursorPage<com.second_project.ecommerce.model.OrderDto> scrollByUserDto(User user, String cursor, int size);
+    com.second_project.ecommerce.model.CursorPage<com.second_project.ecommerce.model.OrderDto> scrollAllDto(String cursor, int size);
     
     DashboardStatistics getDashboardStatistics(User user);
     
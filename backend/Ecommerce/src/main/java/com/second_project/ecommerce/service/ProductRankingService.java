@@ -0,0 +1,31 @@
+package com.second_project.ecommerce.service;
+
+import com.second_project.ecommerce.model.ProductDto;
+
+import java.util.List;
+
+/**
+ * In-memory top-K rankings for the "hot" (best selling) and "new" product rails,
+ * globally and per category. Backed by indexed ORDER BY ... LIMIT queries.
+ */
+public interface ProductRankingService {
+    /**
+     * Best selling approved products, optionally restricted to a category (null = all).
+     */
+    List<ProductDto> getHotProducts(Long categoryId, int limit);
+
+    /**
+     * Most recently created approved products (last 30 days), optionally restricted to a category.
+     */
+    List<ProductDto> getNewProducts(Long categoryId, int limit);
+
+    /**
+     * Mark all snapshots as outdated; they are rebuilt by the next refresh.
+     */
+    void markStale();
+
+    /**
+     * Rebuild snapshots if they were marked stale or have reached their maximum age.
+     */
+    void refreshIfStale();
+}
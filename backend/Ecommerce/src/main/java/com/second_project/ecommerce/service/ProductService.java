@@ -2,11 +2,16 @@ package com.second_project.ecommerce.service;
 
 import com.second_project.ecommerce.entity.Product;
 import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.ProductDto;
+import com.second_project.ecommerce.model.ProductFacetsDto;
+import com.second_project.ecommerce.search.ProductFacetFilter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductService {
@@ -25,14 +30,23 @@ public interface ProductService {
     Product rejectProduct(Long id, String reason);
     Page<Product> findPendingProducts(Pageable pageable);
     void incrementStock(Long productId, Integer quantity);
-    void decrementStock(Long productId, Integer quantity);
+    void incrementStock(Map<Long, Integer> quantitiesByProductId);
     
     // DTO methods
     Page<ProductDto> findAllDtos(Pageable pageable);
+    // Keyset (cursor) pagination: sortBy is createdAt, soldCount or price; blank cursor = first page
+    CursorPage<ProductDto> scrollByStatusDtos(Product.ProductStatus status, String sortBy, Sort.Direction direction, String cursor, int size);
+    CursorPage<ProductDto> scrollByCategoryIdDtos(Long categoryId, String cursor, int size);
     Page<ProductDto> findByStatusDtos(Product.ProductStatus status, Pageable pageable);
     Page<ProductDto> searchProductsDtos(String keyword, Pageable pageable);
+    // Keyword and/or facet filters; a blank keyword lists all approved products matching the filters
+    Page<ProductDto> searchProductsDtos(String keyword, ProductFacetFilter filter, Pageable pageable);
+    ProductFacetsDto getFacets(String keyword, ProductFacetFilter filter);
     Optional<ProductDto> findDtoById(Long id);
     Optional<ProductDto> findDtoBySlug(String slug);
+    // Lightweight lookups for conditional GETs (no DTO assembly)
+    Optional<Long> findVersionById(Long id);
+    Optional<Long> findIdBySlug(String slug);
     List<ProductDto> findFeaturedProductsDtos();
     List<ProductDto> findFeaturedProductsDtos(int limit);
     List<ProductDto> findNewProductsDtos();
@@ -40,6 +54,7 @@ public interface ProductService {
     List<ProductDto> findHotProductsDtos(int limit);
     Page<ProductDto> findByCategoryIdDtos(Long categoryId, Pageable pageable);
     Page<ProductDto> findBySellerIdDtos(Long sellerId, Pageable pageable);
+    Page<ProductDto> findBySellerDtos(User seller, Pageable pageable);
     Page<ProductDto> findPendingProductsDtos(Pageable pageable);
     ProductDto saveDto(ProductDto productDto);
     ProductDto updateDto(Long id, ProductDto productDto);
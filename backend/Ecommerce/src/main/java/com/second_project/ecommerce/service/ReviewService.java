@@ -5,6 +5,7 @@ import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.ReviewDto;
 
 /**
@@ -64,6 +65,31 @@ public interface ReviewService {
      */
     Page<ReviewDto> getReviewsByProductId(Long productId, Pageable pageable, Long currentUserId);
 
+    /**
+     * Get reviews for a product with keyset (cursor) pagination, newest first.
+     * No total count is computed.
+     * 
+     * @param productId Product ID
+     * @param rating Optional star filter (1-5), applied in the query
+     * @param cursor Cursor from the previous page (null or blank for the first page)
+     * @param size Page size
+     * @param currentUserId Current user ID (can be null for guests)
+     * @return Page of reviews with the cursor for the next page
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    CursorPage<ReviewDto> scrollReviewsByProductId(Long productId, Integer rating, String cursor, int size, Long currentUserId);
+
+    /**
+     * Get reviews by user with keyset (cursor) pagination, newest first.
+     * 
+     * @param userId User ID
+     * @param cursor Cursor from the previous page (null or blank for the first page)
+     * @param size Page size
+     * @return Page of user's reviews with the cursor for the next page
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    CursorPage<ReviewDto> scrollReviewsByUserId(Long userId, String cursor, int size);
+
     /**
      * Get reviews by user with pagination.
      * 
@@ -1,28 +1,56 @@
 package com.second_project.ecommerce.service.impl;
 
+import com.second_project.ecommerce.cache.CategorySnapshot;
 import com.second_project.ecommerce.entity.Category;
+import com.second_project.ecommerce.event.CategoryChangedEvent;
 import com.second_project.ecommerce.model.CategoryDto;
 import com.second_project.ecommerce.repository.CategoryRepository;
 import com.second_project.ecommerce.service.CategoryService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategorySnapshot categorySnapshot;
+    private final TransactionTemplate readOnlyNewTransaction;
+
+    public CategoryServiceImpl(CategoryRepository categoryRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               CategorySnapshot categorySnapshot,
+                               PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.categorySnapshot = categorySnapshot;
+        // The snapshot must hold the latest committed categories, not what the caller's
+        // transaction (possibly started before a category commit) still sees
+        this.readOnlyNewTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyNewTransaction.setReadOnly(true);
+        this.readOnlyNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
     @Transactional(readOnly = true)
@@ -60,7 +88,9 @@ public class CategoryServiceImpl implements CategoryService {
             category.setCreatedAt(LocalDateTime.now());
         }
         category.setUpdatedAt(LocalDateTime.now());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        publishChange(savedCategory.getId(), CategoryChangedEvent.ChangeType.DETAILS_CHANGED);
+        return savedCategory;
     }
 
     @Override
@@ -75,7 +105,9 @@ public class CategoryServiceImpl implements CategoryService {
         category.setIsActive(categoryDetails.getIsActive());
         category.setUpdatedAt(LocalDateTime.now());
 
-        return categoryRepository.save(category);
+        Category updatedCategory = categoryRepository.save(category);
+        publishChange(id, CategoryChangedEvent.ChangeType.DETAILS_CHANGED);
+        return updatedCategory;
     }
 
     @Override
@@ -83,53 +115,100 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found"));
         categoryRepository.delete(category);
+        publishChange(id, CategoryChangedEvent.ChangeType.DETAILS_CHANGED);
         log.info("Category deleted: {}", id);
     }
 
     @Override
     public void updateProductCount(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new IllegalArgumentException("Category not found"));
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new IllegalArgumentException("Category not found");
+        }
+        categoryRepository.rebuildProductCount(categoryId);
+        publishChange(categoryId, CategoryChangedEvent.ChangeType.COUNT_CHANGED);
+    }
 
-        int productCount = category.getProducts() != null ? category.getProducts().size() : 0;
-        category.setProductCount(productCount);
-        category.setUpdatedAt(LocalDateTime.now());
-        categoryRepository.save(category);
+    @Override
+    public void adjustProductCounts(Collection<Long> before, Collection<Long> after) {
+        Set<Long> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        Set<Long> added = new HashSet<>(after);
+        added.removeAll(before);
+
+        if (!removed.isEmpty()) {
+            categoryRepository.adjustProductCount(removed, -1);
+            removed.forEach(categoryId -> publishChange(categoryId, CategoryChangedEvent.ChangeType.COUNT_CHANGED));
+        }
+        if (!added.isEmpty()) {
+            categoryRepository.adjustProductCount(added, 1);
+            added.forEach(categoryId -> publishChange(categoryId, CategoryChangedEvent.ChangeType.COUNT_CHANGED));
+        }
     }
 
-    // DTO methods for API responses
     @Override
     @Transactional(readOnly = true)
+    public List<Long> findCountedCategoryIds(Long productId) {
+        return categoryRepository.findCountedCategoryIds(productId);
+    }
+
+    @Override
+    public int recountProductCounts() {
+        int corrected = categoryRepository.rebuildProductCounts();
+        if (corrected > 0) {
+            log.warn("Category product count recount corrected {} categories", corrected);
+            publishChange(null, CategoryChangedEvent.ChangeType.COUNT_CHANGED);
+        } else {
+            log.info("Category product counts verified, no drift found");
+        }
+        return corrected;
+    }
+
+    // DTO methods for API responses: served from the in-memory snapshot, no transaction
+    // is needed unless the snapshot has to be reloaded (which opens its own).
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryDto> findAllDtos() {
-        List<Category> categories = categoryRepository.findAll();
-        return categories.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return snapshot().all();
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoryDto> findActiveCategoriesDtos() {
-        List<Category> categories = categoryRepository.findByIsActiveTrue();
-        return categories.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return snapshot().active();
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CategoryDto findDtoById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Category not found"));
-        return convertToDto(category);
+        CategoryDto category = snapshot().byId(id);
+        if (category == null) {
+            throw new IllegalArgumentException("Category not found");
+        }
+        return category;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CategoryDto findDtoBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
-                .orElseThrow(() -> new IllegalArgumentException("Category not found"));
-        return convertToDto(category);
+        CategoryDto category = snapshot().bySlug(slug);
+        if (category == null) {
+            throw new IllegalArgumentException("Category not found");
+        }
+        return category;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<CategoryDto> findDtosByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CategorySnapshot.Snapshot snapshot = snapshot();
+        return ids.stream()
+                .distinct()
+                .map(snapshot::byId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -144,6 +223,7 @@ public class CategoryServiceImpl implements CategoryService {
         category.setDisplayOrder(categoryDto.getDisplayOrder() != null ? categoryDto.getDisplayOrder() : 0);
         
         Category savedCategory = categoryRepository.save(category);
+        publishChange(savedCategory.getId(), CategoryChangedEvent.ChangeType.DETAILS_CHANGED);
         return convertToDto(savedCategory);
     }
 
@@ -168,9 +248,24 @@ public class CategoryServiceImpl implements CategoryService {
         category.setUpdatedAt(LocalDateTime.now());
 
         Category updatedCategory = categoryRepository.save(category);
+        publishChange(id, CategoryChangedEvent.ChangeType.DETAILS_CHANGED);
         return convertToDto(updatedCategory);
     }
 
+    /**
+     * Notify listeners (ETags, caches) that a category changed.
+     */
+    private void publishChange(Long categoryId, CategoryChangedEvent.ChangeType changeType) {
+        eventPublisher.publishEvent(new CategoryChangedEvent(this, categoryId, changeType));
+    }
+
+    private CategorySnapshot.Snapshot snapshot() {
+        return categorySnapshot.get(() -> readOnlyNewTransaction.execute(status -> categoryRepository.findAll().stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .map(this::convertToDto)
+                .collect(Collectors.toList())));
+    }
+
     /**
      * Convert Category entity to CategoryDto.
      * 
@@ -188,10 +283,7 @@ public class CategoryServiceImpl implements CategoryService {
         dto.setDisplayOrder(category.getDisplayOrder());
         dto.setCreatedAt(category.getCreatedAt());
         dto.setUpdatedAt(category.getUpdatedAt());
-        
-        // Count products efficiently using repository query
-        Long productCount = categoryRepository.countProductsByCategoryId(category.getId());
-        dto.setProductCount(productCount != null ? productCount.intValue() : 0);
+        dto.setProductCount(category.getProductCount());
         
         return dto;
     }
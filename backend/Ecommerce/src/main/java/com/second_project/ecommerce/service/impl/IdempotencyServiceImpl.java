@@ -0,0 +1,242 @@
+package com.second_project.ecommerce.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.second_project.ecommerce.config.properties.IdempotencyProperties;
+import com.second_project.ecommerce.entity.IdempotencyRecord;
+import com.second_project.ecommerce.repository.IdempotencyRecordRepository;
+import com.second_project.ecommerce.service.IdempotencyService;
+
+/**
+ * Completed results live in a bounded LRU map in front of the idempotency_keys table; requests
+ * still running are tracked in a map of futures that duplicates wait on. The table's unique
+ * (user_id, idempotency_key) constraint settles races between application nodes: the loser's
+ * transaction, including the work it did, rolls back and it answers with the winner's result.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+
+    // Access-ordered, guarded by its own monitor
+    private final LinkedHashMap<RequestKey, Completed> completed;
+    private final Map<RequestKey, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository recordRepository,
+                                  IdempotencyProperties properties,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.recordRepository = recordRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        int maxEntries = properties.getMaxCachedEntries();
+        this.completed = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RequestKey, Completed> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public <T> T execute(Long userId, String key, String operation, Object request,
+                         Class<T> resultType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        RequestKey requestKey = new RequestKey(userId, validate(key));
+        String requestHash = hash(operation, request);
+
+        String stored = lookup(requestKey, requestHash);
+        if (stored != null) {
+            return read(stored, resultType);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(requestKey, mine);
+        if (running != null) {
+            requireSameRequest(running.requestHash(), requestHash);
+            return read(await(running.response()), resultType);
+        }
+        try {
+            // It may have completed between the lookup and registering as in flight
+            stored = lookup(requestKey, requestHash);
+            if (stored != null) {
+                mine.response().complete(stored);
+                return read(stored, resultType);
+            }
+
+            LocalDateTime expiresAt = LocalDateTime.now().plusHours(properties.getTtlHours());
+            Object[] outcome = new Object[2];
+            try {
+                transaction.executeWithoutResult(status -> {
+                    T result = action.get();
+                    String response = write(result);
+                    recordRepository.deleteExpiredKey(userId, requestKey.key(), LocalDateTime.now());
+                    recordRepository.saveAndFlush(
+                            new IdempotencyRecord(userId, requestKey.key(), requestHash, response, expiresAt));
+                    outcome[0] = result;
+                    outcome[1] = response;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another node completed the same key first; our work was rolled back
+                stored = lookup(requestKey, requestHash);
+                if (stored == null) {
+                    throw e;
+                }
+                mine.response().complete(stored);
+                return read(stored, resultType);
+            }
+
+            String response = (String) outcome[1];
+            remember(requestKey, new Completed(requestHash, response, expiresAt));
+            mine.response().complete(response);
+            return resultType.cast(outcome[0]);
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(requestKey, mine);
+        }
+    }
+
+    @Override
+    public <T> Optional<T> findCompleted(Long userId, String key, String operation, Object request,
+                                         Class<T> resultType) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        String stored = lookup(new RequestKey(userId, validate(key)), hash(operation, request));
+        return stored != null ? Optional.of(read(stored, resultType)) : Optional.empty();
+    }
+
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (completed) {
+            completed.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        }
+        Integer deleted = transaction.execute(status -> recordRepository.deleteExpired(now));
+        return deleted != null ? deleted : 0;
+    }
+
+    // Stored response for the key (memory first, then the table), or null if it has not completed
+    private String lookup(RequestKey requestKey, String requestHash) {
+        Completed entry;
+        synchronized (completed) {
+            entry = completed.get(requestKey);
+        }
+        if (entry == null) {
+            entry = recordRepository.findByUserIdAndIdempotencyKey(requestKey.userId(), requestKey.key())
+                    .filter(record -> !record.isExpired())
+                    .map(record -> new Completed(record.getRequestHash(), record.getResponse(), record.getExpiresAt()))
+                    .orElse(null);
+            if (entry == null) {
+                return null;
+            }
+            remember(requestKey, entry);
+        }
+        if (entry.expiresAt().isBefore(LocalDateTime.now())) {
+            return null;
+        }
+        requireSameRequest(entry.requestHash(), requestHash);
+        return entry.response();
+    }
+
+    private void remember(RequestKey requestKey, Completed entry) {
+        synchronized (completed) {
+            completed.put(requestKey, entry);
+        }
+    }
+
+    private String await(CompletableFuture<String> response) {
+        try {
+            return response.get(properties.getWaitSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalArgumentException("A request with this Idempotency-Key is still being processed, please retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        } catch (ExecutionException e) {
+            // The original request failed; the duplicate fails the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void requireSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private static String validate(String key) {
+        String trimmed = key.trim();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot hash request", e);
+        }
+    }
+
+    private String write(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize result", e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> resultType) {
+        try {
+            return objectMapper.readValue(response, resultType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored result", e);
+        }
+    }
+
+    private record RequestKey(Long userId, String key) {}
+
+    private record Completed(String requestHash, String response, LocalDateTime expiresAt) {}
+
+    private record InFlight(String requestHash, CompletableFuture<String> response) {}
+}
@@ -0,0 +1,460 @@
+package com.second_project.ecommerce.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.second_project.ecommerce.config.properties.InventoryProperties;
+import com.second_project.ecommerce.counter.ProductCounters;
+import com.second_project.ecommerce.entity.Order;
+import com.second_project.ecommerce.entity.OrderItem;
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.inventory.InventoryLedger;
+import com.second_project.ecommerce.repository.OrderRepository;
+import com.second_project.ecommerce.repository.ProductRepository;
+import com.second_project.ecommerce.service.InventoryReservationService;
+import com.second_project.ecommerce.service.ProductService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inventory reservations on top of InventoryLedger.
+ *
+ * The database stays the source of truth: orders.stock_hold says whether an order's
+ * quantities are RESERVED (held, TTL in stock_hold_expires_at), COMMITTED (taken, not yet in
+ * products.stock), RELEASED (given back) or null (already part of products.stock). Every
+ * state change is a conditional UPDATE inside the caller's transaction; the ledger follows
+ * once that transaction commits (or undoes a fresh hold on rollback).
+ *
+ * Product rows are only written by the flush job, in batches, never while a customer waits
+ * for a QR payment.
+ */
+@Service
+@Slf4j
+public class InventoryReservationServiceImpl implements InventoryReservationService {
+
+    private final InventoryLedger ledger;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final ProductCounters productCounters;
+    private final InventoryProperties inventoryProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyNewTransaction;
+    private final Counter shortfallCounter;
+    // Products whose stock changed outside the ledger, re-read by refreshPendingStock()
+    private final Set<Long> pendingRefresh = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loaded = false;
+
+    public InventoryReservationServiceImpl(InventoryLedger ledger,
+                                           OrderRepository orderRepository,
+                                           ProductRepository productRepository,
+                                           ProductService productService,
+                                           ProductCounters productCounters,
+                                           InventoryProperties inventoryProperties,
+                                           ApplicationEventPublisher eventPublisher,
+                                           PlatformTransactionManager transactionManager,
+                                           MeterRegistry meterRegistry) {
+        this.ledger = ledger;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.productCounters = productCounters;
+        this.inventoryProperties = inventoryProperties;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Stock reads for the ledger must see the latest committed value, not the snapshot
+        // of a checkout transaction that may have started before a flush
+        this.readOnlyNewTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyNewTransaction.setReadOnly(true);
+        this.readOnlyNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shortfallCounter = Counter.builder("inventory.flush.shortfall")
+                .description("Committed units the flush could not take because products.stock was lowered below them")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void reserve(Order order) {
+        ensureLoaded();
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(inventoryProperties.getReservationTtlMinutes());
+        hold(order);
+        orderRepository.setStockHold(order.getId(), Order.StockHold.RESERVED.name(), expiresAt);
+        order.setStockHold(Order.StockHold.RESERVED);
+        order.setStockHoldExpiresAt(expiresAt);
+    }
+
+    @Override
+    public void reserveAndCommit(Order order) {
+        ensureLoaded();
+        hold(order);
+        orderRepository.setStockHold(order.getId(), Order.StockHold.COMMITTED.name(), null);
+        order.setStockHold(Order.StockHold.COMMITTED);
+        afterCommit(() -> ledger.commit(order.getId()));
+    }
+
+    @Override
+    public void commit(Order order) {
+        ensureLoaded();
+        Long orderId = order.getId();
+        if (transition(orderId, Order.StockHold.RESERVED, Order.StockHold.COMMITTED)) {
+            afterCommit(() -> ledger.commit(orderId));
+        } else if (transition(orderId, Order.StockHold.RELEASED, Order.StockHold.COMMITTED)) {
+            // The hold lapsed (or the order was cancelled) before payment: take the stock again
+            try {
+                hold(order);
+            } catch (IllegalArgumentException e) {
+                // Undo the transition so a caller that carries on (bulk status update) leaves it released
+                transition(orderId, Order.StockHold.COMMITTED, Order.StockHold.RELEASED);
+                throw e;
+            }
+            afterCommit(() -> ledger.commit(orderId));
+        } else {
+            // Already committed or already part of products.stock
+            return;
+        }
+        order.setStockHold(Order.StockHold.COMMITTED);
+        order.setStockHoldExpiresAt(null);
+    }
+
+    @Override
+    public void release(Order order) {
+        releaseAll(List.of(order));
+    }
+
+    @Override
+    public void releaseAll(Collection<Order> orders) {
+        ensureLoaded();
+        Map<Order.StockHold, List<Long>> byHold = new HashMap<>();
+        List<Long> applied = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getStockHold() == null) {
+                applied.add(order.getId());
+            } else if (order.getStockHold() != Order.StockHold.RELEASED) {
+                byHold.computeIfAbsent(order.getStockHold(), hold -> new ArrayList<>()).add(order.getId());
+            }
+        }
+
+        // One UPDATE per hold state. Orders whose hold moved since they were read (paid, flushed
+        // or expired concurrently) are left over and settled one at a time below.
+        Set<Long> leftover = new HashSet<>();
+        List<Long> reserved = bulkTransition(byHold.getOrDefault(Order.StockHold.RESERVED, List.of()),
+                Order.StockHold.RESERVED, leftover);
+        List<Long> committed = bulkTransition(byHold.getOrDefault(Order.StockHold.COMMITTED, List.of()),
+                Order.StockHold.COMMITTED, leftover);
+        List<Long> restored = bulkTransition(applied, null, leftover);
+        for (Long orderId : leftover) {
+            if (transition(orderId, Order.StockHold.RESERVED, Order.StockHold.RELEASED)) {
+                reserved.add(orderId);
+            } else if (transition(orderId, Order.StockHold.COMMITTED, Order.StockHold.RELEASED)) {
+                committed.add(orderId);
+            } else if (orderRepository.transitionAppliedStockHold(orderId, Order.StockHold.RELEASED.name()) == 1) {
+                restored.add(orderId);
+            }
+        }
+
+        Map<Long, Integer> committedTotals = new TreeMap<>();
+        Map<Long, Integer> restoredTotals = new TreeMap<>();
+        if (!committed.isEmpty() || !restored.isEmpty()) {
+            Set<Long> committedIds = new HashSet<>(committed);
+            List<Long> itemOrderIds = new ArrayList<>(committed);
+            itemOrderIds.addAll(restored);
+            for (Object[] row : orderRepository.findItemQuantitiesByOrderIds(itemOrderIds)) {
+                Map<Long, Integer> totals = committedIds.contains((Long) row[0]) ? committedTotals : restoredTotals;
+                totals.merge((Long) row[1], ((Number) row[2]).intValue(), Integer::sum);
+            }
+        }
+        if (!reserved.isEmpty()) {
+            afterCommit(() -> reserved.forEach(ledger::release));
+        }
+        if (!committedTotals.isEmpty()) {
+            afterCommit(() -> ledger.releaseCommitted(committedTotals));
+        }
+        if (!restoredTotals.isEmpty()) {
+            // Already written to products.stock: restore it there (the ledger re-reads it on STOCK_CHANGED)
+            productService.incrementStock(restoredTotals);
+        }
+
+        Set<Long> released = new HashSet<>(reserved);
+        released.addAll(committed);
+        released.addAll(restored);
+        for (Order order : orders) {
+            if (released.contains(order.getId())) {
+                order.setStockHold(Order.StockHold.RELEASED);
+                order.setStockHoldExpiresAt(null);
+            }
+        }
+    }
+
+    @Override
+    public int releaseExpired() {
+        ensureLoaded();
+        int batchSize = inventoryProperties.getBatchSize();
+        int total = 0;
+        while (true) {
+            List<Long> orderIds = transaction.execute(status -> orderRepository.findIdsByStockHoldExpiredBefore(
+                    Order.StockHold.RESERVED, LocalDateTime.now(), PageRequest.of(0, batchSize)));
+            if (orderIds == null || orderIds.isEmpty()) {
+                return total;
+            }
+            // Paid or cancelled since it was selected: the transition fails and the order is skipped
+            List<Long> released = transaction.execute(status -> orderIds.stream()
+                    .filter(orderId -> transition(orderId, Order.StockHold.RESERVED, Order.StockHold.RELEASED))
+                    .toList());
+            released.forEach(ledger::release);
+            total += released.size();
+            if (orderIds.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    @Override
+    public int flushCommitted() {
+        ensureLoaded();
+        int batchSize = inventoryProperties.getBatchSize();
+        int total = 0;
+        while (true) {
+            List<Long> orderIds = transaction.execute(status -> orderRepository.findIdsByStockHold(
+                    Order.StockHold.COMMITTED, PageRequest.of(0, batchSize)));
+            if (orderIds == null || orderIds.isEmpty()) {
+                return total;
+            }
+            Map<Long, Map<Long, Integer>> itemsByOrder = new HashMap<>();
+            for (Object[] row : transaction.execute(status -> orderRepository.findItemQuantitiesByOrderIds(orderIds))) {
+                itemsByOrder.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                        .merge((Long) row[1], ((Number) row[2]).intValue(), Integer::sum);
+            }
+            Map<Long, Integer> productTotals = new TreeMap<>();
+            itemsByOrder.values().forEach(quantities -> quantities.forEach(
+                    (productId, quantity) -> productTotals.merge(productId, quantity, Integer::sum)));
+
+            // The write and the ledger update happen under the products' stripes, so a
+            // concurrent refreshStock cannot read the new stock and then see it reduced again.
+            // The stripes are taken inside the transaction, once its connection is held, and
+            // given back when it completes.
+            Map<Long, Integer> applied = new TreeMap<>();
+            int[] flushed = {0};
+            transaction.executeWithoutResult(status -> {
+                Runnable release = ledger.acquire(productTotals.keySet());
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completion) {
+                        try {
+                            if (completion == STATUS_COMMITTED) {
+                                ledger.applied(applied);
+                            }
+                        } finally {
+                            release.run();
+                        }
+                    }
+                });
+                for (Long orderId : orderIds) {
+                    // Cancelled since it was selected: its quantities are not taken
+                    if (orderRepository.clearStockHold(orderId, Order.StockHold.COMMITTED.name()) == 1) {
+                        itemsByOrder.getOrDefault(orderId, Map.of()).forEach(
+                                (productId, quantity) -> applied.merge(productId, quantity, Integer::sum));
+                        flushed[0]++;
+                    }
+                }
+                applied.forEach(this::applyCommitted);
+            });
+            productCounters.addSold(applied);
+
+            // Outside any transaction: listeners run right away and see the flushed stock
+            applied.keySet().forEach(productId -> eventPublisher.publishEvent(
+                    new ProductChangedEvent(this, productId, ProductChangedEvent.ChangeType.STOCK_CHANGED)));
+            total += flushed[0];
+            if (orderIds.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    @Override
+    public void refreshStock(Long productId) {
+        if (productId != null) {
+            pendingRefresh.add(productId);
+        }
+    }
+
+    @Override
+    public int refreshPendingStock() {
+        if (!loaded || pendingRefresh.isEmpty()) {
+            return 0;
+        }
+        // Taken out before the read: a change committed meanwhile queues the product again
+        List<Long> productIds = new ArrayList<>(pendingRefresh);
+        pendingRefresh.removeAll(productIds);
+        try {
+            // Connection first, then the stripes (see InventoryLedger)
+            readOnlyNewTransaction.executeWithoutResult(status -> productIds.forEach(productId ->
+                    ledger.refreshStock(productId, id -> productRepository.findStockById(id).orElse(null))));
+        } catch (RuntimeException e) {
+            pendingRefresh.addAll(productIds);
+            throw e;
+        }
+        return productIds.size();
+    }
+
+    @Override
+    public synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        Map<Long, Integer> stocks = new HashMap<>();
+        Map<Long, Map<Long, Integer>> reserved = new HashMap<>();
+        Map<Long, Integer> committed = new HashMap<>();
+        readOnlyNewTransaction.executeWithoutResult(status -> {
+            for (Object[] row : productRepository.findAllStocks()) {
+                stocks.put((Long) row[0], row[1] != null ? ((Number) row[1]).intValue() : 0);
+            }
+            for (Object[] row : orderRepository.findStockHoldItems(
+                    List.of(Order.StockHold.RESERVED, Order.StockHold.COMMITTED))) {
+                Long orderId = (Long) row[0];
+                Long productId = (Long) row[3];
+                int quantity = ((Number) row[4]).intValue();
+                if (row[1] == Order.StockHold.RESERVED) {
+                    reserved.computeIfAbsent(orderId, id -> new HashMap<>()).merge(productId, quantity, Integer::sum);
+                } else {
+                    committed.merge(productId, quantity, Integer::sum);
+                }
+            }
+        });
+        ledger.reset(stocks, reserved, committed);
+        loaded = true;
+        log.info("Inventory ledger loaded: {} products, {} open reservations, {} products with unflushed orders",
+                stocks.size(), reserved.size(), committed.size());
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    /**
+     * Hold the order's quantities in the ledger; undone if the surrounding transaction rolls back.
+     */
+    private void hold(Order order) {
+        Long orderId = order.getId();
+        Map<Long, Integer> quantities = quantities(order);
+        // Products the ledger has not seen yet are read before any stripe is taken (see InventoryLedger)
+        Map<Long, Integer> unseenStocks = new HashMap<>();
+        for (Long productId : quantities.keySet()) {
+            if (ledger.available(productId) == null) {
+                Integer stock = loadStock(productId);
+                if (stock != null) {
+                    unseenStocks.put(productId, stock);
+                }
+            }
+        }
+        Long shortProductId = ledger.reserve(orderId, quantities, unseenStocks::get);
+        if (shortProductId != null) {
+            String name = order.getItems().stream()
+                    .filter(item -> shortProductId.equals(item.getProduct().getId()))
+                    .map(item -> item.getProduct().getName())
+                    .findFirst()
+                    .orElse(String.valueOf(shortProductId));
+            throw new IllegalArgumentException("Insufficient stock for '" + name + "'");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        ledger.release(orderId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Move the orders from one hold state (null: already in products.stock) to RELEASED and return
+     * the ones that moved; the rest are added to leftover.
+     */
+    private List<Long> bulkTransition(List<Long> orderIds, Order.StockHold from, Set<Long> leftover) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String released = Order.StockHold.RELEASED.name();
+        int moved = from == null
+                ? orderRepository.transitionAppliedStockHolds(orderIds, released)
+                : orderRepository.transitionStockHolds(orderIds, from.name(), released);
+        if (moved == orderIds.size()) {
+            return new ArrayList<>(orderIds);
+        }
+        // Rows this transaction changed read as RELEASED; the others still show their old state
+        List<Long> movedIds = new ArrayList<>(orderRepository.findIdsByIdInAndStockHold(orderIds, released));
+        Set<Long> movedSet = new HashSet<>(movedIds);
+        orderIds.stream().filter(orderId -> !movedSet.contains(orderId)).forEach(leftover::add);
+        return movedIds;
+    }
+
+    // The ledger admitted these quantities, but a seller may have lowered products.stock below
+    // them since: take what is left and report the shortfall instead of hiding it
+    private void applyCommitted(Long productId, int quantity) {
+        if (productRepository.decrementStockIfAvailable(productId, quantity) == 1) {
+            return;
+        }
+        Integer stock = productRepository.findStockById(productId).orElse(null);
+        if (stock == null) {
+            return;
+        }
+        productRepository.applyCommittedStock(productId, quantity);
+        int shortfall = quantity - stock;
+        shortfallCounter.increment(shortfall);
+        log.warn("Product {} oversold by {}: {} committed units, only {} in stock; stock set to 0",
+                productId, shortfall, quantity, stock);
+    }
+
+    private boolean transition(Long orderId, Order.StockHold from, Order.StockHold to) {
+        return orderRepository.transitionStockHold(orderId, from.name(), to.name()) == 1;
+    }
+
+    private Integer loadStock(Long productId) {
+        return readOnlyNewTransaction.execute(status -> productRepository.findStockById(productId).orElse(null));
+    }
+
+    private static Map<Long, Integer> quantities(Order order) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.second_project.ecommerce.service.impl;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.second_project.ecommerce.config.properties.OrderExpiryProperties;
+import com.second_project.ecommerce.entity.Order;
+import com.second_project.ecommerce.entity.Payment;
+import com.second_project.ecommerce.repository.OrderRepository;
+import com.second_project.ecommerce.service.InventoryReservationService;
+import com.second_project.ecommerce.service.OrderExpiryService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Walks unpaid QR orders in (order_date, id) order along idx_order_status_date and cancels
+ * them one chunk per transaction: lock the chunk's orders that are still unpaid, mark them and
+ * their payments, release their stock with one releaseAll call.
+ *
+ * The scan position is kept between runs, since an order that was not eligible when passed
+ * (cash on delivery, already paid) never becomes eligible later. It starts over after a
+ * restart. A failed chunk stops the run without moving the position, so it is retried next time.
+ *
+ * Metrics: orders.expiry.cancelled, orders.expiry.failures and the orders.expiry.run timer.
+ */
+@Service
+@Slf4j
+public class OrderExpiryServiceImpl implements OrderExpiryService {
+
+    private static final LocalDateTime SCAN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final OrderExpiryProperties properties;
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+    private final Counter cancelledCounter;
+    private final Counter failureCounter;
+    private final Timer runTimer;
+
+    // Every unpaid order before this position has been looked at
+    private LocalDateTime afterDate = SCAN_START;
+    private long afterId = 0;
+
+    public OrderExpiryServiceImpl(OrderRepository orderRepository,
+                                  InventoryReservationService inventoryReservationService,
+                                  OrderExpiryProperties properties,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.inventoryReservationService = inventoryReservationService;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.cancelledCounter = Counter.builder("orders.expiry.cancelled")
+                .description("Unpaid QR orders cancelled by the expiry job")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("orders.expiry.failures")
+                .description("Expiry chunks that failed and will be retried")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("orders.expiry.run")
+                .description("Duration of one expiry run")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized int expireUnpaidOrders() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(properties.getUnpaidMinutes());
+        String reason = "Payment not received within " + properties.getUnpaidMinutes() + " minutes";
+        int cancelled = 0;
+        int scanned = 0;
+        try {
+            while (scanned < properties.getMaxPerRun()) {
+                int limit = Math.min(properties.getBatchSize(), properties.getMaxPerRun() - scanned);
+                List<Object[]> rows = transaction.execute(status ->
+                        orderRepository.findUnpaidQrOrdersBefore(cutoff, afterDate, afterId, limit));
+                if (!rows.isEmpty()) {
+                    List<Long> orderIds = rows.stream().map(row -> ((Number) row[0]).longValue()).toList();
+                    Integer chunk = transaction.execute(status -> cancel(orderIds, reason));
+                    cancelled += chunk;
+                    cancelledCounter.increment(chunk);
+                    scanned += rows.size();
+                    Object[] last = rows.get(rows.size() - 1);
+                    afterDate = toLocalDateTime(last[1]);
+                    afterId = ((Number) last[0]).longValue();
+                }
+                if (rows.size() < limit) {
+                    // Nothing unpaid is left before the cutoff
+                    afterDate = cutoff;
+                    afterId = 0;
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            throw e;
+        } finally {
+            sample.stop(runTimer);
+        }
+        return cancelled;
+    }
+
+    private int cancel(List<Long> orderIds, String reason) {
+        // Paid or cancelled since the scan: not returned, so left alone
+        List<Order> orders = orderRepository.findUnpaidForUpdate(orderIds);
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Order order : orders) {
+            order.setStatus(Order.OrderStatus.CANCELLED);
+            order.setCancellationReason(reason);
+            order.setUpdatedAt(now);
+            order.getPayment().setPaymentStatus(Payment.PaymentStatus.FAILED);
+        }
+        inventoryReservationService.releaseAll(orders);
+        orderRepository.saveAll(orders);
+        log.debug("Cancelled {} unpaid QR orders", orders.size());
+        return orders.size();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
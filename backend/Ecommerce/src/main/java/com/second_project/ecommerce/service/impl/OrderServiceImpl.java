@@ -2,22 +2,32 @@ package com.second_project.ecommerce.service.impl;
 
 import com.second_project.ecommerce.entity.*;
 import com.second_project.ecommerce.model.CheckoutRequestDto;
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.OrderDto;
 import com.second_project.ecommerce.model.OrderItemDto;
+import com.second_project.ecommerce.model.OrderStatusResultDto;
 import com.second_project.ecommerce.model.PaymentDto;
+import com.second_project.ecommerce.outbox.OrderPlacedPayload;
+import com.second_project.ecommerce.outbox.OutboxPublisher;
 import com.second_project.ecommerce.repository.OrderRepository;
 import com.second_project.ecommerce.repository.OrderItemRepository;
 import com.second_project.ecommerce.repository.CartRepository;
 import com.second_project.ecommerce.repository.PaymentRepository;
 import com.second_project.ecommerce.service.OrderService;
 import com.second_project.ecommerce.service.CartService;
+import com.second_project.ecommerce.service.InventoryReservationService;
 import com.second_project.ecommerce.service.ProductService;
+import com.second_project.ecommerce.util.KeysetCursor;
+import com.second_project.ecommerce.util.Money;
+import com.second_project.ecommerce.util.SnowflakeIdGenerator;
 import org.springframework.data.domain.PageImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,7 +35,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,15 +47,25 @@ import java.util.Optional;
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    // Orders per bulk status update
+    private static final int MAX_STATUS_BATCH = 500;
+    // Flat shipping fee per order
+    private static final Money SHIPPING_FEE = Money.of(30000);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final CartRepository cartRepository;
     private final CartService cartService;
     private final ProductService productService;
     private final PaymentRepository paymentRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final OutboxPublisher outboxPublisher;
 
     @Override
     public Order createOrder(User user, String shippingAddress, String shippingPhone) {
+        // Cart edits are written back in the background; read the cart as the user sees it
+        cartService.flushCart(user);
+
         // Get user's cart
         Cart cart = cartRepository.findByUser(user)
                 .orElseThrow(() -> new IllegalArgumentException("Cart is empty"));
@@ -83,11 +107,11 @@ public class OrderServiceImpl implements OrderService {
             orderItem.setUpdatedAt(LocalDateTime.now());
             orderItemRepository.save(orderItem);
             savedOrder.getItems().add(orderItem);
-
-            // Decrease product stock
-            productService.decrementStock(product.getId(), cartItem.getQuantity());
         }
 
+        // Take the stock (no payment step on this path)
+        inventoryReservationService.reserveAndCommit(savedOrder);
+
         // Clear cart
         cartService.clearCart(user);
 
@@ -98,23 +122,26 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
 
         Order.OrderStatus oldStatus = order.getStatus();
-        order.setStatus(status);
-        order.setUpdatedAt(LocalDateTime.now());
+        applyStatus(order, status, LocalDateTime.now());
 
         // Handle status-specific logic
         switch (status) {
             case COMPLETED:
-                order.setDeliveredDate(LocalDateTime.now());
-                order.setDeliveryStatus(Order.DeliveryStatus.DELIVERED);
+                inventoryReservationService.commit(order);
+                break;
+            case CONFIRMED:
+            case PROCESSING:
+                // Payment confirmed: the stock reservation becomes final
+                inventoryReservationService.commit(order);
                 break;
             case CANCELLED:
-                // Restore product stock
-                for (OrderItem item : order.getItems()) {
-                    productService.incrementStock(item.getProduct().getId(), item.getQuantity());
+                // Restore product stock once; an order that was already cancelled has nothing left to give back
+                if (oldStatus != Order.OrderStatus.CANCELLED) {
+                    inventoryReservationService.release(order);
                 }
                 break;
         }
@@ -131,6 +158,76 @@ public class OrderServiceImpl implements OrderService {
         return convertToDto(order);
     }
 
+    /**
+     * Moves up to MAX_STATUS_BATCH orders in one transaction. The orders are locked first, so the
+     * unpaid order expiry job and other status changes wait for it. Orders that cannot make the move
+     * are reported and left as they are; the rest are saved together. Cancellations release
+     * their stock through one releaseAll call, so restoring stock costs a grouped UPDATE
+     * rather than one per order item.
+     */
+    @Override
+    public List<OrderStatusResultDto> updateOrderStatuses(List<Long> orderIds, Order.OrderStatus status,
+                                                          String cancellationReason) {
+        if (status == null) {
+            throw new IllegalArgumentException("Target status is required");
+        }
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one order id is required");
+        }
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > MAX_STATUS_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_BATCH + " orders can be updated at once");
+        }
+        String reason = trimReason(cancellationReason);
+
+        Map<Long, Order> ordersById = orderRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderStatusResultDto> results = new ArrayList<>(ids.size());
+        List<Order> updated = new ArrayList<>();
+        List<Order> cancelled = new ArrayList<>();
+        for (Long orderId : ids) {
+            Order order = ordersById.get(orderId);
+            if (order == null) {
+                results.add(new OrderStatusResultDto(orderId, "NOT_FOUND", null, null, "Order not found"));
+                continue;
+            }
+            Order.OrderStatus previous = order.getStatus();
+            if (previous == status) {
+                results.add(new OrderStatusResultDto(orderId, "UNCHANGED", previous, previous, "Order is already " + status));
+                continue;
+            }
+            if (previous == null || !previous.canTransitionTo(status)) {
+                results.add(new OrderStatusResultDto(orderId, "REJECTED", previous, previous,
+                        "Cannot change order status from " + previous + " to " + status));
+                continue;
+            }
+            if (status == Order.OrderStatus.CANCELLED) {
+                if (reason != null) {
+                    order.setCancellationReason(reason);
+                }
+                cancelled.add(order);
+            } else {
+                try {
+                    inventoryReservationService.commit(order);
+                } catch (IllegalArgumentException e) {
+                    results.add(new OrderStatusResultDto(orderId, "FAILED", previous, previous, e.getMessage()));
+                    continue;
+                }
+            }
+            applyStatus(order, status, now);
+            updated.add(order);
+            results.add(new OrderStatusResultDto(orderId, "UPDATED", previous, status, null));
+        }
+
+        if (!cancelled.isEmpty()) {
+            inventoryReservationService.releaseAll(cancelled);
+        }
+        orderRepository.saveAll(updated);
+        log.info("Bulk status update to {}: {} of {} orders updated", status, updated.size(), ids.size());
+        return results;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Order> findById(Long id) {
@@ -155,6 +252,30 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByStatusOrderByOrderDateDesc(status, pageable);
     }
 
+    private void publishOrderPlaced(Order order, User user, Payment.PaymentMethod paymentMethod) {
+        outboxPublisher.publish(OrderPlacedPayload.TYPE, order.getId(), new OrderPlacedPayload(
+                order.getId(), order.getOrderNumber(), user.getUserId(), user.getEmail(),
+                order.getTotalAmount(), paymentMethod.name()));
+    }
+
+    private static void applyStatus(Order order, Order.OrderStatus status, LocalDateTime now) {
+        order.setStatus(status);
+        order.setUpdatedAt(now);
+        if (status == Order.OrderStatus.COMPLETED) {
+            order.setDeliveredDate(now);
+            order.setDeliveryStatus(Order.DeliveryStatus.DELIVERED);
+        }
+    }
+
+    // Blank means no reason; longer reasons are cut to the column length
+    private static String trimReason(String cancellationReason) {
+        if (cancellationReason == null || cancellationReason.trim().isEmpty()) {
+            return null;
+        }
+        String trimmedReason = cancellationReason.trim();
+        return trimmedReason.length() > 500 ? trimmedReason.substring(0, 500) : trimmedReason;
+    }
+
     @Override
     public void cancelOrder(Long orderId, User user, String cancellationReason) {
         Order order = orderRepository.findById(orderId)
@@ -172,11 +293,8 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // Set cancellation reason (trim and validate)
-        if (cancellationReason != null && !cancellationReason.trim().isEmpty()) {
-            String trimmedReason = cancellationReason.trim();
-            if (trimmedReason.length() > 500) {
-                trimmedReason = trimmedReason.substring(0, 500);
-            }
+        String trimmedReason = trimReason(cancellationReason);
+        if (trimmedReason != null) {
             order.setCancellationReason(trimmedReason);
             log.debug("Setting cancellation reason on order {}: {}", orderId, trimmedReason);
         } else {
@@ -189,9 +307,7 @@ public class OrderServiceImpl implements OrderService {
         order.setUpdatedAt(LocalDateTime.now());
 
         // Restore product stock when cancelling
-        for (OrderItem item : order.getItems()) {
-            productService.incrementStock(item.getProduct().getId(), item.getQuantity());
-        }
+        inventoryReservationService.release(order);
 
         // Save the order with cancellation reason and status
         Order savedOrder = orderRepository.save(order);
@@ -271,7 +387,8 @@ public class OrderServiceImpl implements OrderService {
             return createBuyNowOrder(user, checkoutRequest);
         }
         
-        // Get user's cart
+        // Get user's cart (pending edits written first)
+        cartService.flushCart(user);
         Cart cart = cartRepository.findByUser(user)
                 .orElseThrow(() -> new IllegalArgumentException("Cart not found for user: " + user.getUserId()));
 
@@ -288,9 +405,8 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // Validate stock and calculate totals
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal shippingFee = BigDecimal.valueOf(30000); // Default shipping fee
-        BigDecimal discount = BigDecimal.ZERO;
+        Money subtotal = Money.ZERO;
+        Money discount = Money.ZERO;
         
         for (CartItem cartItem : cart.getItems()) {
             Product product = cartItem.getProduct();
@@ -309,18 +425,18 @@ public class OrderServiceImpl implements OrderService {
                                  cartItem.getQuantity()));
             }
             
-            subtotal = subtotal.add(cartItem.getTotalPrice());
+            subtotal = subtotal.plus(Money.of(cartItem.getTotalPrice()));
         }
         
-        BigDecimal totalAmount = subtotal.add(shippingFee).subtract(discount);
+        Money totalAmount = subtotal.plus(SHIPPING_FEE).minus(discount);
 
         // Create order
         Order order = new Order();
         order.setUser(user);
-        order.setSubtotal(subtotal);
-        order.setShippingFee(shippingFee);
-        order.setDiscount(discount);
-        order.setTotalAmount(totalAmount);
+        order.setSubtotal(subtotal.toBigDecimal());
+        order.setShippingFee(SHIPPING_FEE.toBigDecimal());
+        order.setDiscount(discount.toBigDecimal());
+        order.setTotalAmount(totalAmount.toBigDecimal());
         order.setOrderStatus(Order.OrderStatus.PENDING);
         order.setDeliveryStatus(Order.DeliveryStatus.PENDING);
         order.setShippingAddress(checkoutRequest.getShippingAddress());
@@ -328,7 +444,7 @@ public class OrderServiceImpl implements OrderService {
         order.setNotes(checkoutRequest.getNotes());
         order.setOrderDate(LocalDateTime.now());
 
-        // Create order items and update stock
+        // Create order items
         for (CartItem cartItem : cart.getItems()) {
             Product product = cartItem.getProduct();
 
@@ -342,24 +458,28 @@ public class OrderServiceImpl implements OrderService {
             orderItem.setCreatedAt(LocalDateTime.now());
             orderItem.setUpdatedAt(LocalDateTime.now());
             order.addItem(orderItem);
-
-            // Update stock
-            productService.decrementStock(product.getId(), cartItem.getQuantity());
         }
 
         // Save order (cascades to order items)
         Order savedOrder = orderRepository.save(order);
 
+        // Take the stock from the reservation ledger; the pre-check above is only for a
+        // friendly message and can be outdated by a concurrent checkout
+        holdStock(savedOrder, paymentMethod);
+
         // Create payment
         Payment payment = new Payment();
         payment.setOrder(savedOrder);
         payment.setPaymentMethod(paymentMethod);
         payment.setPaymentStatus(Payment.PaymentStatus.PENDING);
-        payment.setAmount(totalAmount);
+        payment.setAmount(order.getTotalAmount());
         payment.setTransactionId(generateTransactionCode());
         savedOrder.setPayment(payment);
         paymentRepository.save(payment);
 
+        // Confirmation email and other follow-ups run after commit, off the request thread
+        publishOrderPlaced(savedOrder, user, paymentMethod);
+
         // Note: Cart is NOT cleared - items remain in cart for potential future orders
         // (Following book_store pattern)
 
@@ -405,18 +525,17 @@ public class OrderServiceImpl implements OrderService {
         
         // Calculate totals
         BigDecimal unitPrice = product.getPrice();
-        BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
-        BigDecimal shippingFee = BigDecimal.valueOf(30000); // Default shipping fee
-        BigDecimal discount = BigDecimal.ZERO;
-        BigDecimal totalAmount = subtotal.add(shippingFee).subtract(discount);
+        Money subtotal = Money.of(unitPrice).times(quantity);
+        Money discount = Money.ZERO;
+        Money totalAmount = subtotal.plus(SHIPPING_FEE).minus(discount);
         
         // Create order
         Order order = new Order();
         order.setUser(user);
-        order.setSubtotal(subtotal);
-        order.setShippingFee(shippingFee);
-        order.setDiscount(discount);
-        order.setTotalAmount(totalAmount);
+        order.setSubtotal(subtotal.toBigDecimal());
+        order.setShippingFee(SHIPPING_FEE.toBigDecimal());
+        order.setDiscount(discount.toBigDecimal());
+        order.setTotalAmount(totalAmount.toBigDecimal());
         order.setOrderStatus(Order.OrderStatus.PENDING);
         order.setDeliveryStatus(Order.DeliveryStatus.PENDING);
         order.setShippingAddress(checkoutRequest.getShippingAddress());
@@ -435,21 +554,24 @@ public class OrderServiceImpl implements OrderService {
         orderItem.setUpdatedAt(LocalDateTime.now());
         order.addItem(orderItem);
         
-        // Update stock
-        productService.decrementStock(product.getId(), quantity);
-        
         // Save order (cascades to order items)
         Order savedOrder = orderRepository.save(order);
         
+        // Take the stock from the reservation ledger
+        holdStock(savedOrder, paymentMethod);
+        
         // Create payment
         Payment payment = new Payment();
         payment.setOrder(savedOrder);
         payment.setPaymentMethod(paymentMethod);
         payment.setPaymentStatus(Payment.PaymentStatus.PENDING);
-        payment.setAmount(totalAmount);
+        payment.setAmount(order.getTotalAmount());
         payment.setTransactionId(generateTransactionCode());
         savedOrder.setPayment(payment);
         paymentRepository.save(payment);
+
+        // Confirmation email and other follow-ups run after commit, off the request thread
+        publishOrderPlaced(savedOrder, user, paymentMethod);
         
         log.info("Buy-now order created successfully: orderId={}, totalAmount={}", 
                  savedOrder.getId(), totalAmount);
@@ -457,12 +579,24 @@ public class OrderServiceImpl implements OrderService {
         return savedOrder;
     }
 
+    /**
+     * QR payments take minutes, so their stock is only reserved until the payment is confirmed
+     * (or the reservation expires). Cash on delivery takes the stock right away.
+     */
+    private void holdStock(Order order, Payment.PaymentMethod paymentMethod) {
+        if (paymentMethod == Payment.PaymentMethod.QR) {
+            inventoryReservationService.reserve(order);
+        } else {
+            inventoryReservationService.reserveAndCommit(order);
+        }
+    }
+
     /**
      * Generate a transaction code for payment.
      * In production, this should integrate with payment gateway.
      */
     private String generateTransactionCode() {
-        return "TXN" + String.format("%08d", System.currentTimeMillis() % 100000000);
+        return "TXN" + SnowflakeIdGenerator.shared().nextCode();
     }
 
     // DTO methods for REST API (best practice to avoid lazy loading and circular reference issues)
@@ -500,6 +634,35 @@ public class OrderServiceImpl implements OrderService {
         return new PageImpl<>(dtos, pageable, orderPage.getTotalElements());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> scrollByUserDto(User user, String cursor, int size) {
+        Sort.Direction direction = KeysetCursor.direction(cursor, Sort.Direction.DESC);
+        Window<Order> window = orderRepository.findByUser(user,
+                KeysetCursor.toPosition(cursor, "createdAt"),
+                KeysetCursor.sort("createdAt", direction),
+                KeysetCursor.limit(size));
+        return toCursorPage(window, direction);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> scrollAllDto(String cursor, int size) {
+        Sort.Direction direction = KeysetCursor.direction(cursor, Sort.Direction.DESC);
+        Window<Order> window = orderRepository.findByIdNotNull(
+                KeysetCursor.toPosition(cursor, "createdAt"),
+                KeysetCursor.sort("createdAt", direction),
+                KeysetCursor.limit(size));
+        return toCursorPage(window, direction);
+    }
+
+    private CursorPage<OrderDto> toCursorPage(Window<Order> window, Sort.Direction direction) {
+        List<OrderDto> dtos = window.getContent().stream()
+                .map(this::convertToDto)
+                .collect(java.util.stream.Collectors.toList());
+        return new CursorPage<>(dtos, KeysetCursor.next(window, "createdAt", direction));
+    }
+
     /**
      * Convert Order entity to OrderDto.
      * BEST PRACTICE: Convert entities to DTOs within @Transactional method
@@ -0,0 +1,205 @@
+package com.second_project.ecommerce.service.impl;
+
+import com.second_project.ecommerce.entity.Product;
+import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.model.CategoryDto;
+import com.second_project.ecommerce.model.ProductDto;
+import com.second_project.ecommerce.repository.ProductRepository;
+import com.second_project.ecommerce.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds ProductDto objects for a whole page of products at once.
+ *
+ * Instead of running seller, category and sold-count queries for every product,
+ * the assembler collects the page's product IDs and loads each kind of related data
+ * with a single IN-list query, then joins everything in memory. The number of queries
+ * per page stays constant no matter how many products the page contains. Review
+ * statistics come from the rating aggregates stored on Product itself, and sold and view
+ * counts from the columns ProductCounters maintains.
+ *
+ * Must be called inside a transaction (all callers are @Transactional service methods).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDtoAssembler {
+
+    private final ProductRepository productRepository;
+    private final CategoryService categoryService;
+
+    /**
+     * Convert a single product. Uses the same batch queries with a one-element ID list.
+     */
+    public ProductDto toDto(Product product) {
+        if (product == null) {
+            log.warn("Attempted to convert null product to DTO");
+            return null;
+        }
+        return toDtos(Collections.singletonList(product)).get(0);
+    }
+
+    /**
+     * Convert a list of products, preserving order.
+     */
+    public List<ProductDto> toDtos(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> productIds = products.stream()
+                .map(Product::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Long, User> sellers = loadSellers(productIds);
+        Map<Long, Set<Long>> categoryIdsByProduct = loadCategoryIds(productIds);
+        Map<Long, CategoryDto> categories = loadCategories(categoryIdsByProduct);
+
+        List<ProductDto> dtos = new ArrayList<>(products.size());
+        for (Product product : products) {
+            dtos.add(buildDto(product, sellers, categoryIdsByProduct, categories));
+        }
+        return dtos;
+    }
+
+    private ProductDto buildDto(Product product,
+                                Map<Long, User> sellers,
+                                Map<Long, Set<Long>> categoryIdsByProduct,
+                                Map<Long, CategoryDto> categories) {
+        try {
+            ProductDto dto = new ProductDto();
+            dto.setId(product.getId());
+            dto.setName(product.getName());
+            dto.setBrand(product.getBrand());
+            dto.setSku(product.getSku());
+            dto.setSlug(product.getSlug());
+            dto.setDescription(product.getDescription());
+            dto.setPrice(product.getPrice());
+            dto.setOriginalPrice(product.getOriginalPrice());
+            dto.setStock(product.getStock() != null ? product.getStock() : 0);
+            dto.setSoldCount(product.getSoldCount() != null ? product.getSoldCount() : 0);
+            dto.setViewCount(product.getViewCount() != null ? product.getViewCount() : 0L);
+            dto.setImages(product.getImages() != null ? product.getImages() : new ArrayList<>());
+            dto.setIsFeatured(product.getIsFeatured() != null ? product.getIsFeatured() : false);
+            dto.setIsHot(product.getIsHot() != null ? product.getIsHot() : false);
+            dto.setIsNew(product.getIsNew() != null ? product.getIsNew() : false);
+            dto.setStatus(product.getStatus() != null ? product.getStatus() : Product.ProductStatus.PENDING);
+            dto.setCreatedAt(product.getCreatedAt());
+            dto.setUpdatedAt(product.getUpdatedAt());
+
+            Long productId = product.getId();
+            if (productId == null) {
+                return dto;
+            }
+
+            // Seller information
+            User seller = sellers.get(productId);
+            if (seller != null) {
+                dto.setSellerId(seller.getUserId());
+                // Use store name if available, otherwise use seller's full name
+                String sellerName = seller.getStoreName() != null && !seller.getStoreName().trim().isEmpty()
+                    ? seller.getStoreName()
+                    : ((seller.getFirstName() != null ? seller.getFirstName() : "") + " " + (seller.getLastName() != null ? seller.getLastName() : "")).trim();
+                dto.setSellerName(sellerName);
+                dto.setSellerEmail(seller.getEmail() != null ? seller.getEmail() : "");
+            }
+
+            // Category IDs and category details
+            Set<Long> categoryIds = categoryIdsByProduct.get(productId);
+            if (categoryIds != null && !categoryIds.isEmpty()) {
+                // Create a new HashSet to avoid any concurrent modification issues during serialization
+                dto.setCategoryIds(new HashSet<>(categoryIds));
+                dto.setCategories(categoryIds.stream()
+                        .map(categories::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+            }
+
+            // Review statistics from the denormalized aggregates (0 / 0.0 when there are no reviews)
+            dto.setReviewCount(product.getReviewCount() != null ? product.getReviewCount().longValue() : 0L);
+            dto.setRating(product.getAverageRating());
+
+            return dto;
+        } catch (Exception e) {
+            log.error("Error converting product {} to DTO: {}", product.getId(), e.getMessage(), e);
+            // Return a minimal DTO with basic info to prevent complete failure
+            ProductDto dto = new ProductDto();
+            dto.setId(product.getId());
+            dto.setName(product.getName() != null ? product.getName() : "Unknown Product");
+            dto.setStatus(product.getStatus() != null ? product.getStatus() : Product.ProductStatus.PENDING);
+            return dto;
+        }
+    }
+
+    private Map<Long, User> loadSellers(Set<Long> productIds) {
+        Map<Long, User> sellers = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return sellers;
+        }
+        try {
+            for (Object[] row : productRepository.findSellersByProductIds(productIds)) {
+                sellers.put((Long) row[0], (User) row[1]);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to load sellers for products {}: {}", productIds, e.getMessage());
+            // Continue without seller info - this is not critical
+        }
+        return sellers;
+    }
+
+    private Map<Long, Set<Long>> loadCategoryIds(Set<Long> productIds) {
+        Map<Long, Set<Long>> categoryIdsByProduct = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return categoryIdsByProduct;
+        }
+        try {
+            for (Object[] row : productRepository.findCategoryIdsByProductIds(productIds)) {
+                categoryIdsByProduct.computeIfAbsent((Long) row[0], id -> new LinkedHashSet<>()).add((Long) row[1]);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to load categories for products {}: {}", productIds, e.getMessage());
+            // Continue without category info
+        }
+        return categoryIdsByProduct;
+    }
+
+    private Map<Long, CategoryDto> loadCategories(Map<Long, Set<Long>> categoryIdsByProduct) {
+        Set<Long> categoryIds = categoryIdsByProduct.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        Map<Long, CategoryDto> categories = new HashMap<>();
+        if (categoryIds.isEmpty()) {
+            return categories;
+        }
+        try {
+            for (CategoryDto category : categoryService.findDtosByIds(categoryIds)) {
+                categories.put(category.getId(), withoutProductCount(category));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to load category details {}: {}", categoryIds, e.getMessage());
+        }
+        return categories;
+    }
+
+    // Product responses (and the caches and ETags behind them) must not change when only a
+    // category's product count does
+    private static CategoryDto withoutProductCount(CategoryDto category) {
+        return new CategoryDto(category.getId(), category.getName(), category.getSlug(), category.getDescription(),
+                category.getImageUrl(), category.getIsActive(), category.getDisplayOrder(),
+                category.getCreatedAt(), category.getUpdatedAt(), null);
+    }
+}
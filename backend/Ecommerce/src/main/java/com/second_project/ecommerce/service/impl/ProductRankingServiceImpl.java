@@ -0,0 +1,174 @@
+package com.second_project.ecommerce.service.impl;
+
+import com.second_project.ecommerce.entity.Product;
+import com.second_project.ecommerce.model.ProductDto;
+import com.second_project.ecommerce.repository.ProductRepository;
+import com.second_project.ecommerce.service.CategoryService;
+import com.second_project.ecommerce.service.ProductRankingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves the hot/new product rails from immutable in-memory snapshots.
+ *
+ * Each snapshot holds the top {@value #TOP_K} products for one category (or for the whole
+ * catalog), loaded with indexed ORDER BY soldCount / createdAt queries with a LIMIT.
+ * Reads never touch the database once a snapshot exists. Product changes only flip a
+ * stale flag (see ProductRankingEventListener); ProductRankingRefreshScheduler rebuilds
+ * the snapshots in the background, so a burst of orders costs one rebuild, not one per order.
+ * Snapshots exist only for categories that exist (checked against the category snapshot), so
+ * their number is bounded by the categories table; a deleted category's is dropped on refresh.
+ */
+@Service
+@Slf4j
+public class ProductRankingServiceImpl implements ProductRankingService {
+
+    // Snapshot depth; requests asking for more go straight to the database
+    private static final int TOP_K = 50;
+    // Key used for the catalog-wide snapshot
+    private static final Long ALL_CATEGORIES = 0L;
+    private static final int NEW_PRODUCT_DAYS = 30;
+    // Rebuild at least this often so the "new" window keeps moving without any events
+    private static final long MAX_SNAPSHOT_AGE_MS = 10 * 60 * 1000L;
+
+    private final ProductRepository productRepository;
+    private final ProductDtoAssembler productDtoAssembler;
+    private final CategoryService categoryService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<Long, Rankings> snapshots = new ConcurrentHashMap<>();
+    private final AtomicBoolean stale = new AtomicBoolean(false);
+    private volatile long lastRefreshMillis = System.currentTimeMillis();
+
+    public ProductRankingServiceImpl(ProductRepository productRepository,
+                                     ProductDtoAssembler productDtoAssembler,
+                                     CategoryService categoryService,
+                                     PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productDtoAssembler = productDtoAssembler;
+        this.categoryService = categoryService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<ProductDto> getHotProducts(Long categoryId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (limit > TOP_K) {
+            return readOnlyTransaction.execute(status -> productDtoAssembler.toDtos(loadHot(categoryId, limit)));
+        }
+        return head(snapshot(categoryId).hot, limit);
+    }
+
+    @Override
+    public List<ProductDto> getNewProducts(Long categoryId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (limit > TOP_K) {
+            return readOnlyTransaction.execute(status -> productDtoAssembler.toDtos(loadNew(categoryId, limit)));
+        }
+        return head(snapshot(categoryId).newest, limit);
+    }
+
+    @Override
+    public void markStale() {
+        stale.set(true);
+    }
+
+    @Override
+    public void refreshIfStale() {
+        boolean expired = System.currentTimeMillis() - lastRefreshMillis > MAX_SNAPSHOT_AGE_MS;
+        if (!stale.getAndSet(false) && !expired) {
+            return;
+        }
+        lastRefreshMillis = System.currentTimeMillis();
+        try {
+            // Only rebuild keys that have been requested; unused categories stay unloaded
+            for (Long key : new ArrayList<>(snapshots.keySet())) {
+                if (isKnown(key)) {
+                    snapshots.put(key, load(key));
+                } else {
+                    snapshots.remove(key);
+                }
+            }
+            log.debug("Refreshed {} product ranking snapshots", snapshots.size());
+        } catch (Exception e) {
+            // Keep serving the previous snapshots and retry on the next tick
+            stale.set(true);
+            log.warn("Failed to refresh product rankings: {}", e.getMessage());
+        }
+    }
+
+    private Rankings snapshot(Long categoryId) {
+        Long key = categoryId != null ? categoryId : ALL_CATEGORIES;
+        Rankings rankings = snapshots.get(key);
+        if (rankings != null) {
+            return rankings;
+        }
+        if (!isKnown(key)) {
+            // Unknown category: nothing to rank, and nothing kept for it
+            return Rankings.EMPTY;
+        }
+        // First request for this key: computeIfAbsent makes concurrent callers share one load
+        return snapshots.computeIfAbsent(key, this::load);
+    }
+
+    private boolean isKnown(Long key) {
+        return ALL_CATEGORIES.equals(key) || !categoryService.findDtosByIds(List.of(key)).isEmpty();
+    }
+
+    private Rankings load(Long key) {
+        Long categoryId = ALL_CATEGORIES.equals(key) ? null : key;
+        return readOnlyTransaction.execute(status -> new Rankings(
+                Collections.unmodifiableList(productDtoAssembler.toDtos(loadHot(categoryId, TOP_K))),
+                Collections.unmodifiableList(productDtoAssembler.toDtos(loadNew(categoryId, TOP_K)))));
+    }
+
+    private List<Product> loadHot(Long categoryId, int limit) {
+        PageRequest top = PageRequest.of(0, limit);
+        return categoryId == null
+                ? productRepository.findTopSelling(Product.ProductStatus.APPROVED, top)
+                : productRepository.findTopSellingByCategoryId(categoryId, Product.ProductStatus.APPROVED, top);
+    }
+
+    private List<Product> loadNew(Long categoryId, int limit) {
+        PageRequest top = PageRequest.of(0, limit);
+        LocalDateTime since = LocalDateTime.now().minusDays(NEW_PRODUCT_DAYS);
+        return categoryId == null
+                ? productRepository.findNewest(Product.ProductStatus.APPROVED, since, top)
+                : productRepository.findNewestByCategoryId(categoryId, Product.ProductStatus.APPROVED, since, top);
+    }
+
+    private static List<ProductDto> head(List<ProductDto> ranked, int limit) {
+        return ranked.size() <= limit ? ranked : ranked.subList(0, limit);
+    }
+
+    /**
+     * Immutable pair of ranked lists for one category.
+     */
+    private static final class Rankings {
+        private static final Rankings EMPTY = new Rankings(List.of(), List.of());
+
+        private final List<ProductDto> hot;
+        private final List<ProductDto> newest;
+
+        private Rankings(List<ProductDto> hot, List<ProductDto> newest) {
+            this.hot = hot;
+            this.newest = newest;
+        }
+    }
+}
@@ -1,25 +1,43 @@
 package com.second_project.ecommerce.service.impl;
 
+import com.second_project.ecommerce.cache.ProductDetailCache;
+import com.second_project.ecommerce.counter.ProductCounters;
+import com.second_project.ecommerce.entity.Category;
 import com.second_project.ecommerce.entity.Product;
 import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.ProductDto;
+import com.second_project.ecommerce.model.ProductFacetsDto;
 import com.second_project.ecommerce.repository.ProductRepository;
-import com.second_project.ecommerce.repository.ReviewRepository;
+import com.second_project.ecommerce.search.ProductFacetFilter;
+import com.second_project.ecommerce.search.ProductFacetIndex;
+import com.second_project.ecommerce.search.ProductSearchIndex;
 import com.second_project.ecommerce.service.CategoryService;
+import com.second_project.ecommerce.service.ProductRankingService;
 import com.second_project.ecommerce.service.ProductService;
+import com.second_project.ecommerce.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,12 +46,21 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
+    // Products per grouped stock UPDATE
+    private static final int STOCK_UPDATE_CHUNK = 500;
+
     private final ProductRepository productRepository;
-    private final ReviewRepository reviewRepository;
     private final CategoryService categoryService;
     private final com.second_project.ecommerce.service.UserService userService;
     private final com.second_project.ecommerce.repository.CartItemRepository cartItemRepository;
-    private final com.second_project.ecommerce.repository.OrderItemRepository orderItemRepository;
+    private final ProductDtoAssembler productDtoAssembler;
+    private final ProductRankingService productRankingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductDetailCache productDetailCache;
+    private final ProductCounters productCounters;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     @Transactional(readOnly = true)
@@ -85,7 +112,8 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Product save(Product product) {
-        if (product.getId() == null) {
+        boolean isNew = product.getId() == null;
+        if (isNew) {
             product.setCreatedAt(LocalDateTime.now());
             // Only set status to PENDING for new products if status is not already set
             if (product.getStatus() == null) {
@@ -93,13 +121,20 @@ public class ProductServiceImpl implements ProductService {
             }
         }
         product.setUpdatedAt(LocalDateTime.now());
-        return productRepository.save(product);
+        // Counted categories as stored; read before the save (expects a new or detached product,
+        // changes to a managed one go through update/updateDto)
+        Set<Long> countedBefore = isNew ? Set.of() : new HashSet<>(categoryService.findCountedCategoryIds(product.getId()));
+        Product savedProduct = productRepository.save(product);
+        categoryService.adjustProductCounts(countedBefore, countedCategoryIds(savedProduct));
+        publishChange(savedProduct.getId(), isNew ? ProductChangedEvent.ChangeType.CREATED : ProductChangedEvent.ChangeType.UPDATED);
+        return savedProduct;
     }
 
     @Override
     public Product update(Long id, Product productDetails) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+        Set<Long> countedBefore = countedCategoryIds(product);
 
         product.setName(productDetails.getName());
         product.setSlug(productDetails.getSlug());
@@ -112,7 +147,10 @@ public class ProductServiceImpl implements ProductService {
         product.setCategories(productDetails.getCategories());
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        categoryService.adjustProductCounts(countedBefore, countedCategoryIds(savedProduct));
+        publishChange(id, ProductChangedEvent.ChangeType.UPDATED);
+        return savedProduct;
     }
 
     @Override
@@ -137,9 +175,12 @@ public class ProductServiceImpl implements ProductService {
         
         // Soft delete: Mark product as DISCONTINUED instead of hard delete
         // This preserves data integrity for order history while removing product from active listings
+        Set<Long> countedBefore = countedCategoryIds(product);
         product.setStatus(Product.ProductStatus.DISCONTINUED);
         product.setUpdatedAt(LocalDateTime.now());
         productRepository.save(product);
+        categoryService.adjustProductCounts(countedBefore, Set.of());
+        publishChange(id, ProductChangedEvent.ChangeType.STATUS_CHANGED);
         
         if (hasOrderItems) {
             log.info("Product {} marked as DISCONTINUED (has {} order items - preserved for history)", 
@@ -154,9 +195,12 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
+        Set<Long> countedBefore = countedCategoryIds(product);
         product.setStatus(Product.ProductStatus.APPROVED);
         product.setUpdatedAt(LocalDateTime.now());
         Product savedProduct = productRepository.save(product);
+        categoryService.adjustProductCounts(countedBefore, countedCategoryIds(savedProduct));
+        publishChange(id, ProductChangedEvent.ChangeType.STATUS_CHANGED);
         log.info("Product approved: {}", id);
         return savedProduct;
     }
@@ -166,10 +210,13 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
+        Set<Long> countedBefore = countedCategoryIds(product);
         product.setStatus(Product.ProductStatus.REJECTED);
         product.setUpdatedAt(LocalDateTime.now());
         // TODO: Store rejection reason and notify seller
         Product savedProduct = productRepository.save(product);
+        categoryService.adjustProductCounts(countedBefore, Set.of());
+        publishChange(id, ProductChangedEvent.ChangeType.STATUS_CHANGED);
         log.info("Product rejected: {} - Reason: {}", id, reason);
         return savedProduct;
     }
@@ -182,31 +229,59 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public void incrementStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-        product.setStock(product.getStock() + quantity);
-        // Decrement soldCount when stock is restored (order cancelled)
-        if (product.getSoldCount() != null && product.getSoldCount() >= quantity) {
-            product.setSoldCount(product.getSoldCount() - quantity);
+        requirePositive(quantity);
+        // Restores stock (order cancelled) and takes the quantity back off soldCount
+        if (productRepository.incrementStock(productId, quantity) == 0) {
+            throw new IllegalArgumentException("Product not found");
         }
-        product.setUpdatedAt(LocalDateTime.now());
-        productRepository.save(product);
+        productCounters.addSold(productId, -quantity);
+        publishChange(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED);
     }
 
+    /**
+     * Restore stock for many products at once (bulk cancellation): one
+     * UPDATE ... SET stock = stock + CASE id WHEN ... END per chunk of products instead of one
+     * statement per product. Products that no longer exist are skipped.
+     */
     @Override
-    public void decrementStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-
-        if (product.getStock() < quantity) {
-            throw new IllegalArgumentException("Insufficient stock");
+    public void incrementStock(Map<Long, Integer> quantitiesByProductId) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(quantitiesByProductId).entrySet());
+        entries.forEach(entry -> requirePositive(entry.getValue()));
+        for (int from = 0; from < entries.size(); from += STOCK_UPDATE_CHUNK) {
+            List<Map.Entry<Long, Integer>> chunk = entries.subList(from, Math.min(from + STOCK_UPDATE_CHUNK, entries.size()));
+            StringBuilder sql = new StringBuilder("UPDATE products SET stock = stock + CASE id");
+            List<Object> args = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : chunk) {
+                sql.append(" WHEN ? THEN ?");
+                args.add(entry.getKey());
+                args.add(entry.getValue());
+            }
+            sql.append(" ELSE 0 END, version = COALESCE(version, 0) + 1 WHERE id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                args.add(chunk.get(i).getKey());
+            }
+            sql.append(')');
+            int updated = jdbcTemplate.update(sql.toString(), args.toArray());
+            if (updated < chunk.size()) {
+                log.warn("Stock restore skipped {} missing product(s)", chunk.size() - updated);
+            }
         }
+        productCounters.addSold(negated(quantitiesByProductId));
+        quantitiesByProductId.keySet()
+                .forEach(productId -> publishChange(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+    }
 
-        product.setStock(product.getStock() - quantity);
-        // Increment soldCount when stock is decremented (order created)
-        product.setSoldCount((product.getSoldCount() != null ? product.getSoldCount() : 0) + quantity);
-        product.setUpdatedAt(LocalDateTime.now());
-        productRepository.save(product);
+    private static Map<Long, Integer> negated(Map<Long, Integer> quantitiesByProductId) {
+        Map<Long, Integer> negated = new TreeMap<>();
+        quantitiesByProductId.forEach((productId, quantity) -> negated.put(productId, -quantity));
+        return negated;
+    }
+
+    private static void requirePositive(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
     }
 
     // DTO methods
@@ -216,11 +291,7 @@ public class ProductServiceImpl implements ProductService {
         try {
             // Include all products including DISCONTINUED (admin should see all)
             Page<Product> productPage = productRepository.findAll(pageable);
-            List<ProductDto> dtos = productPage.getContent().stream()
-                    .map(this::convertToDtoSafe)
-                    .filter(dto -> dto != null)
-                    .collect(Collectors.toList());
-            
+            List<ProductDto> dtos = productDtoAssembler.toDtos(productPage.getContent());
             return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
         } catch (Exception e) {
             log.error("Error in findAllDtos: {}", e.getMessage(), e);
@@ -232,102 +303,176 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public Page<ProductDto> findByStatusDtos(Product.ProductStatus status, Pageable pageable) {
         Page<Product> productPage = productRepository.findByStatus(status, pageable);
-        List<ProductDto> dtos = productPage.getContent().stream()
-                .map(this::convertToDtoSafe)
-                .collect(Collectors.toList());
+        List<ProductDto> dtos = productDtoAssembler.toDtos(productPage.getContent());
         return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> scrollByStatusDtos(Product.ProductStatus status, String sortBy,
+                                                     Sort.Direction direction, String cursor, int size) {
+        Sort.Direction effectiveDirection = KeysetCursor.direction(cursor, direction);
+        Window<Product> window = productRepository.findByStatus(status,
+                KeysetCursor.toPosition(cursor, sortBy),
+                KeysetCursor.sort(sortBy, effectiveDirection),
+                KeysetCursor.limit(size));
+        return new CursorPage<>(productDtoAssembler.toDtos(window.getContent()),
+                KeysetCursor.next(window, sortBy, effectiveDirection));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> scrollByCategoryIdDtos(Long categoryId, String cursor, int size) {
+        // Newest first, like the offset listing's default
+        Sort.Direction direction = KeysetCursor.direction(cursor, Sort.Direction.DESC);
+        Window<Product> window = productRepository.findByCategoriesIdAndStatus(categoryId, Product.ProductStatus.APPROVED,
+                KeysetCursor.toPosition(cursor, "createdAt"),
+                KeysetCursor.sort("createdAt", direction),
+                KeysetCursor.limit(size));
+        return new CursorPage<>(productDtoAssembler.toDtos(window.getContent()),
+                KeysetCursor.next(window, "createdAt", direction));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ProductDto> searchProductsDtos(String keyword, Pageable pageable) {
-        // Only show APPROVED products in public search (exclude DISCONTINUED, PENDING, REJECTED, OUT_OF_STOCK)
-        Page<Product> productPage = productRepository.searchByKeyword(keyword, Product.ProductStatus.APPROVED, pageable);
-        List<ProductDto> dtos = productPage.getContent().stream()
-                .map(this::convertToDtoSafe)
+        return searchProductsDtos(keyword, ProductFacetFilter.none(), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDto> searchProductsDtos(String keyword, ProductFacetFilter filter, Pageable pageable) {
+        boolean hasKeyword = keyword != null && !keyword.isBlank();
+        if (!productSearchIndex.isReady() || !productFacetIndex.isReady()) {
+            // Indexes still building after startup: fall back to the database, without facet filters
+            if (!filter.isEmpty()) {
+                log.debug("Search indexes not ready, ignoring facet filters");
+            }
+            // Only show APPROVED products in public search (exclude DISCONTINUED, PENDING, REJECTED, OUT_OF_STOCK)
+            Page<Product> productPage = hasKeyword
+                    ? productRepository.searchByKeyword(keyword, Product.ProductStatus.APPROVED, pageable)
+                    : productRepository.findByStatus(Product.ProductStatus.APPROVED, pageable);
+            List<ProductDto> dtos = productDtoAssembler.toDtos(productPage.getContent());
+            return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
+        }
+
+        // Ranked IDs from the in-memory index, narrowed by the facet bitsets
+        List<Long> rankedIds = hasKeyword ? productSearchIndex.search(keyword) : null;
+        List<Long> matchingIds = rankedIds != null && filter.isEmpty()
+                ? rankedIds
+                : productFacetIndex.filter(rankedIds, filter);
+        return loadRankedPage(matchingIds, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductFacetsDto getFacets(String keyword, ProductFacetFilter filter) {
+        if (!productFacetIndex.isReady() || !productSearchIndex.isReady()) {
+            return new ProductFacetsDto();
+        }
+        List<Long> rankedIds = keyword != null && !keyword.isBlank() ? productSearchIndex.search(keyword) : null;
+        return productFacetIndex.facets(rankedIds, filter);
+    }
+
+    /**
+     * Load one page of an ordered ID list; only the requested slice is read from the database.
+     */
+    private Page<ProductDto> loadRankedPage(List<Long> orderedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), orderedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), orderedIds.size());
+        List<Long> pageIds = orderedIds.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, orderedIds.size());
+        }
+
+        Map<Long, Product> byId = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        // Keep index order; the status check guards against an update not yet applied to the index
+        List<Product> products = pageIds.stream()
+                .map(byId::get)
+                .filter(product -> product != null && product.getStatus() == Product.ProductStatus.APPROVED)
                 .collect(Collectors.toList());
-        return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
+        return new PageImpl<>(productDtoAssembler.toDtos(products), pageable, orderedIds.size());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ProductDto> findDtoById(Long id) {
-        return productRepository.findById(id)
-                .map(this::convertToDtoSafe);
+        // Version probe (one PK lookup); the DTO is only reassembled when this version is not cached
+        return productDetailCache.get(id, () -> productRepository.findVersionById(id),
+                () -> productRepository.findById(id).map(productDtoAssembler::toDto));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ProductDto> findDtoBySlug(String slug) {
-        return productRepository.findBySlug(slug)
-                .map(this::convertToDto);
+        Long cachedId = productDetailCache.findIdBySlug(slug);
+        if (cachedId != null) {
+            Optional<ProductDto> cached = findDtoById(cachedId);
+            // The slug may have changed since it was cached
+            if (cached.isPresent() && slug.equals(cached.get().getSlug())) {
+                return cached;
+            }
+        }
+        return productRepository.findIdBySlug(slug)
+                .flatMap(this::findDtoById);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long id) {
+        return productRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findIdBySlug(String slug) {
+        Long cachedId = productDetailCache.findIdBySlug(slug);
+        return cachedId != null ? Optional.of(cachedId) : productRepository.findIdBySlug(slug);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductDto> findFeaturedProductsDtos() {
         List<Product> products = productRepository.findByIsFeaturedTrueAndStatusOrderByCreatedAtDesc(Product.ProductStatus.APPROVED);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productDtoAssembler.toDtos(products);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductDto> findFeaturedProductsDtos(int limit) {
         List<Product> products = productRepository.findByIsFeaturedTrueAndStatusOrderByCreatedAtDesc(Product.ProductStatus.APPROVED);
-        return products.stream()
+        return productDtoAssembler.toDtos(products.stream()
                 .limit(limit)
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductDto> findNewProductsDtos() {
         List<Product> products = productRepository.findByIsNewTrueAndStatusOrderByCreatedAtDesc(Product.ProductStatus.APPROVED);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productDtoAssembler.toDtos(products);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductDto> findNewProductsDtos(int limit) {
         // Get new products based on creation date (within 30 days), not isNew flag
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        List<Product> products = productRepository.findByStatus(Product.ProductStatus.APPROVED, PageRequest.of(0, 1000))
-                .stream()
-                .filter(p -> p.getCreatedAt() != null && p.getCreatedAt().isAfter(thirtyDaysAgo))
-                .sorted((p1, p2) -> p2.getCreatedAt().compareTo(p1.getCreatedAt()))
-                .limit(limit)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRankingService.getNewProducts(null, limit);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductDto> findHotProductsDtos(int limit) {
         // Get hot products based on soldCount (buy counts), not isHot flag
-        List<Product> products = productRepository.findByStatus(Product.ProductStatus.APPROVED, PageRequest.of(0, 1000))
-                .stream()
-                .sorted((p1, p2) -> Integer.compare(p2.getSoldCount(), p1.getSoldCount()))
-                .limit(limit)
-                .collect(Collectors.toList());
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRankingService.getHotProducts(null, limit);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProductDto> findByCategoryIdDtos(Long categoryId, Pageable pageable) {
         Page<Product> productPage = productRepository.findByCategoryIdAndStatus(categoryId, Product.ProductStatus.APPROVED, pageable);
-        List<ProductDto> dtos = productPage.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> dtos = productDtoAssembler.toDtos(productPage.getContent());
         return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
     }
 
@@ -339,49 +484,22 @@ public class ProductServiceImpl implements ProductService {
         
         Page<Product> productPage = productRepository.findBySellerIdAndStatus(sellerId, Product.ProductStatus.APPROVED, pageable);
         
-        // If no products found, check if there are any products with this sellerId but different status
-        // This helps debug the issue
         if (productPage.getTotalElements() == 0) {
-            log.warn("No APPROVED products found for sellerId: {}. Checking all products for this seller...", sellerId);
-            
-            // Check using native query to see actual seller_id values
-            try {
-                Long productId = 2L; // The product ID from the image
-                Long actualSellerId = productRepository.findSellerIdByProductId(productId);
-                log.warn("Product ID 2 has seller_id: {}, but we're looking for sellerId: {}", actualSellerId, sellerId);
-            } catch (Exception e) {
-                log.warn("Could not check product seller_id: {}", e.getMessage());
-            }
-            
-            Page<Product> allProducts = productRepository.findBySellerIdExcludingDiscontinued(sellerId, pageable);
-            if (allProducts.getTotalElements() > 0) {
-                log.warn("Found {} products for sellerId {} but none are APPROVED. Statuses: {}", 
-                    allProducts.getTotalElements(), sellerId,
-                    allProducts.getContent().stream()
-                        .map(p -> p.getStatus().name())
-                        .collect(Collectors.toSet()));
-                
-                // Also log the product IDs and their seller IDs for debugging
-                allProducts.getContent().forEach(p -> {
-                    try {
-                        Long productSellerId = p.getSeller() != null ? p.getSeller().getUserId() : null;
-                        Long dbSellerId = productRepository.findSellerIdByProductId(p.getId());
-                        log.warn("Product ID: {}, Name: {}, Status: {}, Seller.userId: {}, DB seller_id: {}, Expected SellerId: {}", 
-                            p.getId(), p.getName(), p.getStatus(), productSellerId, dbSellerId, sellerId);
-                    } catch (Exception e) {
-                        log.warn("Could not get seller info for product {}: {}", p.getId(), e.getMessage());
-                    }
-                });
-            } else {
-                log.warn("No products found at all for sellerId: {}. Checking if seller exists...", sellerId);
-            }
+            log.debug("No APPROVED products found for sellerId: {}", sellerId);
         } else {
             log.debug("Found {} APPROVED products for sellerId: {}", productPage.getTotalElements(), sellerId);
         }
         
-        List<ProductDto> dtos = productPage.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> dtos = productDtoAssembler.toDtos(productPage.getContent());
+        return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDto> findBySellerDtos(User seller, Pageable pageable) {
+        // Seller dashboard: all of the seller's products regardless of status
+        Page<Product> productPage = productRepository.findBySeller(seller, pageable);
+        List<ProductDto> dtos = productDtoAssembler.toDtos(productPage.getContent());
         return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
     }
 
@@ -389,9 +507,7 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public Page<ProductDto> findPendingProductsDtos(Pageable pageable) {
         Page<Product> productPage = productRepository.findByStatus(Product.ProductStatus.PENDING, pageable);
-        List<ProductDto> dtos = productPage.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> dtos = productDtoAssembler.toDtos(productPage.getContent());
         return new PageImpl<>(dtos, pageable, productPage.getTotalElements());
     }
 
@@ -409,8 +525,8 @@ public class ProductServiceImpl implements ProductService {
         
         Product savedProduct = save(product);
         productRepository.flush(); // Ensure changes are persisted before DTO conversion
-        // Use convertToDtoSafe to avoid lazy loading issues with Category.products
-        return convertToDtoSafe(savedProduct);
+        // Assembler reads seller/categories with explicit queries, avoiding lazy loading issues with Category.products
+        return productDtoAssembler.toDto(savedProduct);
     }
 
     @Override
@@ -418,6 +534,7 @@ public class ProductServiceImpl implements ProductService {
     public ProductDto updateDto(Long id, ProductDto productDto) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+        Set<Long> countedBefore = countedCategoryIds(product);
 
         // Update fields
         if (productDto.getName() != null) {
@@ -479,211 +596,45 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        categoryService.adjustProductCounts(countedBefore, countedCategoryIds(updatedProduct));
         // Flush to ensure all changes are persisted before converting to DTO
         productRepository.flush();
-        // Use convertToDtoSafe to avoid lazy loading issues with Category.products
-        // All lazy-loaded relationships should be accessed within this transaction
-        return convertToDtoSafe(updatedProduct);
+        publishChange(id, ProductChangedEvent.ChangeType.UPDATED);
+        // Assembler reads seller/categories with explicit queries, avoiding lazy loading issues with Category.products
+        return productDtoAssembler.toDto(updatedProduct);
     }
 
     @Override
     public ProductDto approveProductDto(Long id) {
         Product product = approveProduct(id);
-        // Use convertToDtoSafe to avoid lazy loading issues with Category.products
-        return convertToDtoSafe(product);
+        return productDtoAssembler.toDto(product);
     }
 
     @Override
     public ProductDto rejectProductDto(Long id, String reason) {
         Product product = rejectProduct(id, reason);
-        // Use convertToDtoSafe to avoid lazy loading issues with Category.products
-        return convertToDtoSafe(product);
+        return productDtoAssembler.toDto(product);
     }
 
     /**
-     * Convert Product entity to ProductDto safely without accessing lazy-loaded relationships.
-     * Uses separate queries to fetch seller and category information.
+     * Notify listeners (rankings, etc.) that a product changed.
      */
-    private ProductDto convertToDtoSafe(Product product) {
-        if (product == null) {
-            log.warn("Attempted to convert null product to DTO");
-            return null;
-        }
-
-        try {
-            ProductDto dto = new ProductDto();
-            dto.setId(product.getId());
-            dto.setName(product.getName());
-            dto.setBrand(product.getBrand());
-            dto.setSku(product.getSku());
-            dto.setSlug(product.getSlug());
-            dto.setDescription(product.getDescription());
-            dto.setPrice(product.getPrice());
-            dto.setOriginalPrice(product.getOriginalPrice());
-            dto.setStock(product.getStock() != null ? product.getStock() : 0);
-            // Calculate soldCount from order items if product's soldCount is 0 or null
-            Integer soldCount = product.getSoldCount() != null ? product.getSoldCount() : 0;
-            if (soldCount == 0 && product.getId() != null) {
-                try {
-                    Integer calculatedSoldCount = orderItemRepository.sumQuantityByProductId(product.getId());
-                    if (calculatedSoldCount != null && calculatedSoldCount > 0) {
-                        soldCount = calculatedSoldCount;
-                        // Update the product's soldCount for future queries (but don't save here to avoid nested transaction issues)
-                        product.setSoldCount(calculatedSoldCount);
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to calculate soldCount from order items for product {}: {}", product.getId(), e.getMessage());
-                }
-            }
-            dto.setSoldCount(soldCount);
-            dto.setImages(product.getImages() != null ? product.getImages() : new java.util.ArrayList<>());
-            dto.setIsFeatured(product.getIsFeatured() != null ? product.getIsFeatured() : false);
-            dto.setIsHot(product.getIsHot() != null ? product.getIsHot() : false);
-            dto.setIsNew(product.getIsNew() != null ? product.getIsNew() : false);
-            dto.setStatus(product.getStatus() != null ? product.getStatus() : Product.ProductStatus.PENDING);
-            dto.setCreatedAt(product.getCreatedAt());
-            dto.setUpdatedAt(product.getUpdatedAt());
-
-            // Fetch seller information using separate query to avoid lazy loading
-            Long productId = product.getId();
-            if (productId != null) {
-                try {
-                    Long sellerId = productRepository.findSellerIdByProductId(productId);
-                    if (sellerId != null) {
-                        dto.setSellerId(sellerId);
-                        Optional<User> sellerOpt = userService.findById(sellerId);
-                        if (sellerOpt.isPresent()) {
-                            User seller = sellerOpt.get();
-                            // Use store name if available, otherwise use seller's full name
-                            String sellerName = seller.getStoreName() != null && !seller.getStoreName().trim().isEmpty()
-                                ? seller.getStoreName()
-                                : ((seller.getFirstName() != null ? seller.getFirstName() : "") + " " + (seller.getLastName() != null ? seller.getLastName() : "")).trim();
-                            dto.setSellerName(sellerName);
-                            dto.setSellerEmail(seller.getEmail() != null ? seller.getEmail() : "");
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to load seller for product {}: {}", productId, e.getMessage());
-                    // Continue without seller info - this is not critical
-                }
-
-                // Fetch category IDs and populate categories list
-                try {
-                    List<Long> categoryIds = productRepository.findCategoryIdsByProductId(productId);
-                    if (categoryIds != null && !categoryIds.isEmpty()) {
-                        // Create a new HashSet to avoid any concurrent modification issues during serialization
-                        dto.setCategoryIds(new java.util.HashSet<>(categoryIds));
-                        
-                        // Populate categories list with CategoryDto objects for frontend use
-                        List<com.second_project.ecommerce.model.CategoryDto> categoryDtos = categoryIds.stream()
-                                .map(categoryId -> {
-                                    try {
-                                        return categoryService.findDtoById(categoryId);
-                                    } catch (Exception e) {
-                                        log.warn("Failed to load category {} for product {}: {}", categoryId, productId, e.getMessage());
-                                        return null;
-                                    }
-                                })
-                                .filter(cat -> cat != null)
-                                .collect(Collectors.toList());
-                        dto.setCategories(categoryDtos);
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to load categories for product {}: {}", productId, e.getMessage());
-                    // Continue without category info
-                }
-
-                // Set review statistics
-                try {
-                    Long reviewCount = reviewRepository.countByProductId(productId);
-                    dto.setReviewCount(reviewCount != null ? reviewCount : 0L);
-                    Double avgRating = reviewRepository.getAverageRatingByProductId(productId);
-                    dto.setRating(avgRating != null ? avgRating : null);
-                } catch (Exception e) {
-                    log.warn("Failed to load review statistics for product {}: {}", productId, e.getMessage());
-                    dto.setReviewCount(0L);
-                    dto.setRating(null);
-                }
-            }
-
-            return dto;
-        } catch (Exception e) {
-            log.error("Error converting product {} to DTO: {}", product.getId(), e.getMessage(), e);
-            // Return a minimal DTO with basic info to prevent complete failure
-            ProductDto dto = new ProductDto();
-            dto.setId(product.getId());
-            dto.setName(product.getName() != null ? product.getName() : "Unknown Product");
-            dto.setStatus(product.getStatus() != null ? product.getStatus() : Product.ProductStatus.PENDING);
-            return dto;
-        }
+    private void publishChange(Long productId, ProductChangedEvent.ChangeType changeType) {
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, changeType));
     }
 
     /**
-     * Convert Product entity to ProductDto.
-     * BEST PRACTICE: Use mapper libraries like MapStruct in production for complex mappings.
+     * Categories whose productCount includes this product: all of its categories if it is
+     * approved, none otherwise.
      */
-    private ProductDto convertToDto(Product product) {
-        ProductDto dto = new ProductDto();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setBrand(product.getBrand());
-        dto.setSku(product.getSku());
-        dto.setSlug(product.getSlug());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setOriginalPrice(product.getOriginalPrice());
-        dto.setStock(product.getStock());
-        dto.setSoldCount(product.getSoldCount());
-        dto.setImages(product.getImages());
-        dto.setIsFeatured(product.getIsFeatured());
-        dto.setIsHot(product.getIsHot());
-        dto.setIsNew(product.getIsNew());
-        dto.setStatus(product.getStatus());
-        dto.setCreatedAt(product.getCreatedAt());
-        dto.setUpdatedAt(product.getUpdatedAt());
-
-        // Set seller information (flatten lazy-loaded relationship)
-        try {
-            if (product.getSeller() != null) {
-                User seller = product.getSeller();
-                dto.setSellerId(seller.getUserId());
-                // Use store name if available, otherwise use seller's full name
-                String sellerName = seller.getStoreName() != null && !seller.getStoreName().trim().isEmpty()
-                    ? seller.getStoreName()
-                    : (seller.getFirstName() + " " + seller.getLastName()).trim();
-                dto.setSellerName(sellerName);
-                dto.setSellerEmail(seller.getEmail());
-            }
-        } catch (Exception e) {
-            log.warn("Failed to load seller for product {}: {}", product.getId(), e.getMessage());
-            // Seller info will remain null
-        }
-
-        // Set category IDs (flatten lazy-loaded relationship)
-        // NOTE: This method is deprecated in favor of convertToDtoSafe, but kept for backward compatibility
-        try {
-            if (product.getCategories() != null && !product.getCategories().isEmpty()) {
-                // Create a new HashSet to avoid any concurrent modification issues during serialization
-                // Copy to ArrayList first to avoid concurrent modification during stream processing
-                java.util.List<com.second_project.ecommerce.entity.Category> categoryList = 
-                    new java.util.ArrayList<>(product.getCategories());
-                Set<Long> categoryIds = categoryList.stream()
-                        .map(com.second_project.ecommerce.entity.Category::getId)
-                        .collect(Collectors.toCollection(java.util.HashSet::new));
-                dto.setCategoryIds(categoryIds);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to load categories for product {}: {}", product.getId(), e.getMessage());
-            // Category IDs will remain null
+    private Set<Long> countedCategoryIds(Product product) {
+        if (product.getStatus() != Product.ProductStatus.APPROVED || product.getCategories() == null) {
+            return Set.of();
         }
-
-        // Set review statistics
-        Long productId = product.getId();
-        dto.setReviewCount(reviewRepository.countByProductId(productId));
-        Double avgRating = reviewRepository.getAverageRatingByProductId(productId);
-        dto.setRating(avgRating != null ? avgRating : null);
-
-        return dto;
+        return product.getCategories().stream()
+                .map(Category::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 
     /**
@@ -7,9 +7,12 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,12 +20,15 @@ import com.second_project.ecommerce.entity.Order.OrderStatus;
 import com.second_project.ecommerce.entity.Product;
 import com.second_project.ecommerce.entity.Review;
 import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.event.ProductChangedEvent;
+import com.second_project.ecommerce.model.CursorPage;
 import com.second_project.ecommerce.model.ReviewDto;
 import com.second_project.ecommerce.repository.OrderItemRepository;
 import com.second_project.ecommerce.repository.ProductRepository;
 import com.second_project.ecommerce.repository.ReviewRepository;
 import com.second_project.ecommerce.repository.UserRepository;
 import com.second_project.ecommerce.service.ReviewService;
+import com.second_project.ecommerce.util.KeysetCursor;
 
 /**
  * Implementation of ReviewService.
@@ -38,15 +44,18 @@ public class ReviewServiceImpl implements ReviewService {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReviewServiceImpl(ReviewRepository reviewRepository,
                              UserRepository userRepository,
                              ProductRepository productRepository,
-                             OrderItemRepository orderItemRepository) {
+                             OrderItemRepository orderItemRepository,
+                             ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
         this.orderItemRepository = orderItemRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -90,6 +99,10 @@ public class ReviewServiceImpl implements ReviewService {
         // Save review
         review = reviewRepository.save(review);
 
+        // Keep the product's denormalized rating aggregates in step (atomic delta, same transaction)
+        productRepository.applyReviewAdded(product.getId(), review.getRating());
+        publishReviewsChanged(product.getId());
+
         log.info("Review created successfully: {} by user {}", review.getId(), userId);
 
         return convertToDto(review, userId);
@@ -119,12 +132,22 @@ public class ReviewServiceImpl implements ReviewService {
         }
 
         // Update review
+        Integer oldRating = review.getRating();
         review.setRating(reviewDto.getRating());
         review.setComment(reviewDto.getComment());
         review.setEditCount(currentEditCount + 1); // Increment edit count
 
         review = reviewRepository.save(review);
 
+        // Only the rating sum and histogram move on edit; review/rating counts stay the same.
+        // A legacy review without a rating now counts as rated (review_count already has it).
+        if (oldRating == null) {
+            productRepository.applyReviewRated(review.getProduct().getId(), review.getRating());
+        } else if (!oldRating.equals(review.getRating())) {
+            productRepository.applyReviewRatingChanged(review.getProduct().getId(), oldRating, review.getRating());
+        }
+        publishReviewsChanged(review.getProduct().getId());
+
         log.info("Review updated successfully: {} by user {} (edit count: {})", reviewId, userId, review.getEditCount());
 
         return convertToDto(review, userId);
@@ -148,7 +171,15 @@ public class ReviewServiceImpl implements ReviewService {
             throw new IllegalArgumentException("You are not authorized to delete this review");
         }
 
+        Long productId = review.getProduct().getId();
+        Integer rating = review.getRating();
         reviewRepository.delete(review);
+        if (rating != null) {
+            productRepository.applyReviewRemoved(productId, rating);
+        } else {
+            productRepository.applyUnratedReviewRemoved(productId);
+        }
+        publishReviewsChanged(productId);
         log.info("Review deleted successfully: {}", reviewId);
     }
 
@@ -177,6 +208,41 @@ public class ReviewServiceImpl implements ReviewService {
         return new PageImpl<>(reviewDtos, pageable, reviewPage.getTotalElements());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewDto> scrollReviewsByProductId(Long productId, Integer rating, String cursor, int size, Long currentUserId) {
+        log.debug("Scrolling reviews for product {} (rating filter: {})", productId, rating);
+
+        Sort.Direction direction = KeysetCursor.direction(cursor, Sort.Direction.DESC);
+        Window<Review> window = rating != null
+                ? reviewRepository.findByProductIdAndRating(productId, rating,
+                        KeysetCursor.toPosition(cursor, "createdAt"), KeysetCursor.sort("createdAt", direction), KeysetCursor.limit(size))
+                : reviewRepository.findByProductId(productId,
+                        KeysetCursor.toPosition(cursor, "createdAt"), KeysetCursor.sort("createdAt", direction), KeysetCursor.limit(size));
+
+        List<ReviewDto> reviewDtos = window.getContent().stream()
+                .map(review -> convertToDto(review, currentUserId))
+                .collect(Collectors.toList());
+
+        return new CursorPage<>(reviewDtos, KeysetCursor.next(window, "createdAt", direction));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewDto> scrollReviewsByUserId(Long userId, String cursor, int size) {
+        log.debug("Scrolling reviews by user {}", userId);
+
+        Sort.Direction direction = KeysetCursor.direction(cursor, Sort.Direction.DESC);
+        Window<Review> window = reviewRepository.findByUserId(userId,
+                KeysetCursor.toPosition(cursor, "createdAt"), KeysetCursor.sort("createdAt", direction), KeysetCursor.limit(size));
+
+        List<ReviewDto> reviewDtos = window.getContent().stream()
+                .map(review -> convertToDto(review, userId))
+                .collect(Collectors.toList());
+
+        return new CursorPage<>(reviewDtos, KeysetCursor.next(window, "createdAt", direction));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ReviewDto> getReviewsByUserId(Long userId, Pageable pageable) {
@@ -195,15 +261,19 @@ public class ReviewServiceImpl implements ReviewService {
     @Transactional(readOnly = true)
     public Double getAverageRating(Long productId) {
         log.debug("Getting average rating for product {}", productId);
-        Double avgRating = reviewRepository.getAverageRatingByProductId(productId);
-        return avgRating != null ? avgRating : 0.0;
+        // Read from the denormalized aggregates instead of running AVG over the reviews table
+        return productRepository.findById(productId)
+                .map(Product::getAverageRating)
+                .orElse(0.0);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Long getReviewCount(Long productId) {
         log.debug("Getting review count for product {}", productId);
-        return reviewRepository.countByProductId(productId);
+        return productRepository.findById(productId)
+                .map(product -> product.getReviewCount() != null ? product.getReviewCount().longValue() : 0L)
+                .orElse(0L);
     }
 
     @Override
@@ -211,19 +281,13 @@ public class ReviewServiceImpl implements ReviewService {
     public Map<Integer, Long> getRatingDistribution(Long productId) {
         log.debug("Getting rating distribution for product {}", productId);
 
-        List<Object[]> distribution = reviewRepository.getRatingDistributionByProductId(productId);
+        Product product = productRepository.findById(productId).orElse(null);
 
-        // Initialize map with all ratings (1-5) set to 0
+        // Initialize map with all ratings (1-5), filled from the product's star histogram
         Map<Integer, Long> ratingMap = new HashMap<>();
         for (int i = 1; i <= 5; i++) {
-            ratingMap.put(i, 0L);
-        }
-
-        // Fill in actual counts
-        for (Object[] row : distribution) {
-            Integer rating = (Integer) row[0];
-            Long count = ((Number) row[1]).longValue();
-            ratingMap.put(rating, count);
+            Integer count = product != null ? product.getStarCount(i) : null;
+            ratingMap.put(i, count != null ? count.longValue() : 0L);
         }
 
         return ratingMap;
@@ -324,5 +388,11 @@ public class ReviewServiceImpl implements ReviewService {
 
         return dto;
     }
-}
 
+    /**
+     * Let in-memory read models (rating facet, caches, ETags) pick up the review change after commit.
+     */
+    private void publishReviewsChanged(Long productId) {
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, ProductChangedEvent.ChangeType.REVIEWS_CHANGED));
+    }
+}
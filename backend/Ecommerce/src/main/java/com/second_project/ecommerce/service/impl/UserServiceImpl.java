@@ -6,6 +6,7 @@ import com.second_project.ecommerce.entity.User;
 import com.second_project.ecommerce.entity.VerificationToken;
 import com.second_project.ecommerce.entity.ResetPasswordToken;
 import com.second_project.ecommerce.event.RegistrationCompleteEvent;
+import com.second_project.ecommerce.event.UserChangedEvent;
 import com.second_project.ecommerce.model.auth.RegisterRequest;
 import com.second_project.ecommerce.model.auth.LoginRequest;
 import com.second_project.ecommerce.model.auth.AuthResponse;
@@ -155,7 +156,9 @@ public class UserServiceImpl implements UserService {
     @Override
     public User save(User user) {
         user.setUpdatedAt(LocalDateTime.now(GMT_PLUS_7));
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(this, savedUser.getUserId()));
+        return savedUser;
     }
 
     @Override
@@ -172,6 +175,7 @@ public class UserServiceImpl implements UserService {
         user.setIsVerified(true);
         user.setUpdatedAt(now);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(this, user.getUserId()));
 
         verificationTokenRepository.delete(verificationToken);
         log.info("User verified successfully: {}", user.getEmail());
@@ -0,0 +1,139 @@
+package com.second_project.ecommerce.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+/**
+ * Opaque cursor for keyset (seek) pagination.
+ *
+ * A cursor encodes the sort property, the direction and the (value, id) pair of the last
+ * row returned, e.g. "createdAt|DESC|2025-01-31T10:15:30|42" in URL-safe Base64. The next
+ * page is then read with WHERE (value, id) &lt; (:value, :id) instead of OFFSET, so page 500
+ * costs the same as page 1 and no COUNT query is needed.
+ *
+ * Only whitelisted sort properties are accepted; the id is always the tie-breaker.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String ID = "id";
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Sort properties usable as a seek key, with a parser for their cursor value
+    private static final Map<String, Function<String, Object>> SORT_KEYS = new LinkedHashMap<>();
+
+    static {
+        SORT_KEYS.put("createdAt", LocalDateTime::parse);
+        SORT_KEYS.put("soldCount", Integer::valueOf);
+        SORT_KEYS.put("price", BigDecimal::new);
+    }
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Check if the given property can be used for cursor pagination.
+     */
+    public static boolean isSupportedSort(String sortProperty) {
+        return SORT_KEYS.containsKey(sortProperty);
+    }
+
+    /**
+     * Sort for a keyset query: the seek key plus id as a unique tie-breaker.
+     */
+    public static Sort sort(String sortProperty, Sort.Direction direction) {
+        requireSupported(sortProperty);
+        return Sort.by(direction, sortProperty).and(Sort.by(direction, ID));
+    }
+
+    /**
+     * Page size for a keyset query, clamped to 1..100.
+     */
+    public static Limit limit(int size) {
+        return Limit.of(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Direction to use for a request: a cursor keeps the direction of the page that produced it.
+     */
+    public static Sort.Direction direction(String cursor, Sort.Direction requested) {
+        if (cursor == null || cursor.isBlank()) {
+            return requested;
+        }
+        return Sort.Direction.valueOf(decode(cursor)[1]);
+    }
+
+    /**
+     * Turn a client cursor into a scroll position. A missing or blank cursor means the first page.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort
+     */
+    public static ScrollPosition toPosition(String cursor, String sortProperty) {
+        requireSupported(sortProperty);
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts = decode(cursor);
+        if (!parts[0].equals(sortProperty)) {
+            throw new IllegalArgumentException("Cursor was issued for sort '" + parts[0] + "', not '" + sortProperty + "'");
+        }
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sortProperty, SORT_KEYS.get(sortProperty).apply(parts[2]));
+            keys.put(ID, Long.valueOf(parts[3]));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Cursor pointing after the last element of the window, or null when there is no next page.
+     */
+    public static String next(Window<?> window, String sortProperty, Sort.Direction direction) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        ScrollPosition position = window.positionAt(window.size() - 1);
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            return null;
+        }
+        Object value = keyset.getKeys().get(sortProperty);
+        Object id = keyset.getKeys().get(ID);
+        String raw = sortProperty + SEPARATOR + direction.name() + SEPARATOR
+                + (value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value))
+                + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !SORT_KEYS.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Sort.Direction.valueOf(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static void requireSupported(String sortProperty) {
+        if (!isSupportedSort(sortProperty)) {
+            throw new IllegalArgumentException("Cursor pagination supports sorting by " + SORT_KEYS.keySet());
+        }
+    }
+}
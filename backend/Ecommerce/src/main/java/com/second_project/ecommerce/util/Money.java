@@ -0,0 +1,84 @@
+package com.second_project.ecommerce.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of Vietnamese dong for price arithmetic.
+ *
+ * VND has no minor unit, so a whole number of dong in a long is exact and adding or
+ * multiplying it is plain integer math instead of a BigDecimal allocation per step.
+ * Entities and DTOs keep BigDecimal (DECIMAL(12,2) columns, JSON numbers): convert with
+ * {@link #of(BigDecimal)} and {@link #toBigDecimal()} at those boundaries only. The columns
+ * allow two decimals, so a fractional value read from them is rounded to whole dong with
+ * {@link #ROUNDING} rather than rejected.
+ *
+ * Arithmetic is overflow-checked and throws ArithmeticException rather than wrapping.
+ */
+public record Money(long amount) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+
+    public static Money of(long amount) {
+        return amount == 0 ? ZERO : new Money(amount);
+    }
+
+    /**
+     * The amount rounded to whole dong with {@link #ROUNDING}.
+     *
+     * @throws IllegalArgumentException if the amount is null or does not fit
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        int scale = amount.scale();
+        if (scale >= 0 && scale < POWERS_OF_TEN.length && amount.precision() <= 18) {
+            // DECIMAL(12,2) values: strip the .00 with long math; BigDecimal.longValueExact would rescale
+            long unscaled = amount.unscaledValue().longValue();
+            long divisor = POWERS_OF_TEN[scale];
+            if (unscaled % divisor == 0) {
+                return of(unscaled / divisor);
+            }
+        }
+        try {
+            return of(amount.setScale(0, ROUNDING).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("VND amount out of range: " + amount.toPlainString());
+        }
+    }
+
+    public Money plus(Money other) {
+        return of(Math.addExact(amount, other.amount));
+    }
+
+    public Money minus(Money other) {
+        return of(Math.subtractExact(amount, other.amount));
+    }
+
+    public Money times(long quantity) {
+        return of(Math.multiplyExact(amount, quantity));
+    }
+
+    public boolean isNegative() {
+        return amount < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(amount);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(amount, other.amount);
+    }
+
+    @Override
+    public String toString() {
+        return amount + " VND";
+    }
+}
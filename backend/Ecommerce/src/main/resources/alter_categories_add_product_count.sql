@@ -0,0 +1,15 @@
+-- Migration script to add a denormalized product count to categories table
+-- Category listings read product_count instead of counting product_category rows per request.
+-- Only APPROVED products are counted (what customers can actually browse).
+
+ALTER TABLE categories ADD COLUMN product_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from existing links (same statement as CategoryRepository.rebuildProductCounts)
+UPDATE categories c LEFT JOIN (
+    SELECT pc.category_id, COUNT(*) AS cnt
+    FROM product_category pc
+    JOIN products p ON p.id = pc.product_id
+    WHERE p.status = 'APPROVED'
+    GROUP BY pc.category_id
+) x ON x.category_id = c.id
+SET c.product_count = COALESCE(x.cnt, 0);
@@ -0,0 +1,6 @@
+-- Migration script for the unpaid order expiry job (OrderExpiryService)
+-- Pending orders are scanned by order_date; the composite index also serves the
+-- status filters that used idx_order_status, so that index is replaced
+
+CREATE INDEX idx_order_status_date ON orders (order_status, order_date);
+DROP INDEX idx_order_status ON orders;
@@ -0,0 +1,11 @@
+-- Migration script to add inventory reservation state to orders table
+-- stock_hold: RESERVED / COMMITTED / RELEASED, NULL when the order's quantities are part of products.stock
+-- (existing orders took their stock at checkout, so NULL is correct for them)
+
+ALTER TABLE orders ADD COLUMN stock_hold VARCHAR(20) NULL;
+ALTER TABLE orders ADD COLUMN stock_hold_expires_at DATETIME(6) NULL;
+
+-- Existing cancelled orders already gave their stock back; mark them so it is not restored again
+UPDATE orders SET stock_hold = 'RELEASED' WHERE order_status = 'CANCELLED';
+
+CREATE INDEX idx_order_stock_hold ON orders (stock_hold);
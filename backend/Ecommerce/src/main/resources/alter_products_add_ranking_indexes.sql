@@ -0,0 +1,8 @@
+-- Migration script for the product ranking snapshots and price sorting
+-- (ProductRankingService, ProductService listings): the hot, new and price ordered
+-- queries filter on status and sort by one column, so each gets a composite index
+-- that serves the ORDER BY ... LIMIT without a filesort
+
+CREATE INDEX idx_product_status_sold ON products (status, sold_count);
+CREATE INDEX idx_product_status_created ON products (status, created_at);
+CREATE INDEX idx_product_status_price ON products (status, price);
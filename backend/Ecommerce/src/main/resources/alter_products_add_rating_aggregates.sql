@@ -0,0 +1,34 @@
+-- Migration script to add denormalized rating aggregates to products table
+-- Product listings read rating and review count from these columns instead of running AVG/COUNT over reviews
+
+ALTER TABLE products ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN rating_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN review_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN one_star_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN two_star_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN three_star_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN four_star_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN five_star_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from existing reviews (same statement as ProductRepository.rebuildRatingAggregates)
+UPDATE products p LEFT JOIN (
+    SELECT product_id,
+           COUNT(*) AS review_cnt,
+           COUNT(rating) AS rating_cnt,
+           COALESCE(SUM(rating), 0) AS rating_total,
+           SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) AS s1,
+           SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) AS s2,
+           SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) AS s3,
+           SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) AS s4,
+           SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) AS s5
+    FROM reviews
+    GROUP BY product_id
+) r ON r.product_id = p.id
+SET p.rating_sum = COALESCE(r.rating_total, 0),
+    p.rating_count = COALESCE(r.rating_cnt, 0),
+    p.review_count = COALESCE(r.review_cnt, 0),
+    p.one_star_count = COALESCE(r.s1, 0),
+    p.two_star_count = COALESCE(r.s2, 0),
+    p.three_star_count = COALESCE(r.s3, 0),
+    p.four_star_count = COALESCE(r.s4, 0),
+    p.five_star_count = COALESCE(r.s5, 0);
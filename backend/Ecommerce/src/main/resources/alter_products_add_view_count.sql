@@ -0,0 +1,14 @@
+-- Migration script for write-behind product counters (ProductCounters)
+-- view_count: product detail views, flushed in batches like sold_count
+
+ALTER TABLE products ADD COLUMN view_count BIGINT NOT NULL DEFAULT 0;
+
+-- sold_count used to be recomputed from order_items on read whenever it was 0;
+-- backfill it once for those products (cancelled orders excluded)
+UPDATE products p
+JOIN (SELECT oi.product_id, SUM(oi.quantity) AS sold
+      FROM order_items oi JOIN orders o ON o.id = oi.order_id
+      WHERE o.order_status <> 'CANCELLED'
+      GROUP BY oi.product_id) s ON s.product_id = p.id
+SET p.sold_count = s.sold
+WHERE p.sold_count = 0;
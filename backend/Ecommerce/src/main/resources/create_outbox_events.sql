@@ -0,0 +1,19 @@
+-- Migration script for the transactional outbox (OutboxPublisher, OutboxRelay)
+-- Rows are inserted in the checkout transaction and delivered by the relay;
+-- delivered rows are deleted after app.outbox.retention-days
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    event_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(1000) NULL,
+    created_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_outbox_status_next_attempt ON outbox_events (status, next_attempt_at);
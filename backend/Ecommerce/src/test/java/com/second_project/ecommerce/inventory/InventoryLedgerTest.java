@@ -0,0 +1,182 @@
+package com.second_project.ecommerce.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InventoryLedgerTest {
+
+    private static final int THREADS = 16;
+
+    private InventoryLedger ledger;
+    private ExecutorService executor;
+    private final AtomicLong orderIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        ledger = new InventoryLedger();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversellOneSku() throws Exception {
+        long productId = 1L;
+        int initialStock = 500;
+        Function<Long, Integer> stockLoader = id -> id == productId ? initialStock : null;
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 200; i++) {
+                int quantity = 1 + ThreadLocalRandom.current().nextInt(3);
+                Long shortProduct = ledger.reserve(orderIds.incrementAndGet(), Map.of(productId, quantity), stockLoader);
+                if (shortProduct == null) {
+                    reserved.addAndGet(quantity);
+                } else {
+                    assertThat(shortProduct).isEqualTo(productId);
+                    rejected.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(reserved.get()).isLessThanOrEqualTo(initialStock);
+        // 16 x 200 orders of at least one unit each: far more than the stock, so it all went
+        assertThat(rejected.get()).isPositive();
+        assertThat(initialStock - reserved.get()).isLessThan(3);
+        assertThat(ledger.available(productId)).isEqualTo(initialStock - reserved.get());
+    }
+
+    @Test
+    void commitsAndReleasesUnderContentionKeepStockConsistent() throws Exception {
+        long productId = 7L;
+        int initialStock = 1_000;
+        Function<Long, Integer> stockLoader = id -> initialStock;
+        AtomicInteger committed = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 300; i++) {
+                long orderId = orderIds.incrementAndGet();
+                int quantity = 1 + ThreadLocalRandom.current().nextInt(4);
+                if (ledger.reserve(orderId, Map.of(productId, quantity), stockLoader) != null) {
+                    continue;
+                }
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    assertThat(ledger.commit(orderId)).isTrue();
+                    committed.addAndGet(quantity);
+                } else {
+                    assertThat(ledger.release(orderId)).isTrue();
+                }
+            }
+            return null;
+        });
+
+        assertThat(committed.get()).isLessThanOrEqualTo(initialStock);
+        assertThat(ledger.openReservations()).isZero();
+        assertThat(ledger.available(productId)).isEqualTo(initialStock - committed.get());
+
+        // The flush writes the committed quantities to products.stock: still no unit lost or gained
+        ledger.applied(Map.of(productId, committed.get()));
+        assertThat(ledger.available(productId)).isEqualTo(initialStock - committed.get());
+    }
+
+    @Test
+    void commitAndReleaseOfTheSameOrderRaceToExactlyOneWinner() throws Exception {
+        long productId = 3L;
+        int orders = 2_000;
+        Function<Long, Integer> stockLoader = id -> orders;
+        for (long orderId = 1; orderId <= orders; orderId++) {
+            assertThat(ledger.reserve(orderId, Map.of(productId, 1), stockLoader)).isNull();
+        }
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger releases = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            boolean committer = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long orderId = 1; orderId <= orders; orderId++) {
+                    if (committer ? ledger.commit(orderId) : ledger.release(orderId)) {
+                        (committer ? commits : releases).incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(commits.get() + releases.get()).isEqualTo(orders);
+        assertThat(ledger.openReservations()).isZero();
+        assertThat(ledger.available(productId)).isEqualTo(orders - commits.get());
+    }
+
+    @Test
+    void ordersOverTheSameProductsInAnyOrderAreAllOrNothingWithoutDeadlock() throws Exception {
+        long first = 11L;
+        long second = 74L; // on different lock stripes
+        int initialStock = 300;
+        Function<Long, Integer> stockLoader = id -> initialStock;
+        AtomicInteger reserved = new AtomicInteger();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 200; i++) {
+                // Callers hand the products over in either order
+                Map<Long, Integer> quantities = new LinkedHashMap<>();
+                boolean firstFirst = ThreadLocalRandom.current().nextBoolean();
+                quantities.put(firstFirst ? first : second, 1);
+                quantities.put(firstFirst ? second : first, 1);
+                if (ledger.reserve(orderIds.incrementAndGet(), quantities, stockLoader) == null) {
+                    reserved.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertThat(reserved.get()).isEqualTo(initialStock);
+        assertThat(ledger.available(first)).isZero();
+        assertThat(ledger.available(second)).isZero();
+    }
+
+    // Starts THREADS copies of the task together and waits for all of them
+    private void runConcurrently(Callable<Void> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+}
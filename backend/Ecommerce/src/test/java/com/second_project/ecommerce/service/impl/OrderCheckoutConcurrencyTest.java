@@ -0,0 +1,222 @@
+package com.second_project.ecommerce.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.second_project.ecommerce.EcommerceApplication;
+import com.second_project.ecommerce.entity.Order;
+import com.second_project.ecommerce.entity.Product;
+import com.second_project.ecommerce.entity.User;
+import com.second_project.ecommerce.inventory.InventoryLedger;
+import com.second_project.ecommerce.model.CheckoutRequestDto;
+import com.second_project.ecommerce.repository.OrderRepository;
+import com.second_project.ecommerce.repository.ProductRepository;
+import com.second_project.ecommerce.repository.UserRepository;
+import com.second_project.ecommerce.service.InventoryReservationService;
+import com.second_project.ecommerce.service.OrderService;
+
+/**
+ * Thousands of checkouts of the same product at once, against a real database: checkouts (cash
+ * on delivery and QR), payment confirmations, cancellations and the stock flush all run in
+ * parallel. Checkout takes stock through the reservation ledger (InventoryReservationService)
+ * and the flush writes it with the conditional products.stock UPDATE. Afterwards
+ * products.stock must equal the initial stock minus exactly the quantities of the orders that
+ * kept their stock.
+ */
+@SpringBootTest(classes = EcommerceApplication.class)
+@ActiveProfiles("test")
+class OrderCheckoutConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int CHECKOUTS = 4_000;
+    private static final int CUSTOMERS = 50;
+    private static final int INITIAL_STOCK = 2_500;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+    @Autowired
+    private InventoryLedger ledger;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private record Placed(Long orderId, int quantity, boolean cashOnDelivery) {}
+
+    @Test
+    void parallelCheckoutsOfOneProductNeitherOversellNorLoseUpdates() throws Exception {
+        User seller = userRepository.save(user("seller@example.com", "0900000000", User.UserRole.SELLER));
+        Product product = productRepository.save(product(seller));
+        Long productId = product.getId();
+        // What InventoryLedgerListener does when a product is created through ProductService
+        inventoryReservationService.refreshStock(productId);
+        inventoryReservationService.refreshPendingStock();
+        List<User> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(userRepository.save(user("customer" + i + "@example.com", "09100000" + String.format("%02d", i),
+                    User.UserRole.CUSTOMER)));
+        }
+
+        // Phase 1: everyone checks out at once, far more demand than stock
+        Queue<Placed> placed = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        runConcurrently(() -> {
+            int attempt;
+            while ((attempt = next.getAndIncrement()) < CHECKOUTS) {
+                int quantity = 1 + ThreadLocalRandom.current().nextInt(3);
+                boolean cashOnDelivery = attempt % 2 == 0;
+                try {
+                    Order order = orderService.createOrderFromCart(customers.get(attempt % CUSTOMERS),
+                            buyNow(productId, quantity, cashOnDelivery ? "COD" : "QR"));
+                    placed.add(new Placed(order.getId(), quantity, cashOnDelivery));
+                } catch (IllegalArgumentException e) {
+                    // Not enough stock left
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        int placedQuantity = placed.stream().mapToInt(Placed::quantity).sum();
+        assertThat(rejected.get()).isPositive();
+        assertThat(placedQuantity).isLessThanOrEqualTo(INITIAL_STOCK);
+        assertThat(orderRepository.count()).isEqualTo(placed.size());
+
+        // Phase 2: confirm or cancel every order in parallel while the flush keeps running
+        List<Placed> orders = new ArrayList<>(placed);
+        Collections.shuffle(orders);
+        Set<Long> cancelled = Collections.synchronizedSet(new HashSet<>());
+        AtomicInteger nextOrder = new AtomicInteger();
+        AtomicBoolean updating = new AtomicBoolean(true);
+        ExecutorService flusher = Executors.newSingleThreadExecutor();
+        Future<?> flushing = flusher.submit(() -> {
+            while (updating.get()) {
+                inventoryReservationService.flushCommitted();
+            }
+        });
+        try {
+            runConcurrently(() -> {
+                int index;
+                while ((index = nextOrder.getAndIncrement()) < orders.size()) {
+                    Placed order = orders.get(index);
+                    if (index % 3 == 0) {
+                        orderService.updateOrderStatus(order.orderId(), Order.OrderStatus.CANCELLED);
+                        cancelled.add(order.orderId());
+                    } else {
+                        orderService.updateOrderStatus(order.orderId(), Order.OrderStatus.CONFIRMED);
+                    }
+                }
+            });
+        } finally {
+            updating.set(false);
+            flushing.get(60, TimeUnit.SECONDS);
+            flusher.shutdownNow();
+        }
+        inventoryReservationService.flushCommitted();
+        // Stock given back by cancellations reaches the ledger through the refresh job
+        inventoryReservationService.refreshPendingStock();
+
+        int taken = orders.stream()
+                .filter(order -> !cancelled.contains(order.orderId()))
+                .mapToInt(Placed::quantity)
+                .sum();
+        assertThat(ledger.openReservations()).isZero();
+        // Read under the product's stripe, so no flush is half done while we look
+        int[] stock = new int[1];
+        int[] available = new int[1];
+        ledger.withLocks(List.of(productId), () -> {
+            stock[0] = productRepository.findStockById(productId).orElseThrow();
+            available[0] = ledger.available(productId);
+        });
+        assertThat(stock[0]).isEqualTo(INITIAL_STOCK - taken);
+        assertThat(available[0]).isEqualTo(stock[0]);
+        assertThat(orderRepository.findIdsByStockHold(Order.StockHold.COMMITTED,
+                PageRequest.of(0, 1))).isEmpty();
+    }
+
+    private void runConcurrently(ThrowingRunnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    private static CheckoutRequestDto buyNow(Long productId, int quantity, String paymentMethod) {
+        CheckoutRequestDto request = new CheckoutRequestDto();
+        request.setIsBuyNow(true);
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        request.setPaymentMethod(paymentMethod);
+        request.setShippingAddress("1 Test Street");
+        request.setPhoneNumber("0900000001");
+        return request;
+    }
+
+    private static User user(String email, String phoneNumber, User.UserRole role) {
+        User user = new User();
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setEmail(email);
+        user.setPhoneNumber(phoneNumber);
+        user.setPassword("{noop}password");
+        user.setRole(role);
+        user.setIsVerified(true);
+        user.setIsSellerApproved(role == User.UserRole.SELLER);
+        return user;
+    }
+
+    private static Product product(User seller) {
+        Product product = new Product();
+        product.setName("Contended product");
+        product.setPrice(new BigDecimal("150000.00"));
+        product.setStock(INITIAL_STOCK);
+        product.setStatus(Product.ProductStatus.APPROVED);
+        product.setSeller(seller);
+        return product;
+    }
+}
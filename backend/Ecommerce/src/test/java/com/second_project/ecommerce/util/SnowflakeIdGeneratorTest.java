@@ -0,0 +1,124 @@
+package com.second_project.ecommerce.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void idsFromManyThreadsAreUniqueAndIncreaseWithinEachThread() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long previous = -1;
+                    boolean increasing = true;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextId();
+                        increasing &= id > previous;
+                        previous = id;
+                        ids.add(id);
+                    }
+                    return increasing;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).as("ids increase within a thread").isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+        assertThat(ids).allSatisfy(id -> assertThat(id).isPositive());
+    }
+
+    @Test
+    void clockSteppingBackKeepsCountingFromTheLastTimestamp() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 10_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+        long beforeRegression = generator.nextId();
+        clock.addAndGet(-5_000);
+        long afterRegression = generator.nextId();
+        long next = generator.nextId();
+
+        assertThat(afterRegression).isGreaterThan(beforeRegression);
+        assertThat(next).isGreaterThan(afterRegression);
+        // Still stamped with the last timestamp issued, not the earlier wall clock
+        assertThat(SnowflakeIdGenerator.timestampMillis(afterRegression))
+                .isEqualTo(SnowflakeIdGenerator.timestampMillis(beforeRegression));
+
+        // Once the clock has caught up, ids carry the clock again
+        clock.addAndGet(10_000);
+        long caughtUp = generator.nextId();
+        assertThat(caughtUp).isGreaterThan(next);
+        assertThat(SnowflakeIdGenerator.timestampMillis(caughtUp)).isEqualTo(clock.get());
+    }
+
+    @Test
+    void exhaustedSequenceMovesOnToTheNextMillisecond() {
+        long millis = SnowflakeIdGenerator.EPOCH_MILLIS + 10_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> millis);
+
+        long previous = -1;
+        for (int i = 0; i < 4096; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(SnowflakeIdGenerator.timestampMillis(id)).isEqualTo(millis);
+            previous = id;
+        }
+        long overflow = generator.nextId();
+        assertThat(overflow).isGreaterThan(previous);
+        assertThat(SnowflakeIdGenerator.timestampMillis(overflow)).isEqualTo(millis + 1);
+    }
+
+    @Test
+    void workerIdIsPartOfTheIdAndMustBeInRange() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 10_000);
+        long a = new SnowflakeIdGenerator(1, clock::get).nextId();
+        long b = new SnowflakeIdGenerator(2, clock::get).nextId();
+
+        assertThat(a).isNotEqualTo(b);
+        assertThat(new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID).workerId())
+                .isEqualTo(SnowflakeIdGenerator.MAX_WORKER_ID);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void codesHaveFixedWidthAndSortLikeTheIds() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        String firstCode = SnowflakeIdGenerator.encode(first);
+        String secondCode = SnowflakeIdGenerator.encode(second);
+        assertThat(firstCode).hasSize(13).matches("[0-9A-HJKMNP-TV-Z]+");
+        assertThat(firstCode.compareTo(secondCode)).isNegative();
+        assertThatThrownBy(() -> SnowflakeIdGenerator.encode(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { 
   ShoppingCart as CartIcon, 
   Trash2, 
@@ -24,6 +24,9 @@ const ShoppingCart = () => {
   const [cartItems, setCartItems] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  // Quantity edits not sent yet (cartItemId -> quantity), sent together after a short pause
+  const pendingQuantities = useRef(new Map());
+  const sendTimer = useRef(null);
 
   useEffect(() => {
     if (!authLoading) {
@@ -35,46 +38,21 @@ const ShoppingCart = () => {
     }
   }, [isAuthenticated, authLoading, navigate]);
 
+  // Send edits still waiting when leaving the page
+  useEffect(() => () => {
+    if (sendTimer.current) {
+      clearTimeout(sendTimer.current);
+      sendPendingQuantities();
+    }
+  }, []);
+
   const fetchCart = async () => {
     try {
       setLoading(true);
       setError(null);
       const response = await cartApi.getCart();
       if (response.data.success) {
-        const cart = response.data.data;
-        // Transform cart data to match component structure
-        // Group items by seller
-        const itemsBySeller = {};
-        
-        cart.items?.forEach(item => {
-          // CartItemDto has flattened product fields
-          const sellerId = item.sellerId || 0;
-          // Use storeName if available, otherwise fallback to sellerName, then 'Shop'
-          const shopName = item.storeName || item.sellerName || 'Shop';
-          
-          if (!itemsBySeller[sellerId]) {
-            itemsBySeller[sellerId] = {
-              shopId: sellerId,
-              shopName: shopName,
-              products: []
-            };
-          }
-          
-          itemsBySeller[sellerId].products.push({
-            id: item.id, // cart item ID
-            productId: item.productId,
-            name: item.productName || 'Unknown Product',
-            image: item.productImageUrl || item.productImages?.[0] || 'https://via.placeholder.com/100',
-            variant: item.productVariant || 'Default',
-            price: parseFloat(item.unitPrice || item.totalPrice || item.productPrice || 0),
-            originalPrice: parseFloat(item.productOriginalPrice || item.productPrice || item.unitPrice || 0),
-            quantity: item.quantity,
-            stock: item.productStock || 0,
-            freeShip: false // TODO: Add freeShip logic from backend
-          });
-        });
-        
-        setCartItems(Object.values(itemsBySeller));
+        showCart(response.data.data);
       }
     } catch (error) {
       console.error('Error fetching cart:', error);
@@ -84,33 +62,98 @@ const ShoppingCart = () => {
     }
   };
 
-  const formatCurrency = (amount) => {
-    return new Intl.NumberFormat('vi-VN', {
-      style: 'currency',
-      currency: 'VND'
-    }).format(amount);
+  const showCart = (cart) => {
+    // Transform cart data to match component structure
+    // Group items by seller
+    const itemsBySeller = {};
+    
+    cart.items?.forEach(item => {
+      // CartItemDto has flattened product fields
+      const sellerId = item.sellerId || 0;
+      // Use storeName if available, otherwise fallback to sellerName, then 'Shop'
+      const shopName = item.storeName || item.sellerName || 'Shop';
+      
+      if (!itemsBySeller[sellerId]) {
+        itemsBySeller[sellerId] = {
+          shopId: sellerId,
+          shopName: shopName,
+          products: []
+        };
+      }
+      
+      itemsBySeller[sellerId].products.push({
+        id: item.id, // cart item ID
+        productId: item.productId,
+        name: item.productName || 'Unknown Product',
+        image: item.productImageUrl || item.productImages?.[0] || 'https://via.placeholder.com/100',
+        variant: item.productVariant || 'Default',
+        price: parseFloat(item.unitPrice || item.totalPrice || item.productPrice || 0),
+        originalPrice: parseFloat(item.productOriginalPrice || item.productPrice || item.unitPrice || 0),
+        quantity: item.quantity,
+        stock: item.productStock || 0,
+        freeShip: false // TODO: Add freeShip logic from backend
+      });
+    });
+    
+    setCartItems(Object.values(itemsBySeller));
   };
 
-  const handleQuantityChange = async (shopId, cartItemId, newQuantity) => {
-    if (newQuantity < 1) return;
-    
+  // Send the given operations plus all waiting quantity edits as one PATCH /cart
+  const sendCartOperations = async (operations = []) => {
+    if (sendTimer.current) {
+      clearTimeout(sendTimer.current);
+      sendTimer.current = null;
+    }
+    const quantityOperations = Array.from(pendingQuantities.current, ([cartItemId, quantity]) => ({
+      type: 'SET_QUANTITY',
+      cartItemId,
+      quantity
+    }));
+    pendingQuantities.current.clear();
+    const allOperations = [...quantityOperations, ...operations];
+    if (allOperations.length === 0) return true;
+
     try {
-      const response = await cartApi.updateCartItem(cartItemId, newQuantity);
+      const response = await cartApi.updateCart(allOperations);
       if (response.data.success) {
-        // Refresh cart after update
-        await fetchCart();
+        showCart(response.data.data);
         // Trigger cart count refresh in header
         window.dispatchEvent(new CustomEvent('cartUpdated'));
-        // Update selected items if needed
-        const itemKey = `${shopId}-${cartItemId}`;
-        if (newQuantity === 0 && selectedItems.includes(itemKey)) {
-          setSelectedItems(prev => prev.filter(key => key !== itemKey));
-        }
+        return true;
       }
     } catch (error) {
-      console.error('Error updating cart item:', error);
-      alert('Không thể cập nhật số lượng. Vui lòng thử lại.');
+      console.error('Error updating cart:', error);
+      alert('Không thể cập nhật giỏ hàng. Vui lòng thử lại.');
+      // Show what the server actually has
+      await fetchCart();
     }
+    return false;
+  };
+
+  const sendPendingQuantities = () => sendCartOperations();
+
+  const formatCurrency = (amount) => {
+    return new Intl.NumberFormat('vi-VN', {
+      style: 'currency',
+      currency: 'VND'
+    }).format(amount);
+  };
+
+  const handleQuantityChange = (shopId, cartItemId, newQuantity) => {
+    if (newQuantity < 1) return;
+
+    // Show the new quantity right away; edits made in quick succession go out in one request
+    setCartItems(prev => prev.map(shop => shop.shopId !== shopId ? shop : {
+      ...shop,
+      products: shop.products.map(product =>
+        product.id === cartItemId ? { ...product, quantity: newQuantity } : product
+      )
+    }));
+    pendingQuantities.current.set(cartItemId, newQuantity);
+    if (sendTimer.current) {
+      clearTimeout(sendTimer.current);
+    }
+    sendTimer.current = setTimeout(sendPendingQuantities, 400);
   };
 
   const handleRemoveItem = async (shopId, cartItemId) => {
@@ -118,20 +161,13 @@ const ShoppingCart = () => {
       return;
     }
     
-    try {
-      const response = await cartApi.removeFromCart(cartItemId);
-      if (response.data.success) {
-        // Remove from selected items
-        const itemKey = `${shopId}-${cartItemId}`;
-        setSelectedItems(prev => prev.filter(key => key !== itemKey));
-        // Refresh cart
-        await fetchCart();
-        // Trigger cart count refresh in header immediately
-        window.dispatchEvent(new CustomEvent('cartUpdated'));
-      }
-    } catch (error) {
-      console.error('Error removing cart item:', error);
-      alert('Không thể xóa sản phẩm. Vui lòng thử lại.');
+    // Waiting quantity edits go in the same request
+    pendingQuantities.current.delete(cartItemId);
+    const removed = await sendCartOperations([{ type: 'REMOVE', cartItemId }]);
+    if (removed) {
+      // Remove from selected items
+      const itemKey = `${shopId}-${cartItemId}`;
+      setSelectedItems(prev => prev.filter(key => key !== itemKey));
     }
   };
 
@@ -215,9 +251,12 @@ const ShoppingCart = () => {
   , 0);
 
   // Handle checkout - truyền selected items qua router state
-  const handleCheckout = () => {
+  const handleCheckout = async () => {
     if (selectedItems.length === 0) return;
 
+    // The order is built from the server's cart, so waiting edits must reach it first
+    if (!(await sendPendingQuantities())) return;
+
     // Lấy dữ liệu các sản phẩm đã chọn
     const checkoutData = cartItems
       .map(shop => ({
@@ -32,6 +32,12 @@ export const cartApi = {
     return api.delete(`/cart/items/${cartItemId}`);
   },
 
+  // Apply several edits in one request: [{ type: 'ADD', productId, quantity },
+  // { type: 'SET_QUANTITY', cartItemId, quantity }, { type: 'REMOVE', cartItemId }]
+  updateCart: (operations) => {
+    return api.patch('/cart', { operations });
+  },
+
   // Clear cart
   clearCart: () => {
     return api.delete('/cart');